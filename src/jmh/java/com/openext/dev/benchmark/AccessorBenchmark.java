@@ -0,0 +1,89 @@
+package com.openext.dev.benchmark;
+
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.binding.FieldAccessor;
+import com.openext.dev.entity.UserInfo;
+import com.openext.dev.entity.UserInfo2;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing the {@code UserInfo} and {@code UserInfo2} test entities through {@link Field#set} and
+ * {@link Constructor#newInstance} against the {@link FieldAccessor} layer used by the binding plan. Each operation
+ * creates one instance and writes its four fields; run it with the default {@code -prof gc} to see the allocation
+ * of boxed primitives next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessorBenchmark {
+
+    @Param({"UserInfo", "UserInfo2"})
+    public String entity;
+
+    private final List<String> hobbies = Arrays.asList("reading", "swimming");
+    private final List<Integer> favoriteNumbers = Arrays.asList(1, 2, 3);
+    private int age = 25;
+
+    private Constructor<?> constructor;
+    private Field name;
+    private Field ageField;
+    private Field hobbiesField;
+    private Field favoriteNumbersField;
+
+    private BindingPlan<?> plan;
+    private FieldAccessor nameAccessor;
+    private FieldAccessor ageAccessor;
+    private FieldAccessor hobbiesAccessor;
+    private FieldAccessor favoriteNumbersAccessor;
+
+    @Setup
+    public void setUp() throws Exception {
+        Class<?> type = "UserInfo".equals(entity) ? UserInfo.class : UserInfo2.class;
+
+        constructor = type.getDeclaredConstructor();
+        name = accessible(type.getDeclaredField("name"));
+        ageField = accessible(type.getDeclaredField("age"));
+        hobbiesField = accessible(type.getDeclaredField("hobbies"));
+        favoriteNumbersField = accessible(type.getDeclaredField("favoriteNumbers"));
+
+        plan = BindingPlan.of(type);
+        nameAccessor = FieldAccessor.of(name);
+        ageAccessor = FieldAccessor.of(ageField);
+        hobbiesAccessor = FieldAccessor.of(hobbiesField);
+        favoriteNumbersAccessor = FieldAccessor.of(favoriteNumbersField);
+    }
+
+    private static Field accessible(Field field) {
+        field.setAccessible(true);
+        return field;
+    }
+
+    @Benchmark
+    public Object reflective() throws Exception {
+        Object instance = constructor.newInstance();
+        name.set(instance, "Alice");
+        ageField.set(instance, age);
+        hobbiesField.set(instance, hobbies);
+        favoriteNumbersField.set(instance, favoriteNumbers);
+        return instance;
+    }
+
+    @Benchmark
+    public Object accessor() {
+        Object instance = plan.newInstance();
+        nameAccessor.set(instance, "Alice");
+        ageAccessor.setInt(instance, age);
+        hobbiesAccessor.set(instance, hobbies);
+        favoriteNumbersAccessor.set(instance, favoriteNumbers);
+        return instance;
+    }
+}
@@ -0,0 +1,82 @@
+package com.openext.dev.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openext.dev.entity.Order;
+import com.openext.dev.entity.UserInfo2;
+import com.openext.dev.parser.BodyParser;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link BodyParser#parse} and {@link BodyParser#parseToJSONObject} on small, medium and large bodies:
+ * an {@code Order} test entity with 2, 100 or 5,000 line items as JSON, and a {@code UserInfo2} form whose
+ * comma-separated lists have as many values. One parser is shared by all benchmark threads, as in an application.
+ * Run with {@code -prof gc} for the allocation rate and with {@code -t} for more threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BodyParserBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private final BodyParser bodyParser = BodyParser.builder().preload(Order.class, UserInfo2.class).build();
+    private InMemoryRequest json;
+    private InMemoryRequest form;
+
+    @Setup
+    public void setUp() throws Exception {
+        int count = "small".equals(size) ? 2 : "medium".equals(size) ? 100 : 5000;
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        StringBuilder hobbies = new StringBuilder();
+        StringBuilder numbers = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("sku", "SKU-" + (100000 + i));
+            item.put("quantity", i % 10 + 1);
+            items.add(item);
+            hobbies.append(i == 0 ? "" : "%2C").append("hobby+").append(i);
+            numbers.append(i == 0 ? "" : "%2C").append(i * 7);
+        }
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("id", "order-2024-000042");
+        order.put("items", items);
+        order.put("attributes", Collections.singletonMap("channel", "mobile"));
+
+        json = InMemoryRequest.body("application/json", new ObjectMapper().writeValueAsBytes(order));
+        form = InMemoryRequest.body("application/x-www-form-urlencoded",
+                ("name=Alice&age=30&hobbies=" + hobbies + "&favoriteNumbers=" + numbers)
+                        .getBytes(StandardCharsets.UTF_8));
+        if (parseJson().getItems().size() != count || parseForm().getFavoriteNumbers().size() != count) {
+            throw new IllegalStateException("The " + size + " bodies did not bind " + count + " elements");
+        }
+    }
+
+    @Benchmark
+    public Order parseJson() throws Exception {
+        return bodyParser.parse(json, Order.class);
+    }
+
+    @Benchmark
+    public UserInfo2 parseForm() throws Exception {
+        return bodyParser.parse(form, UserInfo2.class);
+    }
+
+    @Benchmark
+    public JSONObject parseToJSONObject() throws Exception {
+        return bodyParser.parseToJSONObject(json);
+    }
+}
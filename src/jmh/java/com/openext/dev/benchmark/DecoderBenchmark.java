@@ -0,0 +1,67 @@
+package com.openext.dev.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.openext.dev.entity.Order;
+import com.openext.dev.parser.BodyParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of decoding the same {@code Order} test entity, with 50 line items, from JSON, Smile and CBOR
+ * through one shared {@link BodyParser}. The encoded size of each format is printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DecoderBenchmark {
+
+    @Param({"application/json", "application/x-jackson-smile", "application/cbor"})
+    public String contentType;
+
+    private final BodyParser bodyParser = BodyParser.builder().preload(Order.class).build();
+    private InMemoryRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("sku", "SKU-" + (100000 + i));
+            item.put("quantity", i + 1);
+            items.add(item);
+        }
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("id", "order-2024-000042");
+        order.put("items", items);
+        order.put("attributes", Collections.singletonMap("channel", "mobile"));
+
+        ObjectMapper encoder;
+        if (contentType.endsWith("smile")) {
+            encoder = new ObjectMapper(new SmileFactory());
+        } else if (contentType.endsWith("cbor")) {
+            encoder = new ObjectMapper(new CBORFactory());
+        } else {
+            encoder = new ObjectMapper();
+        }
+        request = InMemoryRequest.body(contentType, encoder.writeValueAsBytes(order));
+        if (decode().getItems().size() != items.size()) {
+            throw new IllegalStateException("The " + contentType + " body did not bind " + items.size() + " items");
+        }
+    }
+
+    @Benchmark
+    public Order decode() throws Exception {
+        return bodyParser.parse(request, Order.class);
+    }
+}
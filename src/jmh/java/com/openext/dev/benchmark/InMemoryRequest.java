@@ -0,0 +1,158 @@
+package com.openext.dev.benchmark;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Proxy;
+import java.net.URLDecoder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A request held in memory for benchmarks, answering the calls the parsers make with plain field reads instead of
+ * Mockito or proxy dispatch, so measured time and allocation belong to the parser. It is immutable and can be shared
+ * by benchmark threads: every {@link #getInputStream()} starts a new stream over the same body. A request made with
+ * {@link #query(String)} is the exception: like a container, it decodes its whole query string into a parameter map
+ * on the first {@link #getParameter(String)}, so a benchmark creates one per invocation.
+ */
+final class InMemoryRequest extends HttpServletRequestWrapper {
+    private static final HttpServletRequest UNSUPPORTED = (HttpServletRequest) Proxy.newProxyInstance(
+            InMemoryRequest.class.getClassLoader(), new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                throw new UnsupportedOperationException(method.getName());
+            });
+
+    private final String contentType;
+    private final byte[] body;
+    private final String queryString;
+    private Map<String, String> parameters;
+
+    private InMemoryRequest(String contentType, byte[] body, Map<String, String> parameters, String queryString) {
+        super(UNSUPPORTED);
+        this.contentType = contentType;
+        this.body = body;
+        this.parameters = parameters;
+        this.queryString = queryString;
+    }
+
+    static InMemoryRequest body(String contentType, byte[] body) {
+        return new InMemoryRequest(contentType, body, Collections.emptyMap(), null);
+    }
+
+    static InMemoryRequest parameters(Map<String, String> parameters) {
+        return new InMemoryRequest(null, new byte[0], new HashMap<>(parameters), null);
+    }
+
+    static InMemoryRequest query(String queryString) {
+        return new InMemoryRequest(null, new byte[0], null, queryString);
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return null;
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return null;
+    }
+
+    @Override
+    public String getParameter(String name) {
+        if (parameters == null) {
+            parameters = decode(queryString);
+        }
+        return parameters.get(name);
+    }
+
+    @Override
+    public String getQueryString() {
+        return queryString;
+    }
+
+    /**
+     * Decode every pair of a query string, keeping the first value of a repeated key, as a container builds its
+     * parameter map
+     */
+    private static Map<String, String> decode(String queryString) {
+        Map<String, String> parameters = new HashMap<>();
+        try {
+            for (String pair : queryString.split("&")) {
+                int equals = pair.indexOf('=');
+                String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), "UTF-8");
+                String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), "UTF-8");
+                parameters.putIfAbsent(key, value);
+            }
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return parameters;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return new BodyStream(body);
+    }
+
+    private static final class BodyStream extends ServletInputStream {
+        private final byte[] body;
+        private int position;
+
+        BodyStream(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position == body.length;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("setReadListener");
+        }
+
+        @Override
+        public int read() {
+            return position < body.length ? body[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position == body.length) {
+                return -1;
+            }
+            int count = Math.min(len, body.length - position);
+            System.arraycopy(body, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return body.length - position;
+        }
+    }
+}
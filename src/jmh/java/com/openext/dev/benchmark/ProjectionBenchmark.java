@@ -0,0 +1,90 @@
+package com.openext.dev.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openext.dev.entity.Event;
+import com.openext.dev.parser.BodyParser;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding 5 fields of an {@code Event} test entity out of a 1 MB JSON envelope whose bulk is {@code metadata},
+ * {@code debug} and {@code trace} blobs the entity does not declare. {@link BodyParser#parse} skips those subtrees
+ * on the token stream; the tree model and Jackson's {@code Map} binding show the cost of materializing them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private final BodyParser bodyParser = BodyParser.builder().preload(Event.class).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private InMemoryRequest request;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Within the default limits of 1,000 keys per object and 10,000 elements per array
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (int i = 0; i < 900; i++) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("source", "service-" + i % 17);
+            entry.put("tags", Arrays.asList("alpha", "beta", "gamma", "delta"));
+            entry.put("weights", Arrays.asList(0.25, 1.5, 3.75, i * 0.5));
+            entry.put("note", "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor " + i);
+            metadata.put("attribute-" + i, entry);
+        }
+        List<String> debug = new ArrayList<>();
+        for (int i = 0; i < 8000; i++) {
+            debug.add("frame " + i + " at com.example.Service.handle(Service.java:" + (100 + i) + ")");
+        }
+        char[] trace = new char[330_000];
+        Arrays.fill(trace, 'x');
+
+        // The bound fields are spread between the blobs, as they arrive from real clients
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("id", "evt-2024-000042");
+        event.put("metadata", metadata);
+        event.put("type", "purchase");
+        event.put("userId", 1234567890123L);
+        event.put("debug", debug);
+        event.put("timestamp", 1718000000000L);
+        event.put("trace", new String(trace));
+        event.put("amount", 99.95);
+
+        body = objectMapper.writeValueAsBytes(event);
+        request = InMemoryRequest.body("application/json", body);
+        // Fail the run rather than measure a fixture that is not the projection it claims to be
+        if (body.length < 1_000_000) {
+            throw new IllegalStateException("The body should be about 1 MB but is " + body.length + " bytes");
+        }
+        Event bound = projected();
+        if (!"evt-2024-000042".equals(bound.getId()) || bound.getAmount() != 99.95) {
+            throw new IllegalStateException("The body did not bind the projected fields: " + bound);
+        }
+    }
+
+    @Benchmark
+    public Event projected() throws Exception {
+        return bodyParser.parse(request, Event.class);
+    }
+
+    @Benchmark
+    public JSONObject tree() throws Exception {
+        return bodyParser.parseToJSONObject(request);
+    }
+
+    @Benchmark
+    public Map<?, ?> databindMap() throws Exception {
+        return objectMapper.readValue(body, Map.class);
+    }
+}
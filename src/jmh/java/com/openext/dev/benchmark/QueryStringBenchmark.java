@@ -0,0 +1,49 @@
+package com.openext.dev.benchmark;
+
+import com.openext.dev.entity.UserInfo;
+import com.openext.dev.parser.RequestParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A search request of 45 query parameters, of which the {@code UserInfo} test entity declares 4, bound through the
+ * container's parameter map with {@link RequestParser#parseRequest} and by scanning the query string once with
+ * {@link RequestParser#parseQueryString}. Each invocation gets a new request, so the map is built every time, as it
+ * is for every real request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryStringBenchmark {
+
+    private String queryString;
+
+    @Setup
+    public void setUp() {
+        StringBuilder query = new StringBuilder("name=Alice+Smith&age=30&hobbies=reading%2Chiking&hobbies=chess");
+        for (int i = 0; i < 40; i++) {
+            query.append("&filter").append(i).append("=value%20").append(i);
+        }
+        query.append("&favoriteNumbers=7%2C8%2C9");
+        queryString = query.toString();
+        UserInfo bound = parseQueryString();
+        if (bound.getAge() != 30 || !Arrays.asList(7, 8, 9).equals(bound.getFavoriteNumbers())) {
+            throw new IllegalStateException("The query string did not bind: " + bound);
+        }
+    }
+
+    @Benchmark
+    public UserInfo parseRequest() {
+        return RequestParser.parseRequest(InMemoryRequest.query(queryString), UserInfo.class);
+    }
+
+    @Benchmark
+    public UserInfo parseQueryString() {
+        return RequestParser.parseQueryString(InMemoryRequest.query(queryString), UserInfo.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.openext.dev.benchmark;
+
+import com.openext.dev.entity.UserInfo;
+import com.openext.dev.parser.RequestParser;
+import com.openext.dev.utils.HReqParam;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of binding request parameters: {@link RequestParser#parseRequest} into the {@code UserInfo} test entity,
+ * {@link RequestParser#parseParamToList} on lists of 2, 100 or 5,000 numbers, and the {@link HReqParam} getters with
+ * and without a default. Run with {@code -prof gc} for the allocation rate and with {@code -t} for more threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestParserBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private InMemoryRequest request;
+
+    @Setup
+    public void setUp() {
+        int count = "small".equals(size) ? 2 : "medium".equals(size) ? 100 : 5000;
+        StringBuilder hobbies = new StringBuilder();
+        StringBuilder numbers = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            hobbies.append(i == 0 ? "" : ",").append("hobby ").append(i);
+            numbers.append(i == 0 ? "" : ",").append(i * 7);
+        }
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("name", "Alice");
+        parameters.put("age", " 30 ");
+        parameters.put("hobbies", hobbies.toString());
+        parameters.put("favoriteNumbers", numbers.toString());
+        parameters.put("id", "9007199254740993");
+        parameters.put("ratio", "0.75");
+        parameters.put("active", "true");
+        request = InMemoryRequest.parameters(parameters);
+    }
+
+    @Benchmark
+    public UserInfo parseRequest() {
+        return RequestParser.parseRequest(request, UserInfo.class);
+    }
+
+    @Benchmark
+    public List<Integer> parseParamToList() {
+        return RequestParser.parseParamToList(request, "favoriteNumbers", "", true, Integer.class);
+    }
+
+    @Benchmark
+    public int[] parseParamToIntArray() {
+        return RequestParser.parseParamToIntArray(request, "favoriteNumbers", "", true);
+    }
+
+    @Benchmark
+    public void getters(Blackhole blackhole) {
+        blackhole.consume(HReqParam.getString(request, "name"));
+        blackhole.consume(HReqParam.getInt(request, "age"));
+        blackhole.consume(HReqParam.getLong(request, "id"));
+        blackhole.consume(HReqParam.getDouble(request, "ratio"));
+        blackhole.consume(HReqParam.getBoolean(request, "active"));
+    }
+
+    @Benchmark
+    public void gettersWithDefault(Blackhole blackhole) {
+        blackhole.consume(HReqParam.getIntValue(request, "age", 0));
+        blackhole.consume(HReqParam.getLongValue(request, "id", 0L));
+        blackhole.consume(HReqParam.getDoubleValue(request, "ratio", 0d));
+        blackhole.consume(HReqParam.getBooleanValue(request, "active", false));
+        // An absent parameter takes the default without an exception
+        blackhole.consume(HReqParam.getIntValue(request, "missing", -1));
+    }
+}
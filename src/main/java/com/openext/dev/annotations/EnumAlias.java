@@ -0,0 +1,16 @@
+package com.openext.dev.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Other values that select an enum constant in a request parameter, such as {@code "asc"} for {@code ASCENDING} or a
+ * code like {@code "10"}. Aliases are matched ignoring case, like constant names.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface EnumAlias {
+    String[] value();
+}
@@ -0,0 +1,14 @@
+package com.openext.dev.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets request parameters of the annotated enum also select a constant by its ordinal, e.g. {@code 0} for the first
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface EnumOrdinals {
+}
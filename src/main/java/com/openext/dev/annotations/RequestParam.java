@@ -9,4 +9,14 @@ public @interface RequestParam {
     boolean required() default false;
     String defaultValue() default "";
     String message() default "";
+
+    /**
+     * The character between the elements of a list or primitive array parameter, and of its default value
+     */
+    char separator() default ',';
+
+    /**
+     * The character quoting list elements that contain the separator, or {@code '\0'} for none
+     */
+    char quote() default '\0';
 }
@@ -0,0 +1,55 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.validation.FieldErrors;
+import com.openext.dev.validation.MissingParameterException;
+
+/**
+ * Creates an object and binds its {@code @RequestParam} fields from a {@link ParamSource}. Implementations are
+ * generated at build time by {@code BinderProcessor}, or fall back to {@link ReflectiveBinder}.
+ * @param <T> The type of the bound object
+ */
+public interface Binder<T> {
+
+    /**
+     * Create an instance and bind every annotated field
+     * @param source The parameter values to bind
+     * @return The bound instance
+     * @throws MissingParameterException If one or more required parameters are missing
+     * @throws IllegalArgumentException If a value cannot be converted to its field type
+     */
+    T bind(ParamSource source) throws MissingParameterException;
+
+    /**
+     * Bind every annotated field into an existing instance, such as one reused across requests. List fields holding
+     * an {@link java.util.ArrayList} or a primitive list are emptied and refilled in place; fields without a value or
+     * default are reset to zero or null, or their list emptied, rather than to the value of their initializer. This
+     * default binds through reflection.
+     * @param source The parameter values to bind
+     * @param instance The instance to refill
+     * @throws MissingParameterException If one or more required parameters are missing
+     * @throws IllegalArgumentException If a value cannot be converted to its field type
+     */
+    @SuppressWarnings("unchecked")
+    default void bindInto(ParamSource source, T instance) throws MissingParameterException {
+        new ReflectiveBinder<>(BindingPlan.of((Class<T>) instance.getClass())).bindInto(source, instance);
+    }
+
+    /**
+     * Create an instance and bind every annotated field, recording each missing or invalid parameter instead of
+     * failing on the first. Generated and reflective binders reject malformed numbers and unknown enum constants
+     * without an exception; this default records only the first failure of {@link #bind(ParamSource)}.
+     * @param source The parameter values to bind
+     * @param errors Receives the errors
+     * @return The instance, bound as far as the values allow; only meaningful if no error was recorded
+     */
+    default T bind(ParamSource source, FieldErrors errors) {
+        try {
+            return bind(source);
+        } catch (MissingParameterException ex) {
+            errors.missing(null, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            errors.invalid(null, ex.getMessage(), ex);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,167 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.collections.DoubleList;
+import com.openext.dev.collections.IntList;
+import com.openext.dev.collections.LongList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resolves the {@link Binder} of a class: the one generated by {@code BinderProcessor} when it is on the class
+ * path, otherwise a {@link ReflectiveBinder}. The lookup happens once per class.
+ */
+public final class Binders {
+    private static final String SUFFIX = "_Binder";
+
+    private static final ClassValue<Binder<?>> BINDERS = new ClassValue<Binder<?>>() {
+        @Override
+        protected Binder<?> computeValue(Class<?> type) {
+            Binder<?> generated = loadGenerated(type);
+            return generated != null ? generated : reflective(type);
+        }
+    };
+
+    // Writes through the accessor of each binding, for classes without generated setters
+    private static final FieldSetters<Object> ACCESSORS = new FieldSetters<Object>() {
+        @Override
+        public void set(Object instance, ParamBinding binding, Object value) {
+            binding.accessor().set(instance, value);
+        }
+
+        @Override
+        public void setInt(Object instance, ParamBinding binding, int value) {
+            binding.accessor().setInt(instance, value);
+        }
+
+        @Override
+        public void setLong(Object instance, ParamBinding binding, long value) {
+            binding.accessor().setLong(instance, value);
+        }
+
+        @Override
+        public void setDouble(Object instance, ParamBinding binding, double value) {
+            binding.accessor().setDouble(instance, value);
+        }
+
+        @Override
+        public void setFloat(Object instance, ParamBinding binding, float value) {
+            binding.accessor().setFloat(instance, value);
+        }
+
+        @Override
+        public void setBoolean(Object instance, ParamBinding binding, boolean value) {
+            binding.accessor().setBoolean(instance, value);
+        }
+
+        @Override
+        public List<String> parameterNames() {
+            // Writes through the binding itself, whatever its index
+            return Collections.emptyList();
+        }
+    };
+
+    private Binders() {
+    }
+
+    /**
+     * Get the binder of a class
+     * @param clazz The class to bind request parameters to
+     * @return The generated binder if one exists, otherwise a reflective one
+     * @param <T> The type of the bound object
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Binder<T> of(Class<T> clazz) {
+        return (Binder<T>) BINDERS.get(clazz);
+    }
+
+    /**
+     * Get a reflective binder of a class, ignoring any generated one
+     * @param clazz The class to bind request parameters to
+     * @return The reflective binder
+     * @param <T> The type of the bound object
+     */
+    public static <T> Binder<T> reflective(Class<T> clazz) {
+        return new ReflectiveBinder<>(BindingPlan.of(clazz));
+    }
+
+    /**
+     * Get the setters a decoder that reads typed values itself writes the fields of a class with
+     * @param clazz The bound class
+     * @return The generated binder if it has setters, otherwise setters through the accessors of the binding plan,
+     * which a class bound through its constructor always uses, as its values go to an argument array
+     */
+    @SuppressWarnings("unchecked")
+    public static FieldSetters<Object> setters(Class<?> clazz) {
+        Binder<?> binder = BINDERS.get(clazz);
+        return binder instanceof FieldSetters ? (FieldSetters<Object>) binder : ACCESSORS;
+    }
+
+    /**
+     * Empty the list of a reused instance so it can be refilled. Only an {@link ArrayList} or a primitive list such as
+     * {@link IntList} is reused: any other list may be unmodifiable or shared with other
+     * code.
+     * @param list The current value of a list field
+     * @return The list, emptied, or null if it cannot be reused
+     */
+    public static <E> List<E> reuse(List<E> list) {
+        if (list instanceof ArrayList || list instanceof IntList || list instanceof LongList
+                || list instanceof DoubleList) {
+            list.clear();
+            return list;
+        }
+        return null;
+    }
+
+    /**
+     * Name of the binder generated for a class, e.g. {@code com.example.Outer_Inner_Binder} for
+     * {@code com.example.Outer$Inner}
+     * @param binaryName The binary name of the bound class
+     * @return The binary name of the generated binder
+     */
+    public static String generatedName(String binaryName) {
+        int packageEnd = binaryName.lastIndexOf('.');
+        return binaryName.substring(0, packageEnd + 1)
+                + binaryName.substring(packageEnd + 1).replace('$', '_') + SUFFIX;
+    }
+
+    private static Binder<?> loadGenerated(Class<?> type) {
+        Class<?> binderClass;
+        try {
+            binderClass = Class.forName(generatedName(type.getName()), true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return null;
+        }
+        if (!Binder.class.isAssignableFrom(binderClass)) {
+            return null;
+        }
+        Binder<?> binder;
+        try {
+            binder = (Binder<?>) binderClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Cannot create generated binder " + binderClass.getName(), ex);
+        }
+        return binder instanceof FieldSetters && !matches((FieldSetters<?>) binder, BindingPlan.of(type))
+                ? null : binder;
+    }
+
+    /**
+     * The generated setters switch on binding indexes numbered in source order, while the binding plan numbers fields
+     * in the order {@link Class#getDeclaredFields()} returns them, which is unspecified. A binder whose indexes differ,
+     * or one generated before the class changed, is not used.
+     * @return Whether the setters index the same parameters as the plan
+     */
+    private static boolean matches(FieldSetters<?> setters, BindingPlan<?> plan) {
+        List<String> names = setters.parameterNames();
+        if (names.size() != plan.size()) {
+            return false;
+        }
+        for (int i = 0; i < names.size(); i++) {
+            if (!names.get(i).equals(plan.get(i).name())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,297 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.annotations.RequestParam;
+import com.openext.dev.validation.FieldErrors;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Immutable description of how request parameters are bound to a class. A plan is built once per class from its
+ * {@link RequestParam} fields and cached in a {@link ClassValue}, so the cache never keeps the class, or the class
+ * loader that defined it, reachable on its own.
+ * <p>A record with {@link RequestParam} components, or a class with a constructor whose parameters all have
+ * {@link RequestParam}, is bound through that constructor instead, so its fields may be final. Values are collected
+ * into an argument array, and the object is created with a single call once every parameter is bound.
+ * @param <T> The type of the bound object
+ */
+public final class BindingPlan<T> {
+    private static final ClassValue<BindingPlan<?>> PLANS = new ClassValue<BindingPlan<?>>() {
+        @Override
+        protected BindingPlan<?> computeValue(Class<?> type) {
+            return new BindingPlan<>(type);
+        }
+    };
+
+    private static final MethodType SUPPLIER = MethodType.methodType(Object.class);
+    private static final MethodType CREATOR = MethodType.methodType(Object.class, Object[].class);
+
+    private final Class<T> type;
+    private final Supplier<Object> constructor;
+    private final Exception constructorFailure;
+    // Null unless the class is bound through its constructor, which is then called with a copy of the arguments
+    private final MethodHandle creator;
+    private final Object[] arguments;
+    private final ParamBinding[] bindings;
+    private final Map<String, ParamBinding> bindingsByName;
+
+    private BindingPlan(Class<T> type) {
+        this.type = type;
+
+        Supplier<Object> supplier = null;
+        Exception failure = null;
+        try {
+            Constructor<T> declared = type.getDeclaredConstructor();
+            declared.setAccessible(true);
+            supplier = constructor(declared);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException ex) {
+            failure = ex;
+        }
+        this.constructor = supplier;
+        this.constructorFailure = failure;
+
+        List<ParamBinding> resolved = new ArrayList<>();
+        Constructor<?> bound = boundConstructor(type);
+        if (bound == null) {
+            this.creator = null;
+            this.arguments = null;
+            for (Field field : type.getDeclaredFields()) {
+                RequestParam requestParam = field.getAnnotation(RequestParam.class);
+                if (requestParam != null) {
+                    resolved.add(new ParamBinding(resolved.size(), field, requestParam));
+                }
+            }
+        } else {
+            Parameter[] parameters = bound.getParameters();
+            RecordComponent[] components = type.getRecordComponents();
+            this.arguments = new Object[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                RequestParam requestParam = components != null
+                        ? components[i].getAnnotation(RequestParam.class)
+                        : parameters[i].getAnnotation(RequestParam.class);
+                Class<?> parameterType = parameters[i].getType();
+                resolved.add(new ParamBinding(i, i, parameterType, components != null
+                        ? components[i].getGenericType() : parameters[i].getParameterizedType(), requestParam));
+                // A primitive parameter without a value or default is passed its zero value
+                arguments[i] = parameterType.isPrimitive() ? ParamBinding.zeroValue(parameterType) : null;
+            }
+            try {
+                bound.setAccessible(true);
+                this.creator = MethodHandles.lookup().unreflectConstructor(bound).asFixedArity()
+                        .asSpreader(Object[].class, parameters.length).asType(CREATOR);
+            } catch (IllegalAccessException | RuntimeException ex) {
+                throw new IllegalArgumentException("Cannot access the constructor of " + type.getName(), ex);
+            }
+        }
+        this.bindings = resolved.toArray(new ParamBinding[0]);
+
+        Map<String, ParamBinding> byName = new HashMap<>();
+        for (ParamBinding binding : bindings) {
+            // Rejected as the binder processor rejects it, rather than binding only the first of them
+            if (byName.putIfAbsent(binding.name(), binding) != null) {
+                throw new IllegalArgumentException("Duplicate parameter name " + binding.name() + " in "
+                        + type.getName());
+            }
+        }
+        this.bindingsByName = byName;
+    }
+
+    /**
+     * @return A supplier calling the no-arg constructor directly, spun by {@link Lambdas}, or calling it through a
+     * method handle if the class cannot be looked up privately
+     */
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> constructor(Constructor<?> declared) throws IllegalAccessException {
+        MethodHandles.Lookup lookup = Lambdas.lookup(declared.getDeclaringClass());
+        if (lookup != null) {
+            Supplier<Object> supplier = Lambdas.of(lookup, Supplier.class, "get", SUPPLIER,
+                    lookup.unreflectConstructor(declared), MethodType.methodType(declared.getDeclaringClass()));
+            if (supplier != null) {
+                return supplier;
+            }
+        }
+        MethodHandle handle = MethodHandles.lookup().unreflectConstructor(declared).asType(SUPPLIER);
+        return () -> {
+            try {
+                return handle.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        };
+    }
+
+    /**
+     * @return The canonical constructor of a record with {@link RequestParam} components, the constructor of a class
+     * whose parameters have {@link RequestParam}, or null if the class is bound through its fields
+     * @throws IllegalArgumentException If only some of the parameters have {@link RequestParam}, or several
+     * constructors of the class do
+     */
+    private static Constructor<?> boundConstructor(Class<?> type) {
+        if (type.isRecord()) {
+            RecordComponent[] components = type.getRecordComponents();
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            int annotated = 0;
+            for (int i = 0; i < components.length; i++) {
+                parameterTypes[i] = components[i].getType();
+                if (components[i].isAnnotationPresent(RequestParam.class)) {
+                    annotated++;
+                }
+            }
+            if (annotated == 0) {
+                return null;
+            }
+            if (annotated < components.length) {
+                throw new IllegalArgumentException("Every component of record " + type.getName()
+                        + " must have @RequestParam");
+            }
+            try {
+                return type.getDeclaredConstructor(parameterTypes);
+            } catch (NoSuchMethodException ex) {
+                throw new IllegalArgumentException("No canonical constructor in record " + type.getName(), ex);
+            }
+        }
+
+        Constructor<?> found = null;
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            int annotated = 0;
+            for (Parameter parameter : constructor.getParameters()) {
+                if (parameter.isAnnotationPresent(RequestParam.class)) {
+                    annotated++;
+                }
+            }
+            if (annotated == 0) {
+                continue;
+            }
+            if (annotated < constructor.getParameterCount()) {
+                throw new IllegalArgumentException("Every parameter of a @RequestParam constructor of "
+                        + type.getName() + " must have @RequestParam");
+            }
+            if (found != null) {
+                throw new IllegalArgumentException(type.getName() + " has more than one @RequestParam constructor");
+            }
+            found = constructor;
+        }
+        return found;
+    }
+
+    /**
+     * Get the binding plan of a class, building it on first use
+     * @param clazz The class to bind request parameters to
+     * @return The shared binding plan
+     * @param <T> The type of the bound object
+     * @throws IllegalArgumentException If a default value cannot be converted to its field type, the constructor to
+     * bind through is ambiguous, or two fields or parameters declare the same parameter name
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BindingPlan<T> of(Class<T> clazz) {
+        return (BindingPlan<T>) PLANS.get(clazz);
+    }
+
+    public Class<T> type() {
+        return type;
+    }
+
+    public int size() {
+        return bindings.length;
+    }
+
+    public ParamBinding get(int index) {
+        return bindings[index];
+    }
+
+    /**
+     * Find the binding of a parameter name. When several fields declare the same name, the first one is returned.
+     * @param name The parameter name
+     * @return The binding, or null if no field is bound to the name
+     */
+    public ParamBinding find(String name) {
+        return bindingsByName.get(name);
+    }
+
+    /**
+     * @return Whether the class is bound through its constructor, so an existing instance cannot be bound into
+     */
+    public boolean isConstructorBound() {
+        return creator != null;
+    }
+
+    /**
+     * Start binding an object: a new instance through the no-arg constructor, or for a class bound through its
+     * constructor, the argument array. Either is written through the {@link FieldAccessor}s of the bindings, and
+     * turned into the object by {@link #build}.
+     * @return The instance or argument array to bind into
+     */
+    public Object newTarget() {
+        return creator == null ? newInstance() : arguments.clone();
+    }
+
+    /**
+     * Finish binding an object started with {@link #newTarget()}, calling the constructor with the collected arguments
+     * for a class bound through its constructor
+     * @param target The bound instance or argument array
+     * @return The object
+     * @throws IllegalArgumentException If the constructor rejects its arguments
+     */
+    @SuppressWarnings("unchecked")
+    public T build(Object target) {
+        if (creator == null) {
+            return (T) target;
+        }
+        try {
+            return (T) (Object) creator.invokeExact((Object[]) target);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalArgumentException("Cannot create " + type.getName() + ": " + t.getMessage(), t);
+        }
+    }
+
+    /**
+     * Finish binding an object like {@link #build(Object)}, recording a constructor that rejects its arguments in
+     * {@code errors} if it is given. Once an error is recorded, the object of a constructor-bound class is not created.
+     * @return The object, or null if it was not created
+     */
+    public T build(Object target, FieldErrors errors) {
+        if (creator == null || errors == null) {
+            return build(target);
+        }
+        if (!errors.isEmpty()) {
+            return null;
+        }
+        try {
+            return build(target);
+        } catch (IllegalArgumentException ex) {
+            errors.invalid(null, ex.getMessage(), ex.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Create a new instance through the no-arg constructor
+     * @return The new instance
+     * @throws RuntimeException If the instance cannot be created
+     */
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        if (constructor == null) {
+            throw new RuntimeException("Cannot create instance of " + type.getName(), constructorFailure);
+        }
+        try {
+            return (T) constructor.get();
+        } catch (RuntimeException ex) {
+            throw new RuntimeException("Cannot create instance of " + type.getName(), ex);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.annotations.EnumAlias;
+import com.openext.dev.annotations.EnumOrdinals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resolves the constants of an enum from request text with a table built once per enum class. Names and
+ * {@link EnumAlias} aliases are matched ignoring case and surrounding whitespace, and so are ordinals of an enum
+ * annotated with {@link EnumOrdinals}. The text is hashed and compared in place, so a lookup allocates nothing and a
+ * miss returns null rather than throwing. A name takes precedence over an alias, and an alias over an ordinal.
+ * @param <E> The enum type
+ */
+public final class EnumLookup<E extends Enum<E>> {
+    private static final ClassValue<EnumLookup<?>> LOOKUPS = new ClassValue<EnumLookup<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected EnumLookup<?> computeValue(Class<?> type) {
+            return new EnumLookup(type);
+        }
+    };
+
+    private final Class<E> type;
+    // Open addressing with linear probing; a key is stored as given and folded when compared
+    private final String[] keys;
+    private final Object[] constants;
+    private final int mask;
+
+    private EnumLookup(Class<E> type) {
+        this.type = type;
+        E[] values = type.getEnumConstants();
+        List<String> names = new ArrayList<>();
+        List<E> targets = new ArrayList<>();
+        for (E constant : values) {
+            names.add(constant.name());
+            targets.add(constant);
+        }
+        for (E constant : values) {
+            EnumAlias alias = alias(constant);
+            if (alias != null) {
+                for (String name : alias.value()) {
+                    names.add(name.trim());
+                    targets.add(constant);
+                }
+            }
+        }
+        if (type.isAnnotationPresent(EnumOrdinals.class)) {
+            for (E constant : values) {
+                names.add(Integer.toString(constant.ordinal()));
+                targets.add(constant);
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(names.size(), 1) * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.constants = new Object[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < names.size(); i++) {
+            put(names.get(i), targets.get(i));
+        }
+    }
+
+    /**
+     * @param type The enum class
+     * @return The lookup of the enum, built on first use
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+        return (EnumLookup<E>) LOOKUPS.get(type);
+    }
+
+    private EnumAlias alias(E constant) {
+        try {
+            return type.getField(constant.name()).getAnnotation(EnumAlias.class);
+        } catch (NoSuchFieldException ex) {
+            return null;
+        }
+    }
+
+    private void put(String key, E constant) {
+        int slot = hash(key, 0, key.length()) & mask;
+        while (keys[slot] != null) {
+            if (matches(keys[slot], key, 0, key.length())) {
+                // The first value wins: names are put before aliases, and aliases before ordinals
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        constants[slot] = constant;
+    }
+
+    /**
+     * @return The constant matching the text, or null if none does
+     */
+    public E find(CharSequence text) {
+        return find(text, 0, text.length());
+    }
+
+    /**
+     * @return The constant matching the range of the text, or null if none does
+     */
+    @SuppressWarnings("unchecked")
+    public E find(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int slot = hash(text, start, end) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (matches(key, text, start, end)) {
+                return (E) constants[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return The constant matching the characters, such as the text buffer of a JSON parser, or null if none does
+     */
+    @SuppressWarnings("unchecked")
+    public E find(char[] text, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && text[start] <= ' ') {
+            start++;
+        }
+        while (end > start && text[end - 1] <= ' ') {
+            end--;
+        }
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(text[i]);
+        }
+        int slot = spread(hash) & mask;
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (key.length() == end - start && matches(key, text, start)) {
+                return (E) constants[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return The constant matching the text
+     * @throws IllegalArgumentException If no constant matches
+     */
+    public E parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * @return The constant matching the range of the text
+     * @throws IllegalArgumentException If no constant matches
+     */
+    public E parse(CharSequence text, int start, int end) {
+        E constant = find(text, start, end);
+        if (constant == null) {
+            throw miss(text.subSequence(start, end));
+        }
+        return constant;
+    }
+
+    /**
+     * @return The constant matching the characters
+     * @throws IllegalArgumentException If no constant matches
+     */
+    public E parse(char[] text, int offset, int length) {
+        E constant = find(text, offset, length);
+        if (constant == null) {
+            throw miss(new String(text, offset, length));
+        }
+        return constant;
+    }
+
+    private IllegalArgumentException miss(CharSequence text) {
+        return new IllegalArgumentException("No constant of " + type.getSimpleName() + " matches: " + text);
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + fold(text.charAt(i));
+        }
+        return spread(hash);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(String key, CharSequence text, int start, int end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (fold(key.charAt(i)) != fold(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String key, char[] text, int start) {
+        for (int i = 0; i < key.length(); i++) {
+            if (fold(key.charAt(i)) != fold(text[start + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fold a character for matching ignoring case, as {@link String#equalsIgnoreCase} compares
+     */
+    private static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,293 @@
+package com.openext.dev.binding;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Reads and writes a field through functional interface instances spun by {@link FieldLambdas}, instead of
+ * {@link Field#set} with its per-call access checks. The instances access the field directly, so the JIT inlines them
+ * like a hand-written {@code instance.name = value}; like {@link Field#set}, they never call the accessor methods of
+ * the class. Primitive fields additionally get an exact-typed setter so values are written without boxing. A final
+ * field, or one whose class cannot be looked up privately, is written through {@link MethodHandle}s resolved once. The
+ * accessor of a constructor parameter reads and writes its slot in the argument array the constructor is called with.
+ */
+public final class FieldAccessor {
+    private static final MethodType OBJECT_SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+    private final Field field;
+    private final String description;
+    private final Class<?> type;
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+    // An ObjIntConsumer, ObjLongConsumer, ObjDoubleConsumer, FloatSetter or BooleanSetter for a primitive field
+    private final Object primitiveSetter;
+
+    private FieldAccessor(Field field, String description, Class<?> type, Function<Object, Object> getter,
+            BiConsumer<Object, Object> setter, Object primitiveSetter) {
+        this.field = field;
+        this.description = description;
+        this.type = type;
+        this.getter = getter;
+        this.setter = setter;
+        this.primitiveSetter = primitiveSetter;
+    }
+
+    /**
+     * Writes a {@code float} field without boxing
+     */
+    @FunctionalInterface
+    public interface FloatSetter {
+        void accept(Object instance, float value);
+    }
+
+    /**
+     * Writes a {@code boolean} field without boxing
+     */
+    @FunctionalInterface
+    public interface BooleanSetter {
+        void accept(Object instance, boolean value);
+    }
+
+    /**
+     * Create an accessor for a field
+     * @param field The field to read and write
+     * @return The accessor
+     * @throws IllegalArgumentException If the field cannot be made accessible
+     */
+    public static FieldAccessor of(Field field) {
+        MethodHandle getterHandle;
+        MethodHandle setterHandle;
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            getterHandle = lookup.unreflectGetter(field);
+            setterHandle = lookup.unreflectSetter(field);
+        } catch (IllegalAccessException | RuntimeException ex) {
+            throw new IllegalArgumentException("Cannot access field " + field.getDeclaringClass().getName()
+                    + "." + field.getName(), ex);
+        }
+
+        Class<?> type = field.getType();
+        Class<?> primitiveSetterType = primitiveSetterType(type);
+        Object lambdas = FieldLambdas.of(Lambdas.lookup(field.getDeclaringClass()), field, primitiveSetterType);
+
+        String description = "field " + field.getName();
+        if (lambdas != null) {
+            return new FieldAccessor(field, description, type, getter(lambdas), setter(lambdas),
+                    primitiveSetterType != null ? lambdas : null);
+        }
+        return new FieldAccessor(field, description, type, handleGetter(getterHandle), handleSetter(setterHandle),
+                primitiveSetterType != null ? handlePrimitiveSetter(setterHandle, type) : null);
+    }
+
+    /**
+     * Create an accessor for the slot of a constructor parameter in the argument array. Primitive values are boxed
+     * when they are written, as the constructor is called with an {@code Object[]}.
+     * @param index The position of the parameter
+     * @param name The name of the parameter, for error messages
+     * @param type The type of the parameter
+     * @return The accessor
+     */
+    static FieldAccessor argument(int index, String name, Class<?> type) {
+        BiConsumer<Object, Object> setter = (arguments, value) -> ((Object[]) arguments)[index] = value;
+        Object primitiveSetter = null;
+        if (type == int.class) {
+            primitiveSetter = (ObjIntConsumer<Object>) (arguments, value) -> ((Object[]) arguments)[index] = value;
+        } else if (type == long.class) {
+            primitiveSetter = (ObjLongConsumer<Object>) (arguments, value) -> ((Object[]) arguments)[index] = value;
+        } else if (type == double.class) {
+            primitiveSetter = (ObjDoubleConsumer<Object>) (arguments, value) -> ((Object[]) arguments)[index] = value;
+        } else if (type == float.class) {
+            primitiveSetter = (FloatSetter) (arguments, value) -> ((Object[]) arguments)[index] = value;
+        } else if (type == boolean.class) {
+            primitiveSetter = (BooleanSetter) (arguments, value) -> ((Object[]) arguments)[index] = value;
+        }
+        return new FieldAccessor(null, "constructor parameter " + name, type,
+                arguments -> ((Object[]) arguments)[index], setter, primitiveSetter);
+    }
+
+    /**
+     * @return The exact-typed setter interface of a primitive field, or null if the field is written boxed
+     */
+    private static Class<?> primitiveSetterType(Class<?> type) {
+        if (type == int.class) {
+            return ObjIntConsumer.class;
+        } else if (type == long.class) {
+            return ObjLongConsumer.class;
+        } else if (type == double.class) {
+            return ObjDoubleConsumer.class;
+        } else if (type == float.class) {
+            return FloatSetter.class;
+        } else if (type == boolean.class) {
+            return BooleanSetter.class;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Object lambdas) {
+        return (Function<Object, Object>) lambdas;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Object lambdas) {
+        return (BiConsumer<Object, Object>) lambdas;
+    }
+
+    private static Function<Object, Object> handleGetter(MethodHandle handle) {
+        MethodHandle getter = handle.asType(OBJECT_GETTER);
+        return instance -> {
+            try {
+                return getter.invokeExact(instance);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        };
+    }
+
+    private static BiConsumer<Object, Object> handleSetter(MethodHandle handle) {
+        MethodHandle setter = handle.asType(OBJECT_SETTER);
+        return (instance, value) -> {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        };
+    }
+
+    private static Object handlePrimitiveSetter(MethodHandle handle, Class<?> type) {
+        MethodHandle setter = handle.asType(MethodType.methodType(void.class, Object.class, type));
+        if (type == int.class) {
+            return (ObjIntConsumer<Object>) (instance, value) -> {
+                try {
+                    setter.invokeExact(instance, value);
+                } catch (Throwable t) {
+                    throw unchecked(t);
+                }
+            };
+        } else if (type == long.class) {
+            return (ObjLongConsumer<Object>) (instance, value) -> {
+                try {
+                    setter.invokeExact(instance, value);
+                } catch (Throwable t) {
+                    throw unchecked(t);
+                }
+            };
+        } else if (type == double.class) {
+            return (ObjDoubleConsumer<Object>) (instance, value) -> {
+                try {
+                    setter.invokeExact(instance, value);
+                } catch (Throwable t) {
+                    throw unchecked(t);
+                }
+            };
+        } else if (type == float.class) {
+            return (FloatSetter) (instance, value) -> {
+                try {
+                    setter.invokeExact(instance, value);
+                } catch (Throwable t) {
+                    throw unchecked(t);
+                }
+            };
+        }
+        return (BooleanSetter) (instance, value) -> {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw unchecked(t);
+            }
+        };
+    }
+
+    private static RuntimeException unchecked(Throwable t) {
+        if (t instanceof RuntimeException) {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IllegalStateException(t);
+    }
+
+    /**
+     * @return The field, or null for a constructor parameter
+     */
+    public Field field() {
+        return field;
+    }
+
+    /**
+     * @return The current value of the field, boxed if it is primitive
+     */
+    public Object get(Object instance) {
+        try {
+            return getter.apply(instance);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw failure(ex);
+        }
+    }
+
+    public void set(Object instance, Object value) {
+        try {
+            setter.accept(instance, value);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void setInt(Object instance, int value) {
+        try {
+            ((ObjIntConsumer<Object>) primitiveSetter).accept(instance, value);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void setLong(Object instance, long value) {
+        try {
+            ((ObjLongConsumer<Object>) primitiveSetter).accept(instance, value);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw failure(ex);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void setDouble(Object instance, double value) {
+        try {
+            ((ObjDoubleConsumer<Object>) primitiveSetter).accept(instance, value);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw failure(ex);
+        }
+    }
+
+    public void setFloat(Object instance, float value) {
+        try {
+            ((FloatSetter) primitiveSetter).accept(instance, value);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw failure(ex);
+        }
+    }
+
+    public void setBoolean(Object instance, boolean value) {
+        try {
+            ((BooleanSetter) primitiveSetter).accept(instance, value);
+        } catch (ClassCastException | NullPointerException ex) {
+            throw failure(ex);
+        }
+    }
+
+    private IllegalArgumentException failure(RuntimeException ex) {
+        return new IllegalArgumentException("Cannot set " + description + " of type " + type.getName(), ex);
+    }
+}
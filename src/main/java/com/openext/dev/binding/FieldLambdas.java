@@ -0,0 +1,281 @@
+package com.openext.dev.binding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Reads and writes a field through a hidden class that {@code getfield}s and {@code putfield}s it, the bytecode
+ * {@code javac} emits for {@code instance.name = value}. {@link java.lang.invoke.LambdaMetafactory} only accepts
+ * method and constructor handles, and calling the accessor methods of the field would run user code that
+ * {@link Field#set} never ran. The class is defined as a nestmate of the declaring class, so it may access private
+ * fields, and implements {@link Function}, {@link BiConsumer} and, for a primitive field, the exact-typed setter
+ * interface.
+ */
+final class FieldLambdas {
+    private static final int MAGIC = 0xCAFEBABE;
+    // Java 17 class files; hidden classes need at least Java 15
+    private static final int MAJOR_VERSION = 61;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ILOAD_2 = 0x1c;
+    private static final int LLOAD_2 = 0x20;
+    private static final int FLOAD_2 = 0x24;
+    private static final int DLOAD_2 = 0x28;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object;";
+
+    private FieldLambdas() {
+    }
+
+    /**
+     * Implement {@link Function}, {@link BiConsumer} and {@code primitiveSetterType} over a field
+     * @param lookup The lookup of the class declaring the field, from {@link Lambdas#lookup(Class)}
+     * @param field A non-static, non-final field
+     * @param primitiveSetterType The functional interface whose {@code accept(Object, T)} writes the primitive value
+     * of the field unboxed, or null
+     * @return The instance, or null if the hidden class cannot be defined
+     */
+    static Object of(MethodHandles.Lookup lookup, Field field, Class<?> primitiveSetterType) {
+        Class<?> owner = field.getDeclaringClass();
+        if (lookup == null || owner.isHidden() || field.getType().isHidden()
+                || Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) {
+            return null;
+        }
+        try {
+            byte[] bytes = new ClassWriter(field, primitiveSetterType).toByteArray();
+            MethodHandles.Lookup hidden = lookup.defineHiddenClass(bytes, true,
+                    MethodHandles.Lookup.ClassOption.NESTMATE);
+            return hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable t) {
+            // A LinkageError when the class loader of the bound class cannot see the functional interface
+            return null;
+        }
+    }
+
+    /**
+     * Writes the class file of the hidden class. None of its methods branch, so they need no stack map frames.
+     */
+    private static final class ClassWriter {
+        private final List<byte[]> constants = new ArrayList<>();
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+        private int methodCount;
+
+        private final Class<?> type;
+        private final String ownerName;
+        private final String className;
+        private final List<String> interfaces = new ArrayList<>();
+        private final int fieldRef;
+
+        ClassWriter(Field field, Class<?> primitiveSetterType) throws IOException {
+            type = field.getType();
+            ownerName = internalName(field.getDeclaringClass());
+            className = ownerName + "$$FieldLambda";
+            fieldRef = memberRef(9, ownerName, field.getName(), type.descriptorString());
+            interfaces.add(internalName(Function.class));
+            interfaces.add(internalName(BiConsumer.class));
+
+            method("<init>", "()V", 1, 1, code -> {
+                code.writeByte(ALOAD_0);
+                code.writeByte(INVOKESPECIAL);
+                code.writeShort(memberRef(10, OBJECT, "<init>", "()V"));
+                code.writeByte(RETURN);
+            });
+            method("apply", "(" + OBJECT_DESCRIPTOR + ")" + OBJECT_DESCRIPTOR, 2, 2, code -> {
+                loadOwner(code);
+                code.writeByte(GETFIELD);
+                code.writeShort(fieldRef);
+                if (type.isPrimitive()) {
+                    String boxed = internalName(boxed());
+                    code.writeByte(INVOKESTATIC);
+                    code.writeShort(memberRef(10, boxed, "valueOf",
+                            "(" + type.descriptorString() + ")L" + boxed + ";"));
+                }
+                code.writeByte(ARETURN);
+            });
+            method("accept", "(" + OBJECT_DESCRIPTOR + OBJECT_DESCRIPTOR + ")V", 3, 3, code -> {
+                loadOwner(code);
+                code.writeByte(ALOAD_2);
+                code.writeByte(CHECKCAST);
+                code.writeShort(classRef(internalName(type.isPrimitive() ? boxed() : type)));
+                if (type.isPrimitive()) {
+                    code.writeByte(INVOKEVIRTUAL);
+                    code.writeShort(memberRef(10, internalName(boxed()), type.getName() + "Value",
+                            "()" + type.descriptorString()));
+                }
+                code.writeByte(PUTFIELD);
+                code.writeShort(fieldRef);
+                code.writeByte(RETURN);
+            });
+            if (type.isPrimitive() && primitiveSetterType != null) {
+                interfaces.add(internalName(primitiveSetterType));
+                method("accept", "(" + OBJECT_DESCRIPTOR + type.descriptorString() + ")V", 3, 4, code -> {
+                    loadOwner(code);
+                    code.writeByte(primitiveLoad());
+                    code.writeByte(PUTFIELD);
+                    code.writeShort(fieldRef);
+                    code.writeByte(RETURN);
+                });
+            }
+        }
+
+        byte[] toByteArray() throws IOException {
+            int thisClass = classRef(className);
+            int superClass = classRef(OBJECT);
+            int[] interfaceRefs = new int[interfaces.size()];
+            for (int i = 0; i < interfaceRefs.length; i++) {
+                interfaceRefs[i] = classRef(interfaces.get(i));
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(constants.size() + 1);
+            for (byte[] constant : constants) {
+                out.write(constant);
+            }
+            out.writeShort(ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaceRefs.length);
+            for (int interfaceRef : interfaceRefs) {
+                out.writeShort(interfaceRef);
+            }
+            // No fields
+            out.writeShort(0);
+            out.writeShort(methodCount);
+            methods.writeTo(out);
+            // No class attributes
+            out.writeShort(0);
+            return bytes.toByteArray();
+        }
+
+        private interface BytesWriter {
+            void write(DataOutputStream code) throws IOException;
+        }
+
+        private void method(String name, String descriptor, int maxStack, int maxLocals, BytesWriter writer)
+                throws IOException {
+            ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+            writer.write(new DataOutputStream(codeBytes));
+
+            DataOutputStream out = new DataOutputStream(methods);
+            out.writeShort(ACC_PUBLIC);
+            out.writeShort(utf8(name));
+            out.writeShort(utf8(descriptor));
+            out.writeShort(1);
+            out.writeShort(utf8("Code"));
+            out.writeInt(12 + codeBytes.size());
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(codeBytes.size());
+            codeBytes.writeTo(out);
+            // No exception table and no code attributes
+            out.writeShort(0);
+            out.writeShort(0);
+            methodCount++;
+        }
+
+        private void loadOwner(DataOutputStream code) throws IOException {
+            code.writeByte(ALOAD_1);
+            code.writeByte(CHECKCAST);
+            code.writeShort(classRef(ownerName));
+        }
+
+        private int primitiveLoad() {
+            if (type == long.class) {
+                return LLOAD_2;
+            } else if (type == double.class) {
+                return DLOAD_2;
+            } else if (type == float.class) {
+                return FLOAD_2;
+            }
+            // boolean, byte, short, char and int are all passed as an int
+            return ILOAD_2;
+        }
+
+        private Class<?> boxed() {
+            return MethodType.methodType(type).wrap().returnType();
+        }
+
+        private int utf8(String value) throws IOException {
+            return constant("U" + value, out -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        private int classRef(String name) throws IOException {
+            int nameIndex = utf8(name);
+            return constant("C" + name, out -> {
+                out.writeByte(7);
+                out.writeShort(nameIndex);
+            });
+        }
+
+        /**
+         * @param tag 9 for a field reference, 10 for a method reference
+         */
+        private int memberRef(int tag, String owner, String name, String descriptor) throws IOException {
+            int classIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = constant("N" + name + ":" + descriptor, out -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return constant(tag + owner + "." + name + ":" + descriptor, out -> {
+                out.writeByte(tag);
+                out.writeShort(classIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int constant(String key, BytesWriter writer) throws IOException {
+            Integer index = indexes.get(key);
+            if (index != null) {
+                return index;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            writer.write(new DataOutputStream(bytes));
+            constants.add(bytes.toByteArray());
+            // Constant pool indexes start at 1
+            indexes.put(key, constants.size());
+            return constants.size();
+        }
+
+        private static String internalName(Class<?> type) {
+            return type.isArray() ? type.descriptorString() : type.getName().replace('.', '/');
+        }
+    }
+}
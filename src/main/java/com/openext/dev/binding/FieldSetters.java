@@ -0,0 +1,37 @@
+package com.openext.dev.binding;
+
+import java.util.List;
+
+/**
+ * Writes typed values to the fields of a bound class, for decoders that read values themselves rather than through a
+ * {@link ParamSource}, such as the JSON binder. Generated binders of classes bound through their fields implement it
+ * with a switch on the binding index that writes the field or calls its setter directly; otherwise the
+ * {@link FieldAccessor} of each binding is used.
+ * @param <T> The type of the bound object
+ * @see Binders#setters(Class)
+ */
+public interface FieldSetters<T> {
+
+    /**
+     * @param instance The instance to write to
+     * @param binding The binding of the field
+     * @param value The value, of the field type
+     */
+    void set(T instance, ParamBinding binding, Object value);
+
+    void setInt(T instance, ParamBinding binding, int value);
+
+    void setLong(T instance, ParamBinding binding, long value);
+
+    void setDouble(T instance, ParamBinding binding, double value);
+
+    void setFloat(T instance, ParamBinding binding, float value);
+
+    void setBoolean(T instance, ParamBinding binding, boolean value);
+
+    /**
+     * @return The parameter name of each binding index the setters dispatch on. Generated setters are used only if
+     * these match the {@link BindingPlan} of the class, which numbers its fields in the order reflection returns them.
+     */
+    List<String> parameterNames();
+}
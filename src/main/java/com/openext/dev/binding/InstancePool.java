@@ -0,0 +1,61 @@
+package com.openext.dev.binding;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reuses instances of a bound class across requests, for endpoints that bind a request with
+ * {@code parseInto} and discard the instance when the request ends. Binding into an instance resets every field the
+ * request leaves out and refills its lists in place, so once the pool is warm a request binds without allocating the
+ * object or its lists. Idle instances are kept in a fixed array of {@code capacity} slots, so acquiring and releasing
+ * allocate nothing either; an instance released while every slot is taken is left to the garbage collector. An
+ * instance must not be used once it is released.
+ * @param <T> The type of the pooled objects
+ */
+public final class InstancePool<T> {
+    private final BindingPlan<T> plan;
+    private final AtomicReferenceArray<T> idle;
+
+    /**
+     * @param type The class of the pooled objects
+     * @param capacity The maximum number of idle instances kept
+     * @throws IllegalArgumentException If the class is bound through its constructor
+     */
+    public InstancePool(Class<T> type, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Instance pool capacity must not be negative");
+        }
+        this.plan = BindingPlan.of(type);
+        if (plan.isConstructorBound()) {
+            throw new IllegalArgumentException(type.getName()
+                    + " is bound through its constructor and cannot be reused");
+        }
+        this.idle = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * @return An idle instance, holding the values of its last use until it is bound into, or a new instance
+     */
+    public T acquire() {
+        for (int i = 0; i < idle.length(); i++) {
+            // Read before swapping, so empty slots are skipped without a write
+            if (idle.get(i) != null) {
+                T instance = idle.getAndSet(i, null);
+                if (instance != null) {
+                    return instance;
+                }
+            }
+        }
+        return plan.newInstance();
+    }
+
+    /**
+     * Return an instance to the pool once the request that used it is done
+     */
+    public void release(T instance) {
+        for (int i = 0; i < idle.length(); i++) {
+            if (idle.get(i) == null && idle.compareAndSet(i, null, instance)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.openext.dev.binding;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Spins functional interface instances around the methods and constructors of bound classes with
+ * {@link LambdaMetafactory}, as {@code javac} does for a method reference. Unlike a {@link MethodHandle} kept in a
+ * field, the generated class calls its target directly, so the JIT compiles and inlines it like hand-written code.
+ */
+final class Lambdas {
+
+    private Lambdas() {
+    }
+
+    /**
+     * @return A lookup with private access to {@code type}, which the generated class is defined next to, or null if
+     * the module of the class does not open it to this library
+     */
+    static MethodHandles.Lookup lookup(Class<?> type) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            return lookup.hasFullPrivilegeAccess() ? lookup : null;
+        } catch (IllegalAccessException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Implement a functional interface with a direct method handle
+     * @param lookup The lookup of the class declaring the implementation, from {@link #lookup(Class)}
+     * @param type The functional interface
+     * @param method The name of its single abstract method
+     * @param erased The type of that method
+     * @param implementation A method handle obtained by unreflecting a method or constructor, not a field
+     * @param instantiated The type of the abstract method with the actual parameter and return types, which the
+     * values passed to the interface are cast, unboxed or boxed to
+     * @return The instance, or null if the method handle cannot be turned into a lambda
+     */
+    static <I> I of(MethodHandles.Lookup lookup, Class<I> type, String method, MethodType erased,
+            MethodHandle implementation, MethodType instantiated) {
+        if (lookup == null) {
+            return null;
+        }
+        try {
+            MethodHandle factory = LambdaMetafactory.metafactory(lookup, method, MethodType.methodType(type), erased,
+                    implementation, instantiated).getTarget();
+            return type.cast(factory.invoke());
+        } catch (VirtualMachineError e) {
+            throw e;
+        } catch (Throwable t) {
+            // A LambdaConversionException, or a LinkageError when the class loader of the bound class cannot see the
+            // functional interface
+            return null;
+        }
+    }
+}
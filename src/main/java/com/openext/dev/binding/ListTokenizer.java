@@ -0,0 +1,162 @@
+package com.openext.dev.binding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a delimited list parameter without regular expressions or intermediate substrings. Each element is handed
+ * to its consumer as an index range of the original text, with surrounding whitespace already excluded, so numbers
+ * can be parsed in place and a String is only created when the element type needs one.
+ * <p>
+ * When a quote character is configured, an element starting with it runs to the matching quote and may contain the
+ * separator; a doubled quote inside stands for one quote. Like {@link String#split}, trailing empty elements are
+ * dropped.
+ */
+public final class ListTokenizer {
+    /** No quoting */
+    public static final char NO_QUOTE = '\0';
+
+    /** Comma-separated, without quoting */
+    public static final ListTokenizer DEFAULT = new ListTokenizer(',', NO_QUOTE);
+
+    private final char separator;
+    private final char quote;
+
+    private ListTokenizer(char separator, char quote) {
+        this.separator = separator;
+        this.quote = quote;
+    }
+
+    /**
+     * @param separator The character between elements
+     * @param quote The quote character, or {@link #NO_QUOTE}
+     * @return The tokenizer
+     * @throws IllegalArgumentException If the separator is the quote character
+     */
+    public static ListTokenizer of(char separator, char quote) {
+        if (separator == quote) {
+            throw new IllegalArgumentException("List separator and quote must differ: '" + separator + "'");
+        }
+        return separator == ',' && quote == NO_QUOTE ? DEFAULT : new ListTokenizer(separator, quote);
+    }
+
+    public char separator() {
+        return separator;
+    }
+
+    public char quote() {
+        return quote;
+    }
+
+    @FunctionalInterface
+    public interface TokenConsumer {
+        void accept(CharSequence text, int start, int end);
+    }
+
+    @FunctionalInterface
+    public interface TokenParser<T> {
+        T parse(CharSequence text, int start, int end);
+    }
+
+    /**
+     * Parse each element of the text into a new list
+     * @param text The delimited text
+     * @param parser The element parser
+     * @return The parsed elements
+     */
+    public <T> List<T> toList(CharSequence text, TokenParser<? extends T> parser) {
+        List<T> result = new ArrayList<>();
+        forEach(text, (chars, start, end) -> result.add(parser.parse(chars, start, end)));
+        return result;
+    }
+
+    /**
+     * Hand each element of the text to the consumer in order
+     * @param text The delimited text
+     * @param consumer Receives the text holding the element and its range; the text is the input itself, unless a
+     *                 quoted element contained escaped quotes
+     * @throws IllegalArgumentException If a quoted element is not terminated or is followed by other characters
+     */
+    public void forEach(CharSequence text, TokenConsumer consumer) {
+        int length = text.length();
+        int pendingEmpty = 0;
+        int i = 0;
+        while (true) {
+            int start = skipWhitespace(text, i, length);
+            if (quote != NO_QUOTE && start < length && text.charAt(start) == quote) {
+                for (; pendingEmpty > 0; pendingEmpty--) {
+                    consumer.accept(text, start, start);
+                }
+                i = quoted(text, start, length, consumer);
+                i = skipWhitespace(text, i, length);
+                if (i == length) {
+                    return;
+                }
+                if (text.charAt(i) != separator) {
+                    throw new IllegalArgumentException("Unexpected character '" + text.charAt(i)
+                            + "' after quoted list element at index " + i);
+                }
+                i++;
+                continue;
+            }
+
+            int next = start;
+            while (next < length && text.charAt(next) != separator) {
+                next++;
+            }
+            int end = next;
+            while (end > start && text.charAt(end - 1) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                pendingEmpty++;
+            } else {
+                for (; pendingEmpty > 0; pendingEmpty--) {
+                    consumer.accept(text, start, start);
+                }
+                consumer.accept(text, start, end);
+            }
+            if (next == length) {
+                return;
+            }
+            i = next + 1;
+        }
+    }
+
+    /**
+     * Emit the quoted element opening at {@code start}
+     * @return The index after the closing quote
+     */
+    private int quoted(CharSequence text, int start, int length, TokenConsumer consumer) {
+        StringBuilder unescaped = null;
+        int segment = start + 1;
+        for (int i = segment; i < length; i++) {
+            if (text.charAt(i) != quote) {
+                continue;
+            }
+            if (i + 1 < length && text.charAt(i + 1) == quote) {
+                if (unescaped == null) {
+                    unescaped = new StringBuilder(i - segment + 16);
+                }
+                unescaped.append(text, segment, i + 1);
+                segment = ++i + 1;
+                continue;
+            }
+            if (unescaped == null) {
+                consumer.accept(text, start + 1, i);
+            } else {
+                unescaped.append(text, segment, i);
+                consumer.accept(unescaped, 0, unescaped.length());
+            }
+            return i + 1;
+        }
+        throw new IllegalArgumentException("Unterminated quoted list element at index " + start);
+    }
+
+    private int skipWhitespace(CharSequence text, int i, int length) {
+        while (i < length && text.charAt(i) <= ' ' && text.charAt(i) != separator) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,364 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.annotations.RequestParam;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resolved metadata for a single {@link RequestParam} field, or constructor parameter of a class bound through its
+ * constructor. Instances are immutable and shared by every request bound to the declaring class.
+ */
+public final class ParamBinding {
+    private final int index;
+    private final FieldAccessor accessor;
+    private final String name;
+    private final boolean required;
+    private final String message;
+    private final String invalidMessage;
+    private final String defaultText;
+    private final Class<?> type;
+    private final Type genericType;
+    private final Class<?> elementType;
+    private final boolean list;
+    private final PrimitiveSequence sequence;
+    private final ListTokenizer tokenizer;
+    private final ValueConverter converter;
+    private final ListTokenizer.TokenParser<?> elementParser;
+    private final Object defaultValue;
+
+    ParamBinding(int index, Field field, RequestParam requestParam) {
+        this(index, FieldAccessor.of(field), field.getType(), field.getGenericType(), requestParam);
+    }
+
+    /**
+     * Binding of a constructor parameter, written to its slot in the argument array
+     * @param position The position of the parameter in the constructor
+     */
+    ParamBinding(int index, int position, Class<?> type, Type genericType, RequestParam requestParam) {
+        this(index, FieldAccessor.argument(position, requestParam.name(), type), type, genericType, requestParam);
+    }
+
+    private ParamBinding(int index, FieldAccessor accessor, Class<?> type, Type genericType,
+            RequestParam requestParam) {
+        this.index = index;
+        this.accessor = accessor;
+        this.name = requestParam.name();
+        this.required = requestParam.required();
+        this.message = requestParam.message();
+        this.invalidMessage = message.isEmpty() ? "Invalid value for parameter: " + name : message;
+        this.defaultText = requestParam.defaultValue();
+        this.type = type;
+        this.genericType = genericType;
+        this.sequence = PrimitiveSequence.of(type);
+        this.list = sequence == null && List.class.isAssignableFrom(type);
+        this.elementType = list ? resolveElementType(genericType) : null;
+        this.tokenizer = ListTokenizer.of(requestParam.separator(), requestParam.quote());
+        if (list) {
+            this.converter = elementType == null ? null : ValueConverter.of(elementType);
+            this.elementParser = converter == null ? null : ValueConverter.tokenParser(elementType);
+        } else {
+            this.converter = sequence != null
+                    ? value -> sequence.parse(value, type, tokenizer)
+                    : ValueConverter.of(type);
+            this.elementParser = null;
+        }
+        this.defaultValue = resolveDefaultValue();
+    }
+
+    private static Class<?> resolveElementType(Type genericType) {
+        if (genericType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            if (argument instanceof Class) {
+                return (Class<?>) argument;
+            }
+            if (argument instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) argument).getRawType();
+            }
+        }
+        return null;
+    }
+
+    private Object resolveDefaultValue() {
+        if (defaultText.isEmpty()) {
+            return type.isPrimitive() ? zeroValue(type) : null;
+        }
+        try {
+            if (list && converter != null) {
+                return Collections.unmodifiableList(parseList(defaultText));
+            }
+            return converter == null ? null : converter.convert(defaultText);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid default value for parameter: " + name, ex);
+        }
+    }
+
+    static Object zeroValue(Class<?> type) {
+        if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0d;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        }
+        return '\0';
+    }
+
+    /**
+     * @return The position of this binding in its {@link BindingPlan}
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * @return The bound field, or null for a constructor parameter
+     */
+    public Field field() {
+        return accessor.field();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @return The message of the annotation, or a message naming the parameter if it has none, for a value that
+     * cannot be converted
+     */
+    public String invalidMessage() {
+        return invalidMessage;
+    }
+
+    public Class<?> type() {
+        return type;
+    }
+
+    public Type genericType() {
+        return genericType;
+    }
+
+    /**
+     * @return The element type of a list field, or null if the field is not a parameterized list
+     */
+    public Class<?> elementType() {
+        return elementType;
+    }
+
+    /**
+     * @return Whether the field is a list of boxed or complex elements; primitive sequences are not
+     */
+    public boolean isList() {
+        return list;
+    }
+
+    /**
+     * @return The kind of a primitive array or list field, or null for any other field
+     */
+    public PrimitiveSequence sequence() {
+        return sequence;
+    }
+
+    /**
+     * @return Whether the field type, or the element type of a list field, can be converted from text
+     */
+    public boolean isConvertible() {
+        return converter != null;
+    }
+
+    public boolean hasDefault() {
+        return !defaultText.isEmpty();
+    }
+
+    public String defaultText() {
+        return defaultText;
+    }
+
+    /**
+     * The default value converted once to the field type. Lists, primitive arrays and primitive lists are copied on
+     * each call, so each bound instance can modify its own, primitives without a default resolve to their zero value,
+     * and types without a textual conversion, including lists of such types, resolve to null.
+     * @return The pre-parsed default value
+     */
+    public Object defaultValue() {
+        if (defaultValue == null) {
+            return null;
+        }
+        if (list) {
+            return new ArrayList<>((List<?>) defaultValue);
+        }
+        return sequence != null ? sequence.copy(defaultValue) : defaultValue;
+    }
+
+    /**
+     * Convert a single value to the field type, or to the element type of a list field
+     * @param value The textual value
+     * @return The converted value
+     */
+    public Object convert(String value) {
+        return converter.convert(value);
+    }
+
+    /**
+     * @return Whether converting the value to the field type is certain to fail, checked without an exception for
+     * numbers, enums and each element of a primitive sequence; false for lists and other types, which are only
+     * checked by converting them
+     * @see ValueConverter#rejects(Class, String)
+     * @see PrimitiveSequence#rejects(String, ListTokenizer)
+     */
+    public boolean rejects(String value) {
+        if (sequence != null) {
+            return sequence.rejects(value, tokenizer);
+        }
+        return !list && ValueConverter.rejects(type, value);
+    }
+
+    /**
+     * Split delimited text with the separator and quote of the field and convert each element to the element type
+     * of a list field
+     * @param text The delimited text
+     * @return A new list with the converted values
+     */
+    public List<Object> parseList(String text) {
+        return tokenizer.toList(text, elementParser);
+    }
+
+    /**
+     * Split and convert delimited text like {@link #parseList(String)}, adding the elements to an existing list
+     * @param text The delimited text
+     * @param target The list to add to
+     * @return The target list
+     */
+    public List<Object> parseList(String text, List<Object> target) {
+        tokenizer.forEach(text, (chars, start, end) -> target.add(elementParser.parse(chars, start, end)));
+        return target;
+    }
+
+    /**
+     * Split and convert each value of a repeated list parameter like {@link #parseList(String, List)}, so a repeated
+     * value is split the same way as a single one
+     * @param values The values
+     * @param target The list to add to
+     * @return The target list
+     */
+    public List<Object> parseValues(List<String> values, List<Object> target) {
+        for (String value : values) {
+            parseList(value, target);
+        }
+        return target;
+    }
+
+    /**
+     * @return The list held by the field of a reused instance, emptied, or a new list if it cannot be reused
+     * @see Binders#reuse(List)
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> reusableList(Object instance) {
+        List<Object> list = Binders.reuse((List<Object>) accessor.get(instance));
+        return list != null ? list : new ArrayList<>();
+    }
+
+    /**
+     * @return The primitive list held by the field of a reused instance, emptied, or null for an array or a list
+     * that cannot be reused
+     * @see Binders#reuse(List)
+     */
+    public List<?> reusableSequence(Object instance) {
+        return sequence == null || type.isArray() ? null : Binders.reuse((List<?>) accessor.get(instance));
+    }
+
+    /**
+     * Parse a primitive sequence for the field of a reused instance
+     * @param value The delimited numbers
+     * @param instance The instance, whose primitive list is refilled in place if it holds one
+     * @return The filled list, or a new array or list
+     */
+    public Object parseSequence(String value, Object instance) {
+        return sequence.parse(value, type, tokenizer, reusableSequence(instance));
+    }
+
+    /**
+     * @return Whether an invalid value of this field is replaced by its default, or by zero or null, when the source
+     * is {@link ParamSource#lenient() lenient}: true for optional numbers, which the request parameter getters have
+     * always parsed that way; enums, lists and required fields are rejected
+     */
+    public boolean defaultsInvalidValue() {
+        return !required && (type == int.class || type == long.class || type == double.class || type == float.class
+                || type == Integer.class || type == Long.class || type == Double.class || type == Float.class);
+    }
+
+    /**
+     * Bind an absent list without a default as empty, for a {@link ParamSource#lenient() lenient} source: the list of
+     * a reused instance is emptied in place if it can be, otherwise the field gets an immutable empty list
+     * @param instance The object to write to
+     * @param reset Whether the instance is a reused one
+     */
+    @SuppressWarnings("unchecked")
+    public void empty(Object instance, boolean reset) {
+        List<Object> emptied = reset ? Binders.reuse((List<Object>) accessor.get(instance)) : null;
+        accessor.set(instance, emptied != null ? emptied : Collections.emptyList());
+    }
+
+    /**
+     * Reset the field of a reused instance that received no value and has no default: a reusable list, including a
+     * primitive one, is emptied in place, and any other field becomes zero or null
+     */
+    @SuppressWarnings("unchecked")
+    public void reset(Object instance) {
+        accessor.set(instance, list ? Binders.reuse((List<Object>) accessor.get(instance))
+                : sequence != null ? reusableSequence(instance) : defaultValue());
+    }
+
+    public ListTokenizer tokenizer() {
+        return tokenizer;
+    }
+
+    /**
+     * Convert a single value to the field type and write it, without boxing for primitive fields
+     * @param instance The object to write to
+     * @param value The textual value
+     */
+    public void bind(Object instance, String value) {
+        if (type == int.class) {
+            accessor.setInt(instance, Integer.parseInt(value.trim()));
+        } else if (type == long.class) {
+            accessor.setLong(instance, Long.parseLong(value.trim()));
+        } else if (type == double.class) {
+            accessor.setDouble(instance, Double.parseDouble(value.trim()));
+        } else if (type == float.class) {
+            accessor.setFloat(instance, Float.parseFloat(value.trim()));
+        } else if (type == boolean.class) {
+            accessor.setBoolean(instance, Boolean.parseBoolean(value.trim()));
+        } else {
+            accessor.set(instance, converter.convert(value));
+        }
+    }
+
+    public void set(Object instance, Object value) {
+        accessor.set(instance, value);
+    }
+
+    public FieldAccessor accessor() {
+        return accessor;
+    }
+}
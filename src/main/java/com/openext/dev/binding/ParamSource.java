@@ -0,0 +1,44 @@
+package com.openext.dev.binding;
+
+import java.util.List;
+
+/**
+ * The parameter values a {@link Binder} reads from, e.g. a parsed request body or the request parameters.
+ */
+public interface ParamSource {
+
+    /**
+     * @param name The parameter name
+     * @return The first value of the parameter, or null if it is absent. List parameters are split by the binder.
+     */
+    String getValue(String name);
+
+    /**
+     * @param name The parameter name
+     * @return Every value of a list parameter that was given more than once, each split like the value from
+     * {@link #getValue(String)}, or null if the parameter was given at most once
+     */
+    default List<String> getValues(String name) {
+        return null;
+    }
+
+    /**
+     * Whether values are bound with the rules {@code RequestParser} has always applied to request parameters: an
+     * absent list parameter without a default is bound as an empty list, and an optional number that cannot be parsed
+     * falls back to its default, or to zero or null, instead of being rejected
+     * @return True for request parameters; false, the default, for request bodies
+     */
+    default boolean lenient() {
+        return false;
+    }
+
+    /**
+     * Convert a value whose type has no built-in textual conversion
+     * @param name The parameter name, for sources that hold non-textual values such as uploaded files
+     * @param value The textual value
+     * @param type The target type
+     * @return The converted value
+     * @throws Exception If the value cannot be converted, or the source does not support the type
+     */
+    Object readValue(String name, String value, Class<?> type) throws Exception;
+}
@@ -0,0 +1,155 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.collections.DoubleList;
+import com.openext.dev.collections.IntList;
+import com.openext.dev.collections.LongList;
+import com.openext.dev.utils.PrimitiveParser;
+
+import java.util.List;
+
+/**
+ * Field types holding a sequence of unboxed numbers: {@code int[]}, {@code long[]}, {@code double[]} and their
+ * growable {@link IntList}, {@link LongList} and {@link DoubleList} counterparts. Delimited text is parsed in place
+ * through a {@link ListTokenizer}, without splitting it into substrings or boxing the values.
+ */
+public enum PrimitiveSequence {
+    INT(int[].class, IntList.class) {
+        @Override
+        public Object parse(String text, Class<?> type, ListTokenizer tokenizer, List<?> reused) {
+            IntList list = reused != null ? (IntList) reused : new IntList(capacity(text, tokenizer));
+            tokenizer.forEach(text, (chars, start, end) -> list.addInt(PrimitiveParser.parseInt(chars, start, end)));
+            return type == IntList.class ? list : list.toIntArray();
+        }
+
+        @Override
+        boolean rejects(CharSequence text, int start, int end) {
+            return !PrimitiveParser.isInt(text, start, end);
+        }
+
+        @Override
+        public Object copy(Object value) {
+            return value instanceof IntList ? IntList.wrap(((IntList) value).toIntArray()) : ((int[]) value).clone();
+        }
+    },
+    LONG(long[].class, LongList.class) {
+        @Override
+        public Object parse(String text, Class<?> type, ListTokenizer tokenizer, List<?> reused) {
+            LongList list = reused != null ? (LongList) reused : new LongList(capacity(text, tokenizer));
+            tokenizer.forEach(text, (chars, start, end) -> list.addLong(PrimitiveParser.parseLong(chars, start, end)));
+            return type == LongList.class ? list : list.toLongArray();
+        }
+
+        @Override
+        boolean rejects(CharSequence text, int start, int end) {
+            return !PrimitiveParser.isLong(text, start, end);
+        }
+
+        @Override
+        public Object copy(Object value) {
+            return value instanceof LongList
+                    ? LongList.wrap(((LongList) value).toLongArray())
+                    : ((long[]) value).clone();
+        }
+    },
+    DOUBLE(double[].class, DoubleList.class) {
+        @Override
+        public Object parse(String text, Class<?> type, ListTokenizer tokenizer, List<?> reused) {
+            DoubleList list = reused != null ? (DoubleList) reused : new DoubleList(capacity(text, tokenizer));
+            // The JDK conversion is the only correctly rounded one, so each element is copied out
+            tokenizer.forEach(text, (chars, start, end) ->
+                    list.addDouble(Double.parseDouble(chars.subSequence(start, end).toString())));
+            return type == DoubleList.class ? list : list.toDoubleArray();
+        }
+
+        @Override
+        boolean rejects(CharSequence text, int start, int end) {
+            return ValueConverter.rejects(double.class, text.subSequence(start, end).toString());
+        }
+
+        @Override
+        public Object copy(Object value) {
+            return value instanceof DoubleList
+                    ? DoubleList.wrap(((DoubleList) value).toDoubleArray())
+                    : ((double[]) value).clone();
+        }
+    };
+
+    private final Class<?> arrayType;
+    private final Class<?> listType;
+
+    PrimitiveSequence(Class<?> arrayType, Class<?> listType) {
+        this.arrayType = arrayType;
+        this.listType = listType;
+    }
+
+    /**
+     * @param type A field type
+     * @return The sequence kind of the type, or null if it is not a primitive array or list
+     */
+    public static PrimitiveSequence of(Class<?> type) {
+        for (PrimitiveSequence sequence : values()) {
+            if (type == sequence.arrayType || type == sequence.listType) {
+                return sequence;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse delimited numbers, ignoring whitespace around each element
+     * @param text The non-empty text
+     * @param type The array or list type to produce
+     * @param tokenizer Splits the text into elements
+     * @return A new array or list
+     * @throws NumberFormatException If an element is not a valid number
+     */
+    public Object parse(String text, Class<?> type, ListTokenizer tokenizer) {
+        return parse(text, type, tokenizer, null);
+    }
+
+    /**
+     * Parse delimited numbers into the emptied list of a reused instance
+     * @param text The non-empty text
+     * @param type The array or list type to produce
+     * @param tokenizer Splits the text into elements
+     * @param reused An empty list of this kind to fill, or null for a new array or list
+     * @return The filled list, or a new array or list
+     * @throws NumberFormatException If an element is not a valid number
+     * @see Binders#reuse(List)
+     */
+    public abstract Object parse(String text, Class<?> type, ListTokenizer tokenizer, List<?> reused);
+
+    /**
+     * Check delimited numbers without parsing them, so a binder collecting errors rejects invalid input without the
+     * cost of an exception
+     * @param text The non-empty text
+     * @param tokenizer Splits the text into elements
+     * @return Whether parsing the text is certain to fail
+     */
+    public boolean rejects(String text, ListTokenizer tokenizer) {
+        boolean[] rejected = new boolean[1];
+        tokenizer.forEach(text, (chars, start, end) -> rejected[0] |= rejects(chars, start, end));
+        return rejected[0];
+    }
+
+    /**
+     * @return Whether the element in {@code text[start, end)} is certain to fail to parse
+     */
+    abstract boolean rejects(CharSequence text, int start, int end);
+
+    /**
+     * @param value An array or list of this kind
+     * @return An independent copy, so a shared default value is never handed out for mutation
+     */
+    public abstract Object copy(Object value);
+
+    private static int capacity(String text, ListTokenizer tokenizer) {
+        int separators = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (text.charAt(i) == tokenizer.separator()) {
+                separators++;
+            }
+        }
+        return separators + 1;
+    }
+}
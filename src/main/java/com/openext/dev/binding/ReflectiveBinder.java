@@ -0,0 +1,131 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.validation.FieldErrors;
+import com.openext.dev.validation.MissingParameterException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds through a {@link BindingPlan}, for classes without a generated binder.
+ * @param <T> The type of the bound object
+ */
+public final class ReflectiveBinder<T> implements Binder<T> {
+    private final BindingPlan<T> plan;
+
+    public ReflectiveBinder(BindingPlan<T> plan) {
+        this.plan = plan;
+    }
+
+    @Override
+    public T bind(ParamSource source) throws MissingParameterException {
+        Object target = plan.newTarget();
+        bindChecked(source, target, false);
+        return plan.build(target);
+    }
+
+    @Override
+    public void bindInto(ParamSource source, T instance) throws MissingParameterException {
+        if (plan.isConstructorBound()) {
+            throw new IllegalArgumentException("Cannot bind into an instance of " + plan.type().getName()
+                    + ", which is bound through its constructor");
+        }
+        bindChecked(source, instance, true);
+    }
+
+    @Override
+    public T bind(ParamSource source, FieldErrors errors) {
+        Object target = plan.newTarget();
+        bind(source, target, false, errors, null);
+        return plan.build(target, errors);
+    }
+
+    private void bindChecked(ParamSource source, Object instance, boolean reset) throws MissingParameterException {
+        List<String> missingParams = new ArrayList<>();
+        bind(source, instance, reset, null, missingParams);
+
+        if (!missingParams.isEmpty()) {
+            throw new MissingParameterException("Missing required parameters: " + String.join(", ", missingParams));
+        }
+    }
+
+    /**
+     * Bind every field, recording problems in {@code errors} if it is given; otherwise missing parameters are added
+     * to {@code missingParams} and an invalid value throws, unless a lenient source lets it fall back to its default. The instance is the argument array of a class bound through
+     * its constructor. With {@code reset}, the instance is a reused one: lists are refilled in place and fields
+     * without a value or default are reset.
+     */
+    private void bind(ParamSource source, Object instance, boolean reset, FieldErrors errors,
+            List<String> missingParams) {
+        for (int i = 0; i < plan.size(); i++) {
+            ParamBinding binding = plan.get(i);
+            String paramName = binding.name();
+
+            String value = source.getValue(paramName);
+            if (value == null || value.isEmpty()) {
+                absent(instance, binding, source, reset, errors, missingParams);
+                continue;
+            }
+            boolean fallback = source.lenient() && binding.defaultsInvalidValue();
+            if ((errors != null || fallback) && binding.rejects(value)) {
+                if (fallback) {
+                    binding.set(instance, binding.defaultValue());
+                } else {
+                    errors.invalid(paramName, binding.invalidMessage(), null);
+                }
+                continue;
+            }
+            try {
+                List<String> values = binding.isList() ? source.getValues(paramName) : null;
+                if (values != null && binding.isConvertible()) {
+                    binding.set(instance, binding.parseValues(values,
+                            reset ? binding.reusableList(instance) : new ArrayList<>()));
+                } else if (binding.isList() && binding.isConvertible()) {
+                    binding.set(instance, reset
+                            ? binding.parseList(value, binding.reusableList(instance))
+                            : binding.parseList(value));
+                } else if (reset && binding.sequence() != null) {
+                    binding.set(instance, binding.parseSequence(value, instance));
+                } else if (binding.isConvertible()) {
+                    binding.bind(instance, value);
+                } else {
+                    binding.set(instance, source.readValue(paramName, value, binding.type()));
+                }
+            } catch (Exception ex) {
+                if (fallback) {
+                    binding.set(instance, binding.defaultValue());
+                } else if (errors == null) {
+                    throw new IllegalArgumentException(binding.invalidMessage(), ex);
+                } else {
+                    errors.invalid(paramName, binding.invalidMessage(), ex);
+                }
+            }
+        }
+    }
+
+    private static void absent(Object instance, ParamBinding binding, ParamSource source, boolean reset,
+            FieldErrors errors, List<String> missingParams) {
+        if (binding.isRequired()) {
+            if (errors == null) {
+                missingParams.add(binding.message().isEmpty() ? binding.name() : binding.message());
+            } else {
+                errors.missing(binding.name(), binding.message().isEmpty()
+                        ? "Missing required parameter: " + binding.name() : binding.message());
+            }
+        } else if (binding.hasDefault()) {
+            if (binding.isConvertible()) {
+                binding.set(instance, binding.defaultValue());
+            } else {
+                try {
+                    binding.set(instance, source.readValue(binding.name(), binding.defaultText(), binding.type()));
+                } catch (Exception ex) {
+                    throw new IllegalArgumentException("Invalid default value for parameter: " + binding.name(), ex);
+                }
+            }
+        } else if (binding.isList() && source.lenient()) {
+            binding.empty(instance, reset);
+        } else if (reset) {
+            binding.reset(instance);
+        }
+    }
+}
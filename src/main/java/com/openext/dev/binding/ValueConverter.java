@@ -0,0 +1,93 @@
+package com.openext.dev.binding;
+
+import com.openext.dev.utils.PrimitiveParser;
+
+/**
+ * Converts the textual form of a request parameter to the type of the target field. Numbers and booleans
+ * tolerate surrounding whitespace; strings are taken as is. Enum constants are resolved by their {@link EnumLookup}.
+ * Primitive arrays and lists are parsed from delimited text by their {@link PrimitiveSequence}.
+ */
+@FunctionalInterface
+public interface ValueConverter {
+
+    Object convert(String value);
+
+    /**
+     * Resolve the converter for a field or list element type
+     * @param type The target type
+     * @return The converter, or null if the type has no textual conversion
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static ValueConverter of(Class<?> type) {
+        if (type == String.class) {
+            return value -> value;
+        } else if (type == int.class || type == Integer.class) {
+            return value -> Integer.valueOf(value.trim());
+        } else if (type == long.class || type == Long.class) {
+            return value -> Long.valueOf(value.trim());
+        } else if (type == double.class || type == Double.class) {
+            return value -> Double.valueOf(value.trim());
+        } else if (type == float.class || type == Float.class) {
+            return value -> Float.valueOf(value.trim());
+        } else if (type == boolean.class || type == Boolean.class) {
+            return value -> Boolean.valueOf(value.trim());
+        } else if (type.isEnum()) {
+            return EnumLookup.of((Class<Enum>) type)::parse;
+        }
+        PrimitiveSequence sequence = PrimitiveSequence.of(type);
+        return sequence == null ? null : value -> sequence.parse(value, type, ListTokenizer.DEFAULT);
+    }
+
+    /**
+     * Check a value against a number or enum type without converting it, so a binder collecting errors rejects the
+     * usual invalid input without the cost of an exception
+     * @param type The target type
+     * @param value The textual value
+     * @return Whether converting the value is certain to fail; false for any other type
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static boolean rejects(Class<?> type, String value) {
+        // The JDK also accepts non-ASCII digits and hexadecimal floating point, which are left to the conversion
+        if (type == int.class || type == Integer.class) {
+            return !PrimitiveParser.isInt(value) && isAscii(value);
+        } else if (type == long.class || type == Long.class) {
+            return !PrimitiveParser.isLong(value) && isAscii(value);
+        } else if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+            return !PrimitiveParser.isDouble(value) && value.indexOf('x') < 0 && value.indexOf('X') < 0;
+        } else if (type.isEnum()) {
+            return EnumLookup.of((Class<Enum>) type).find(value) == null;
+        }
+        return false;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Resolve a parser for list elements given as index ranges by a {@link ListTokenizer}. Integers and enums are
+     * parsed in place; other types are converted from a String of the range.
+     * @param type The element type
+     * @return The parser, or null if the type has no textual conversion
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static ListTokenizer.TokenParser<?> tokenParser(Class<?> type) {
+        if (type == String.class) {
+            return (text, start, end) -> text.subSequence(start, end).toString();
+        } else if (type == int.class || type == Integer.class) {
+            return PrimitiveParser::parseInt;
+        } else if (type == long.class || type == Long.class) {
+            return PrimitiveParser::parseLong;
+        } else if (type.isEnum()) {
+            return EnumLookup.of((Class<Enum>) type)::parse;
+        }
+        ValueConverter converter = of(type);
+        return converter == null ? null
+                : (text, start, end) -> converter.convert(text.subSequence(start, end).toString());
+    }
+}
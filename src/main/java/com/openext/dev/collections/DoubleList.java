@@ -0,0 +1,88 @@
+package com.openext.dev.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A growable list backed by a {@code double[]}. Values are stored unboxed; the {@link java.util.List} view boxes on
+ * access, so hot paths should use {@link #getDouble} and {@link #addDouble}.
+ */
+public final class DoubleList extends AbstractList<Double> implements RandomAccess {
+    private double[] values;
+    private int size;
+
+    public DoubleList() {
+        this(10);
+    }
+
+    public DoubleList(int capacity) {
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Create a list backed by the given array, without copying it
+     * @param values The values; the list takes ownership of the array
+     * @return The list
+     */
+    public static DoubleList wrap(double[] values) {
+        DoubleList list = new DoubleList(0);
+        list.values = values;
+        list.size = values.length;
+        return list;
+    }
+
+    public double getDouble(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    public void addDouble(double value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(8, size + (size >> 1)));
+        }
+        values[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * @return A new array holding the values of this list
+     */
+    public double[] toDoubleArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Double get(int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public Double set(int index, Double value) {
+        double previous = getDouble(index);
+        values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Double value) {
+        addDouble(value);
+        return true;
+    }
+
+    /**
+     * Empty the list, keeping its array for reuse
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
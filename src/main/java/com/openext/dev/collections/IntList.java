@@ -0,0 +1,88 @@
+package com.openext.dev.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A growable list backed by an {@code int[]}. Values are stored unboxed; the {@link java.util.List} view boxes on
+ * access, so hot paths should use {@link #getInt} and {@link #addInt}.
+ */
+public final class IntList extends AbstractList<Integer> implements RandomAccess {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(10);
+    }
+
+    public IntList(int capacity) {
+        this.values = new int[capacity];
+    }
+
+    /**
+     * Create a list backed by the given array, without copying it
+     * @param values The values; the list takes ownership of the array
+     * @return The list
+     */
+    public static IntList wrap(int[] values) {
+        IntList list = new IntList(0);
+        list.values = values;
+        list.size = values.length;
+        return list;
+    }
+
+    public int getInt(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    public void addInt(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(8, size + (size >> 1)));
+        }
+        values[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * @return A new array holding the values of this list
+     */
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer value) {
+        int previous = getInt(index);
+        values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+
+    /**
+     * Empty the list, keeping its array for reuse
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,88 @@
+package com.openext.dev.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A growable list backed by a {@code long[]}. Values are stored unboxed; the {@link java.util.List} view boxes on
+ * access, so hot paths should use {@link #getLong} and {@link #addLong}.
+ */
+public final class LongList extends AbstractList<Long> implements RandomAccess {
+    private long[] values;
+    private int size;
+
+    public LongList() {
+        this(10);
+    }
+
+    public LongList(int capacity) {
+        this.values = new long[capacity];
+    }
+
+    /**
+     * Create a list backed by the given array, without copying it
+     * @param values The values; the list takes ownership of the array
+     * @return The list
+     */
+    public static LongList wrap(long[] values) {
+        LongList list = new LongList(0);
+        list.values = values;
+        list.size = values.length;
+        return list;
+    }
+
+    public long getLong(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    public void addLong(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(8, size + (size >> 1)));
+        }
+        values[size++] = value;
+        modCount++;
+    }
+
+    /**
+     * @return A new array holding the values of this list
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Long get(int index) {
+        return getLong(index);
+    }
+
+    @Override
+    public Long set(int index, Long value) {
+        long previous = getLong(index);
+        values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Long value) {
+        addLong(value);
+        return true;
+    }
+
+    /**
+     * Empty the list, keeping its array for reuse
+     */
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
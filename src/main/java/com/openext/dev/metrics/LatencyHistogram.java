@@ -0,0 +1,76 @@
+package com.openext.dev.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in power-of-two nanosecond buckets with striped {@link LongAdder}s, so concurrent recording does
+ * not contend on a single counter. Percentiles are reported as the upper bound of their bucket, which is within a
+ * factor of two.
+ */
+final class LatencyHistogram {
+    private static final int BUCKETS = 48;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        // Bucket i holds values below 2^i
+        buckets[Math.min(64 - Long.numberOfLeadingZeros(value), BUCKETS - 1)].increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * @param quantile Between 0 and 1
+     * @return The upper bound in nanoseconds of the bucket holding the quantile, or 0 if nothing was recorded
+     */
+    long percentile(double quantile) {
+        long[] counts = counts();
+        long count = 0;
+        for (long c : counts) {
+            count += c;
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0) {
+                return Math.min(1L << i, max.get());
+            }
+        }
+        return 0;
+    }
+
+    long totalNanos() {
+        return total.sum();
+    }
+
+    long maxNanos() {
+        return max.get();
+    }
+
+    long[] counts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+        max.reset();
+    }
+}
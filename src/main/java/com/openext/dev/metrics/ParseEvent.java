@@ -0,0 +1,86 @@
+package com.openext.dev.metrics;
+
+/**
+ * The measurements of one parse. Reading, decoding and binding a token-based body such as JSON happen in a single
+ * streaming pass, so its decode phase is close to zero and the bind phase holds the whole pass; form and multipart
+ * bodies are decoded before they are bound. Required-parameter checks are part of the bind phase.
+ */
+public final class ParseEvent {
+
+    /**
+     * How a parse ended
+     */
+    public enum Outcome {
+        SUCCESS,
+        /** A required parameter was absent */
+        MISSING_PARAMETER,
+        /** A value could not be converted, or the body was malformed */
+        INVALID_VALUE,
+        /** The request exceeded a parse limit */
+        LIMIT_EXCEEDED,
+        /** Any other failure, such as an I/O error or an unsupported content type */
+        FAILED
+    }
+
+    private final Class<?> type;
+    private final Outcome outcome;
+    private final long decodeNanos;
+    private final long bindNanos;
+    private final long bytes;
+    private final int fieldsBound;
+
+    /**
+     * Created by the parsers; listeners only read events
+     */
+    public ParseEvent(Class<?> type, Outcome outcome, long decodeNanos, long bindNanos, long bytes, int fieldsBound) {
+        this.type = type;
+        this.outcome = outcome;
+        this.decodeNanos = decodeNanos;
+        this.bindNanos = bindNanos;
+        this.bytes = bytes;
+        this.fieldsBound = fieldsBound;
+    }
+
+    /**
+     * @return The class the request was parsed into
+     */
+    public Class<?> type() {
+        return type;
+    }
+
+    public Outcome outcome() {
+        return outcome;
+    }
+
+    /**
+     * @return The time spent reading and decoding the body before binding started
+     */
+    public long decodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * @return The time spent binding, including any body read while binding
+     */
+    public long bindNanos() {
+        return bindNanos;
+    }
+
+    public long totalNanos() {
+        return decodeNanos + bindNanos;
+    }
+
+    /**
+     * @return The body bytes read, after any Content-Encoding is removed; zero for request parameters
+     */
+    public long bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return The number of declared fields that received a value
+     */
+    public int fieldsBound() {
+        return fieldsBound;
+    }
+}
@@ -0,0 +1,10 @@
+package com.openext.dev.metrics;
+
+/**
+ * Receives an event after every instrumented parse, on the thread that parsed. Implementations must be thread-safe
+ * and fast, since they run on the request path; {@link ParseMetrics} is the built-in one.
+ */
+@FunctionalInterface
+public interface ParseListener {
+    void onParse(ParseEvent event);
+}
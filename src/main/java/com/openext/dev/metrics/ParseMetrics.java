@@ -0,0 +1,129 @@
+package com.openext.dev.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Aggregates parse events into {@link TypeMetrics} per parsed class: outcome counts, bytes read, fields bound and
+ * latency histograms of the decode and bind phases. Recording is lock-free, so one instance can be shared by every
+ * parser of an application:
+ * <pre>{@code
+ * ParseMetrics metrics = new ParseMetrics().registerMBeans();
+ * BodyParser bodyParser = BodyParser.builder().listener(metrics).build();
+ * RequestParser.setParseListener(metrics);
+ * }</pre>
+ */
+public final class ParseMetrics implements ParseListener {
+    /**
+     * The domain of the registered MBeans, each named {@code com.openext.dev:type=ParseMetrics,name=<class name>}
+     */
+    public static final String DOMAIN = "com.openext.dev";
+
+    private final ConcurrentMap<Class<?>, TypeMetrics> types = new ConcurrentHashMap<>();
+    private MBeanServer server;
+
+    @Override
+    public void onParse(ParseEvent event) {
+        TypeMetrics metrics = types.get(event.type());
+        if (metrics == null) {
+            metrics = add(event.type());
+        }
+        metrics.record(event);
+    }
+
+    private synchronized TypeMetrics add(Class<?> type) {
+        TypeMetrics metrics = types.get(type);
+        if (metrics == null) {
+            metrics = new TypeMetrics(type);
+            types.put(type, metrics);
+            if (server != null) {
+                try {
+                    register(metrics);
+                } catch (IllegalStateException ex) {
+                    // A parse must not fail because its MBean cannot be registered; the metrics are still recorded
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return The statistics of the class, or null if none of its parses were recorded
+     */
+    public TypeMetrics get(Class<?> type) {
+        return types.get(type);
+    }
+
+    /**
+     * @return The statistics of every class parsed so far
+     */
+    public Collection<TypeMetrics> all() {
+        return Collections.unmodifiableCollection(types.values());
+    }
+
+    /**
+     * Register an MBean per parsed class with the platform MBean server, now for the classes parsed so far and on the
+     * first parse of any other
+     * @return This instance
+     * @throws IllegalStateException If the MBeans are already registered, by this or another instance
+     */
+    public synchronized ParseMetrics registerMBeans() {
+        if (server != null) {
+            throw new IllegalStateException("Parse metrics MBeans are already registered");
+        }
+        server = ManagementFactory.getPlatformMBeanServer();
+        for (TypeMetrics metrics : types.values()) {
+            register(metrics);
+        }
+        return this;
+    }
+
+    /**
+     * Unregister the MBeans of this instance, e.g. when a web application is stopped
+     */
+    public synchronized void unregisterMBeans() {
+        if (server == null) {
+            return;
+        }
+        for (TypeMetrics metrics : types.values()) {
+            try {
+                server.unregisterMBean(objectName(metrics.getType()));
+            } catch (InstanceNotFoundException ex) {
+                // Already unregistered through the server
+            } catch (JMException ex) {
+                throw new IllegalStateException("Cannot unregister parse metrics of " + metrics.getType(), ex);
+            }
+        }
+        server = null;
+    }
+
+    private void register(TypeMetrics metrics) {
+        try {
+            server.registerMBean(metrics, objectName(metrics.getType()));
+        } catch (InstanceAlreadyExistsException ex) {
+            throw new IllegalStateException("Parse metrics MBeans are already registered", ex);
+        } catch (JMException ex) {
+            throw new IllegalStateException("Cannot register parse metrics of " + metrics.getType(), ex);
+        }
+    }
+
+    /**
+     * @return The name of the MBean of a class
+     */
+    public static ObjectName objectName(String type) {
+        try {
+            return new ObjectName(DOMAIN + ":type=ParseMetrics,name=" + ObjectName.quote(type));
+        } catch (MalformedObjectNameException ex) {
+            throw new IllegalArgumentException("Invalid class name: " + type, ex);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.openext.dev.metrics;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The parse statistics of one class. Every counter is a {@link LongAdder}, so parses of the same class on many
+ * threads do not contend; a snapshot read while parses are recorded may mix counts from before and after one of them.
+ */
+public final class TypeMetrics implements TypeMetricsMXBean {
+    private final Class<?> type;
+    private final Map<ParseEvent.Outcome, LongAdder> outcomes = new EnumMap<>(ParseEvent.Outcome.class);
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder fields = new LongAdder();
+    private final LatencyHistogram decode = new LatencyHistogram();
+    private final LatencyHistogram bind = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    TypeMetrics(Class<?> type) {
+        this.type = type;
+        for (ParseEvent.Outcome outcome : ParseEvent.Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    void record(ParseEvent event) {
+        outcomes.get(event.outcome()).increment();
+        bytes.add(event.bytes());
+        fields.add(event.fieldsBound());
+        decode.record(event.decodeNanos());
+        bind.record(event.bindNanos());
+        total.record(event.totalNanos());
+    }
+
+    @Override
+    public String getType() {
+        return type.getName();
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (LongAdder adder : outcomes.values()) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of parses that ended with the outcome
+     */
+    public long getCount(ParseEvent.Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    @Override
+    public long getMissingParameterCount() {
+        return getCount(ParseEvent.Outcome.MISSING_PARAMETER);
+    }
+
+    @Override
+    public long getInvalidValueCount() {
+        return getCount(ParseEvent.Outcome.INVALID_VALUE);
+    }
+
+    @Override
+    public long getLimitExceededCount() {
+        return getCount(ParseEvent.Outcome.LIMIT_EXCEEDED);
+    }
+
+    @Override
+    public long getFailedCount() {
+        return getCount(ParseEvent.Outcome.FAILED);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getFieldsBound() {
+        return fields.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0 : total.totalNanos() / 1000.0 / count;
+    }
+
+    @Override
+    public long getMaxMicros() {
+        return micros(total.maxNanos());
+    }
+
+    @Override
+    public long getP50Micros() {
+        return micros(total.percentile(0.5));
+    }
+
+    @Override
+    public long getP99Micros() {
+        return micros(total.percentile(0.99));
+    }
+
+    @Override
+    public long getDecodeP50Micros() {
+        return micros(decode.percentile(0.5));
+    }
+
+    @Override
+    public long getDecodeP99Micros() {
+        return micros(decode.percentile(0.99));
+    }
+
+    @Override
+    public long getBindP50Micros() {
+        return micros(bind.percentile(0.5));
+    }
+
+    @Override
+    public long getBindP99Micros() {
+        return micros(bind.percentile(0.99));
+    }
+
+    @Override
+    public long[] histogram(String phase) {
+        switch (phase.toLowerCase(Locale.ROOT)) {
+            case "decode":
+                return decode.counts();
+            case "bind":
+                return bind.counts();
+            case "total":
+                return total.counts();
+            default:
+                throw new IllegalArgumentException("Unknown phase: " + phase);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : outcomes.values()) {
+            adder.reset();
+        }
+        bytes.reset();
+        fields.reset();
+        decode.reset();
+        bind.reset();
+        total.reset();
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,51 @@
+package com.openext.dev.metrics;
+
+/**
+ * The parse statistics of one class, as exposed over JMX by {@link ParseMetrics#registerMBeans()}. Latencies are in
+ * microseconds; percentiles are the upper bound of a power-of-two bucket, so they are within a factor of two.
+ */
+public interface TypeMetricsMXBean {
+
+    /**
+     * @return The fully-qualified name of the class
+     */
+    String getType();
+
+    long getCount();
+
+    long getMissingParameterCount();
+
+    long getInvalidValueCount();
+
+    long getLimitExceededCount();
+
+    long getFailedCount();
+
+    long getBytesRead();
+
+    long getFieldsBound();
+
+    double getMeanMicros();
+
+    long getMaxMicros();
+
+    long getP50Micros();
+
+    long getP99Micros();
+
+    long getDecodeP50Micros();
+
+    long getDecodeP99Micros();
+
+    long getBindP50Micros();
+
+    long getBindP99Micros();
+
+    /**
+     * @param phase {@code decode}, {@code bind} or {@code total}
+     * @return The number of parses per bucket, where bucket {@code i} counts latencies below {@code 2^i} nanoseconds
+     */
+    long[] histogram(String phase);
+
+    void reset();
+}
@@ -0,0 +1,200 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.openext.dev.binding.Binders;
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.validation.MissingParameterException;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reads a request body as the container reports it available, without blocking a thread while the client sends it.
+ * Each chunk is decoded as soon as it is read, and the object is bound when the body is complete.
+ */
+abstract class AsyncBodyReader<T> implements ReadListener {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ServletInputStream inputStream;
+    final ParseLimits limits;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private long size;
+
+    AsyncBodyReader(ServletInputStream inputStream, ParseLimits limits) {
+        this.inputStream = inputStream;
+        this.limits = limits;
+    }
+
+    /**
+     * Register the reader on its stream
+     * @return The future completed with the bound object, or with the failure
+     */
+    CompletableFuture<T> start() {
+        inputStream.setReadListener(this);
+        return result;
+    }
+
+    /**
+     * Decode the next chunk of the body; the array is reused after the call returns
+     */
+    abstract void accept(byte[] chunk, int length) throws IOException;
+
+    /**
+     * Decode the end of the body and bind the object
+     */
+    abstract T finish() throws IOException, MissingParameterException;
+
+    @Override
+    public void onDataAvailable() {
+        try {
+            int read;
+            // Reading while the stream is not ready is illegal, so stop at the first not-ready check
+            while (!result.isDone() && inputStream.isReady() && (read = inputStream.read(chunk)) != -1) {
+                limits.checkBodySize(size += read);
+                accept(chunk, read);
+            }
+        } catch (StreamConstraintsException ex) {
+            result.completeExceptionally(ParseLimits.exceeded(ex));
+        } catch (IOException | RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    @Override
+    public void onAllDataRead() {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            result.complete(finish());
+        } catch (StreamConstraintsException ex) {
+            result.completeExceptionally(ParseLimits.exceeded(ex));
+        } catch (IOException | MissingParameterException | RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        result.completeExceptionally(throwable);
+    }
+
+    /**
+     * Tokenizes JSON, or another format whose factory can parse asynchronously such as Smile, with Jackson's
+     * non-blocking parser. Tokens of the root object are buffered, except the values of
+     * undeclared keys, and bound by {@link JsonBinder} once the body is complete.
+     */
+    static final class Json<T> extends AsyncBodyReader<T> {
+        private final Class<T> clazz;
+        private final BindingPlan<T> plan;
+        private final JsonBinder jsonBinder;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+        private final TokenBuffer tokens;
+        private int depth;
+        private int skipDepth;
+        private int fields;
+        private boolean skipNext;
+        private boolean rootDone;
+
+        Json(ServletInputStream inputStream, ParseLimits limits, Class<T> clazz, JsonFactory factory,
+                ObjectReaders readers, JsonBinder jsonBinder) throws IOException {
+            super(inputStream, limits);
+            this.clazz = clazz;
+            this.plan = BindingPlan.of(clazz);
+            this.jsonBinder = jsonBinder;
+            this.parser = factory.createNonBlockingByteArrayParser();
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+            this.tokens = new TokenBuffer(readers.mapper(), false);
+        }
+
+        @Override
+        void accept(byte[] chunk, int length) throws IOException {
+            if (rootDone) {
+                // Content after the root object is ignored, as the blocking parser does
+                return;
+            }
+            feeder.feedInput(chunk, 0, length);
+            // The parser reads from the array without copying it, so every token must be consumed before it is reused
+            drain();
+        }
+
+        @Override
+        T finish() throws IOException, MissingParameterException {
+            if (!rootDone) {
+                feeder.endOfInput();
+                drain();
+            }
+            parser.close();
+            try (JsonParser buffered = tokens.asParser()) {
+                return jsonBinder.bind(buffered, clazz);
+            }
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while (!rootDone && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                if (skipDepth > 0) {
+                    skipDepth += token.isStructStart() ? 1 : token.isStructEnd() ? -1 : 0;
+                    limits.checkDepth(depth + skipDepth);
+                    continue;
+                }
+                if (skipNext) {
+                    skipNext = false;
+                    skipDepth = token.isStructStart() ? 1 : 0;
+                    limits.checkDepth(depth + skipDepth);
+                    continue;
+                }
+                if (token == JsonToken.FIELD_NAME && depth == 1) {
+                    // Undeclared keys are dropped here, so they are counted here rather than by the binder
+                    limits.checkFields(++fields);
+                    if (plan.find(parser.currentName()) == null) {
+                        skipNext = true;
+                        continue;
+                    }
+                }
+                tokens.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    limits.checkDepth(++depth);
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+                rootDone = depth == 0;
+            }
+        }
+    }
+
+    /**
+     * Decodes an {@code application/x-www-form-urlencoded} body chunk by chunk
+     */
+    static final class Form<T> extends AsyncBodyReader<T> {
+        private final Class<T> clazz;
+        private final FormParamSource.Decoder decoder;
+
+        Form(ServletInputStream inputStream, ParseLimits limits, Class<T> clazz, Charset charset,
+                ObjectReaders readers) {
+            super(inputStream, limits);
+            this.clazz = clazz;
+            this.decoder = FormParamSource.decoder(charset, BindingPlan.of(clazz), readers, limits);
+        }
+
+        @Override
+        void accept(byte[] chunk, int length) {
+            decoder.accept(chunk, 0, length);
+        }
+
+        @Override
+        T finish() throws MissingParameterException {
+            return Binders.of(clazz).bind(decoder.finish());
+        }
+    }
+}
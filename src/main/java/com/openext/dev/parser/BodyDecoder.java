@@ -0,0 +1,30 @@
+package com.openext.dev.parser;
+
+import com.openext.dev.validation.MissingParameterException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Decodes request bodies of a media type into annotated classes. Decoders are registered on a
+ * {@link BodyParser.Builder} by media type, and the parser picks one with a single lookup of the request's media type
+ * without its parameters. A decoder is shared by every request, so it must be thread-safe.
+ */
+public interface BodyDecoder {
+
+    /**
+     * Bind the body to a new instance of the class
+     * @param inputStream The request body
+     * @param contentType The full Content-Type of the request, including parameters such as a multipart boundary
+     * @param charset The charset declared by the request, or UTF-8
+     * @param clazz The class of the object to bind
+     * @param context Binds decoded values with the configuration of the calling parser
+     * @return The bound object
+     * @param <T> The type of the object
+     * @throws IOException If the body cannot be read or is malformed
+     * @throws MissingParameterException If a required parameter is missing
+     */
+    <T> T decode(InputStream inputStream, String contentType, Charset charset, Class<T> clazz, DecoderContext context)
+            throws IOException, MissingParameterException;
+}
@@ -1,30 +1,244 @@
 package com.openext.dev.parser;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.TSFBuilder;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.core.util.RecyclerPool;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.openext.dev.annotations.RequestParam;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.openext.dev.metrics.ParseListener;
+import com.openext.dev.metrics.ParseMetrics;
+import com.openext.dev.validation.FieldError;
+import com.openext.dev.validation.FieldErrors;
+import com.openext.dev.validation.LimitExceededException;
 import com.openext.dev.validation.MissingParameterException;
+import com.openext.dev.validation.ParseResult;
+import com.openext.dev.validation.RecordBindingException;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Field;
-import java.net.URLDecoder;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.*;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Parses request bodies into annotated classes. A parser is immutable and thread-safe once built, and is meant to be
+ * shared: Jackson's caches, the binding plans and the resolved readers are all warmed by the first request of a type
+ * and reused by every later one, from any thread.
+ */
 public class BodyParser {
-    private ObjectMapper objectMapper;
+    private static final Set<String> NDJSON = new HashSet<>(Arrays.asList("application/x-ndjson", "application/jsonl"));
 
+    private final ObjectMapper objectMapper;
+    private final ObjectReaders readers;
+    private final JsonBinder jsonBinder;
+    private final DecoderContext context;
+    private final JacksonDecoder jsonDecoder;
+    private final Map<String, BodyDecoder> decoders;
+    private final ParseLimits limits;
+    private final InflaterPool inflaterPool;
+    private final ParseListener listener;
+
+    /**
+     * Create a parser with the default configuration
+     */
     public BodyParser() {
-        this.objectMapper = new ObjectMapper();
+        this(builder());
+    }
+
+    private BodyParser(Builder builder) {
+        this.objectMapper = new ObjectMapper(factory(new JsonFactoryBuilder(), builder));
+        this.readers = new ObjectReaders(objectMapper);
+        this.limits = builder.limits;
+        this.jsonBinder = new JsonBinder(readers, limits);
+        this.context = new DecoderContext(readers, jsonBinder, limits, builder.fileSizeThreshold,
+                builder.tempDirectory);
+        this.jsonDecoder = new JacksonDecoder(objectMapper.getFactory());
+
+        JacksonDecoder cborDecoder = new JacksonDecoder(factory(CBORFactory.builder(), builder));
+        Map<String, BodyDecoder> decoders = new HashMap<>();
+        decoders.put("application/json", jsonDecoder);
+        decoders.put("+json", jsonDecoder);
+        decoders.put("application/x-www-form-urlencoded", new FormDecoder());
+        decoders.put("multipart/form-data", new MultipartDecoder());
+        decoders.put("application/x-jackson-smile", new JacksonDecoder(factory(SmileFactory.builder(), builder)));
+        decoders.put("application/cbor", cborDecoder);
+        decoders.put("+cbor", cborDecoder);
+        decoders.putAll(builder.decoders);
+        this.decoders = Collections.unmodifiableMap(decoders);
+        this.inflaterPool = new InflaterPool(builder.inflaterPoolSize);
+        this.listener = builder.listener;
+
+        for (Class<?> type : builder.preloaded) {
+            readers.preload(type);
+        }
+    }
+
+    private static <F extends JsonFactory, B extends TSFBuilder<F, B>> F factory(B factoryBuilder, Builder builder) {
+        return factoryBuilder.recyclerPool(builder.recyclerPool)
+                .configure(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES, builder.canonicalizeFieldNames)
+                .streamReadConstraints(builder.limits.apply(builder.streamReadConstraints))
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Configures a {@link BodyParser}. A builder is not thread-safe, but the parsers it builds are.
+     */
+    public static final class Builder {
+        private RecyclerPool<BufferRecycler> recyclerPool = JsonRecyclerPools.defaultPool();
+        private boolean canonicalizeFieldNames = true;
+        private StreamReadConstraints streamReadConstraints = StreamReadConstraints.defaults();
+        private long fileSizeThreshold = 64 * 1024;
+        private Path tempDirectory;
+        private ParseLimits limits = ParseLimits.DEFAULT;
+        private int inflaterPoolSize = 2 * Runtime.getRuntime().availableProcessors();
+        private ParseListener listener;
+        private final Set<Class<?>> preloaded = new LinkedHashSet<>();
+        private final Map<String, BodyDecoder> decoders = new HashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Set the pool of Jackson's read buffers, e.g. {@code JsonRecyclerPools.newConcurrentDequePool()} for
+         * virtual threads, or {@code JsonRecyclerPools.nonRecyclingPool()} to allocate per request
+         */
+        public Builder recyclerPool(RecyclerPool<BufferRecycler> recyclerPool) {
+            this.recyclerPool = Objects.requireNonNull(recyclerPool, "recyclerPool");
+            return this;
+        }
+
+        /**
+         * Set whether JSON field names are canonicalized into a shared symbol table, which avoids a String per key
+         * for the usual small, fixed set of names. Disable it for bodies whose keys are unbounded, such as maps keyed
+         * by ids. Enabled by default.
+         */
+        public Builder canonicalizeFieldNames(boolean canonicalizeFieldNames) {
+            this.canonicalizeFieldNames = canonicalizeFieldNames;
+            return this;
+        }
+
+        /**
+         * Set Jackson's limits on number and name lengths. The nesting depth and string length are those of the
+         * {@link #limits(ParseLimits) parse limits}.
+         */
+        public Builder streamReadConstraints(StreamReadConstraints streamReadConstraints) {
+            this.streamReadConstraints = Objects.requireNonNull(streamReadConstraints, "streamReadConstraints");
+            return this;
+        }
+
+        /**
+         * Set the size above which an uploaded file is written to a temporary file instead of being held in memory
+         * @param fileSizeThreshold The threshold in bytes, 64 KB by default
+         */
+        public Builder fileSizeThreshold(long fileSizeThreshold) {
+            if (fileSizeThreshold < 0) {
+                throw new IllegalArgumentException("File size threshold must not be negative");
+            }
+            this.fileSizeThreshold = fileSizeThreshold;
+            return this;
+        }
+
+        /**
+         * Set the directory of temporary files for uploaded files
+         * @param tempDirectory The directory, or null for the default temporary-file directory
+         */
+        public Builder tempDirectory(Path tempDirectory) {
+            this.tempDirectory = tempDirectory;
+            return this;
+        }
+
+        /**
+         * Set the limits on body size, field count, nesting depth, list size and string length of each request.
+         * The body size also bounds what a {@code gzip} or {@code deflate} body may decompress to.
+         * @param limits The limits, {@link ParseLimits#DEFAULT} by default
+         */
+        public Builder limits(ParseLimits limits) {
+            this.limits = Objects.requireNonNull(limits, "limits");
+            return this;
+        }
+
+        /**
+         * Set how many idle inflaters are kept for reuse by compressed request bodies
+         * @param inflaterPoolSize The number of inflaters, twice the number of processors by default
+         */
+        public Builder inflaterPoolSize(int inflaterPoolSize) {
+            if (inflaterPoolSize < 0) {
+                throw new IllegalArgumentException("Inflater pool size must not be negative");
+            }
+            this.inflaterPoolSize = inflaterPoolSize;
+            return this;
+        }
+
+        /**
+         * Report every {@link BodyParser#parse(HttpServletRequest, Class) parse} to a listener, such as a
+         * {@link ParseMetrics}. Without one, parsing is not timed at all.
+         * @param listener The listener, or null to disable instrumentation, the default
+         */
+        public Builder listener(ParseListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Resolve the binding plans and readers of the given classes when the parser is built, so the first request
+         * of each does not pay for it
+         */
+        public Builder preload(Class<?>... types) {
+            preloaded.addAll(Arrays.asList(types));
+            return this;
+        }
+
+        /**
+         * Decode bodies of a media type with the given decoder, replacing any built-in one. JSON, form, multipart,
+         * Smile ({@code application/x-jackson-smile}) and CBOR ({@code application/cbor}) are registered by default.
+         * @param mediaType A media type without parameters, such as {@code application/x-protobuf}, or a structured
+         *                  syntax suffix such as {@code +json}, which applies to every media type ending with it
+         */
+        public Builder decoder(String mediaType, BodyDecoder decoder) {
+            decoders.put(mediaType(mediaType), Objects.requireNonNull(decoder, "decoder"));
+            return this;
+        }
+
+        public BodyParser build() {
+            return new BodyParser(this);
+        }
     }
 
     /**
-     * Parse the request body and map it to an instance of the specified class
+     * Parse the request body and map it to an instance of the specified class. A body with a {@code gzip} or
+     * {@code deflate} Content-Encoding is decompressed as it is read.
      * @param request The HttpServletRequest object
      * @param clazz The class of the object to parse the request body to
      * @return The object with the request body set
@@ -32,171 +246,265 @@ public class BodyParser {
      * @throws IOException If there is an error reading the request body
      * @throws IllegalAccessException If there is an error setting the field value
      * @throws MissingParameterException If a required parameter is missing
+     * @throws LimitExceededException If the request exceeds the parse limits
      */
     public <T> T parse(HttpServletRequest request, Class<T> clazz) throws IOException, IllegalAccessException, MissingParameterException {
-        String contentType = request.getContentType();
-        InputStream inputStream = request.getInputStream();
-        return parse(inputStream, clazz, contentType);
+        return parse(request, clazz, context);
     }
 
-    private <T> T parse(InputStream inputStream, Class<T> clazz, String contentType) throws IOException, IllegalAccessException, MissingParameterException {
-        Map<String, String[]> parsedData;
+    /**
+     * Parse the request body into an existing instance, such as one taken from an
+     * {@link com.openext.dev.binding.InstancePool}. Every parameter is bound as {@link #parse} would bind it, and a
+     * field the request leaves out is reset to its default value, or to zero or null, so nothing is carried over from
+     * the previous use of the instance. A list field is emptied and refilled in place when it holds an ArrayList or a
+     * primitive list such as IntList.
+     * @param request The HttpServletRequest object
+     * @param instance The object to bind the request body into
+     * @return The instance
+     * @param <T> The type of the object
+     * @throws IOException If there is an error reading the request body
+     * @throws MissingParameterException If a required parameter is missing
+     * @throws LimitExceededException If the request exceeds the parse limits
+     */
+    public <T> T parseInto(HttpServletRequest request, T instance) throws IOException, MissingParameterException {
+        @SuppressWarnings("unchecked")
+        Class<T> clazz = (Class<T>) Objects.requireNonNull(instance, "instance").getClass();
+        return parse(request, clazz, context.into(instance));
+    }
 
-        if (contentType.contains("application/json")) {
-            parsedData = parseJson(inputStream);
-        } else {
-            throw new UnsupportedOperationException("Unsupported Content-Type: " + contentType);
+    private <T> T parse(HttpServletRequest request, Class<T> clazz, DecoderContext context)
+            throws IOException, MissingParameterException {
+        if (listener != null) {
+            return parseRecorded(request, clazz, context);
         }
+        try (InputStream inputStream = body(request)) {
+            return parse(inputStream, clazz, request.getContentType(), request.getCharacterEncoding(), context);
+        }
+    }
 
-        T instance = createInstance(clazz);
-
-        Field[] fields = clazz.getDeclaredFields();
-
-        List<String> missingParams = new ArrayList<>();
-
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(RequestParam.class)) {
-                RequestParam requestParam = field.getAnnotation(RequestParam.class);
-                String paramName = requestParam.name();
-                boolean required = requestParam.required();
-                String message = requestParam.message();
-                String defaultValue = requestParam.defaultValue();
+    private <T> T parseRecorded(HttpServletRequest request, Class<T> clazz, DecoderContext context)
+            throws IOException, MissingParameterException {
+        ParseRecorder recorder = new ParseRecorder();
+        InputStream body = null;
+        try (InputStream inputStream = body(request)) {
+            body = inputStream;
+            T result = parse(inputStream, clazz, request.getContentType(), request.getCharacterEncoding(),
+                    context.recording(recorder));
+            recorder.finish(listener, clazz, null, bytesRead(body));
+            return result;
+        } catch (Throwable ex) {
+            recorder.finish(listener, clazz, ex, bytesRead(body));
+            throw ex;
+        }
+    }
 
-                String[] values = parsedData.get(paramName);
-                if (values == null || values.length == 0 || (values.length == 1 && values[0].isEmpty())) {
-                    if (required) {
-                        if (!message.isEmpty()) {
-                            missingParams.add(message);
-                        } else {
-                            missingParams.add(paramName);
-                        }
-                    }
-                    if (!required && !defaultValue.isEmpty()) {
-                        if (List.class.isAssignableFrom(field.getType())) {
-                            List<String> list = Arrays.asList(defaultValue.split(","));
-                            field.setAccessible(true);
-                            field.set(instance, list);
-                        } else {
-                            Object parsedDefaultValue = parseValue(defaultValue, field.getType(), paramName);
-                            field.setAccessible(true);
-                            field.set(instance, parsedDefaultValue);
-                        }
-                    }
-                    continue;
-                }
-
-                field.setAccessible(true);
-                Class<?> fieldType = field.getType();
-
-                try {
-                    if (List.class.isAssignableFrom(fieldType)) {
-                        List<String> list = Arrays.asList(values);
-                        field.set(instance, list);
-                    } else if (fieldType == int.class || fieldType == Integer.class) {
-                        field.set(instance, Integer.parseInt(values[0]));
-                    } else if (fieldType == long.class || fieldType == Long.class) {
-                        field.set(instance, Long.parseLong(values[0]));
-                    } else if (fieldType == double.class || fieldType == Double.class) {
-                        field.set(instance, Double.parseDouble(values[0]));
-                    } else if (fieldType == boolean.class || fieldType == Boolean.class) {
-                        field.set(instance, Boolean.parseBoolean(values[0]));
-                    } else if (fieldType == String.class) {
-                        field.set(instance, values[0]);
-                    } else if (fieldType.isEnum()) {
-                        field.set(instance, Enum.valueOf((Class<Enum>) fieldType, values[0].toUpperCase()));
-                    } else {
-                        String jsonValue = objectMapper.writeValueAsString(values[0]);
-                        Object complexObject = objectMapper.readValue(jsonValue, fieldType);
-                        field.set(instance, complexObject);
-                    }
-                } catch (Exception ex) {
-                    throw new IllegalArgumentException("Invalid value for parameter: " + paramName, ex);
-                }
+    /**
+     * Parse the request body and validate it in one pass. Every missing or invalid parameter is collected into the
+     * result instead of failing on the first, and so are a malformed body, an exceeded limit and an unsupported
+     * content type or encoding. Malformed numbers and unknown enum constants are rejected without creating an
+     * exception, so invalid requests cost about as much as valid ones.
+     * @param request The HttpServletRequest object
+     * @param clazz The class of the object to parse the request body to
+     * @return The bound object, or the errors of the request
+     * @param <T> The type of the object
+     * @throws IOException If there is an error reading the request body, other than a malformed body
+     */
+    public <T> ParseResult<T> parseValidated(HttpServletRequest request, Class<T> clazz) throws IOException {
+        ParseRecorder recorder = listener == null ? null : new ParseRecorder();
+        FieldErrors errors = new FieldErrors();
+        DecoderContext context = this.context.collecting(errors);
+        if (recorder != null) {
+            context = context.recording(recorder);
+        }
+        InputStream body = null;
+        ParseResult<T> result;
+        try (InputStream inputStream = body(request)) {
+            body = inputStream;
+            T value = parse(inputStream, clazz, request.getContentType(), request.getCharacterEncoding(), context);
+            result = ParseResult.of(value, errors);
+        } catch (LimitExceededException ex) {
+            result = ParseResult.invalid(new FieldError(null, FieldError.Code.LIMIT_EXCEEDED, ex.getMessage()));
+        } catch (StreamConstraintsException ex) {
+            result = ParseResult.invalid(new FieldError(null, FieldError.Code.LIMIT_EXCEEDED,
+                    ex.getOriginalMessage()));
+        } catch (JsonProcessingException ex) {
+            result = ParseResult.invalid(new FieldError(null, FieldError.Code.MALFORMED, ex.getOriginalMessage()));
+        } catch (UnsupportedOperationException ex) {
+            result = ParseResult.invalid(new FieldError(null, FieldError.Code.UNSUPPORTED, ex.getMessage()));
+        } catch (MissingParameterException ex) {
+            // Only from a custom decoder that does not bind through its context
+            result = ParseResult.invalid(new FieldError(null, FieldError.Code.MISSING, ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            result = ParseResult.invalid(new FieldError(null, FieldError.Code.MALFORMED, ex.getMessage()));
+        } catch (IOException | RuntimeException ex) {
+            if (recorder != null) {
+                recorder.finish(listener, clazz, ex, bytesRead(body));
             }
+            throw ex;
         }
-
-
-        if (!missingParams.isEmpty()) {
-            throw new MissingParameterException("Missing required parameters: " + String.join(", ", missingParams));
+        if (recorder != null) {
+            recorder.finishValidated(listener, clazz, result, bytesRead(body));
         }
+        return result;
+    }
 
-        return instance;
+    private static long bytesRead(InputStream body) {
+        if (body instanceof BoundedInputStream) {
+            return ((BoundedInputStream) body).count();
+        }
+        return body instanceof InflatingInputStream ? ((InflatingInputStream) body).size() : 0;
     }
 
-    private Object parseValue(String value, Class<?> type, String paramName) {
-        try {
-            if (type == int.class || type == Integer.class) {
-                return Integer.parseInt(value);
-            } else if (type == long.class || type == Long.class) {
-                return Long.parseLong(value);
-            } else if (type == double.class || type == Double.class) {
-                return Double.parseDouble(value);
-            } else if (type == boolean.class || type == Boolean.class) {
-                return Boolean.parseBoolean(value);
-            } else if (type == String.class) {
-                return value;
-            } else if (type.isEnum()) {
-                return Enum.valueOf((Class<Enum>) type, value.toUpperCase());
-            } else {
-                String jsonValue = objectMapper.writeValueAsString(value);
-                return objectMapper.readValue(jsonValue, type);
-            }
-        } catch (Exception ex) {
-            throw new IllegalArgumentException("Invalid default value for parameter: " + paramName, ex);
+    /**
+     * Parse a batch of records from the request body: a top-level array of objects, or newline-delimited JSON
+     * objects, in JSON or another format with a {@link JacksonDecoder}. Records are bound lazily as the stream is
+     * consumed, one at a time, so the batch is never held in memory. Close the stream to release the request input
+     * stream.
+     * @param request The HttpServletRequest object
+     * @param clazz The class of each record
+     * @return The records, in order
+     * @param <T> The type of the records
+     * @throws IOException If the request input stream cannot be opened
+     * @throws UnsupportedOperationException If the content type has no token-based decoder
+     * @throws RecordBindingException While consuming the stream, if a record cannot be bound; the stream ends there
+     */
+    public <T> Stream<T> parseStream(HttpServletRequest request, Class<T> clazz) throws IOException {
+        String contentType = request.getContentType();
+        BodyDecoder decoder = contentType == null ? null : NDJSON.contains(mediaType(contentType))
+                ? jsonDecoder : decoderFor(contentType);
+        if (!(decoder instanceof JacksonDecoder)) {
+            throw new UnsupportedOperationException("Unsupported Content-Type for record streams: " + contentType);
         }
+        JsonParser parser = ((JacksonDecoder) decoder).factory().createParser(body(request));
+        JsonRecordIterator<T> records = new JsonRecordIterator<>(parser, clazz, jsonBinder);
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        records.close();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
     }
 
-    private Map<String, String[]> parseJson(InputStream inputStream) throws IOException {
-        Map<String, Object> tempMap = objectMapper.readValue(inputStream, Map.class);
-        Map<String, String[]> result = new HashMap<>();
+    /**
+     * Parse the request body without blocking a thread while it is received. The request is put into asynchronous
+     * mode if it is not already, and the body is decoded as the container reports data available.
+     * The caller completes the {@link javax.servlet.AsyncContext} after writing the response.
+     * @param request The HttpServletRequest object
+     * @param clazz The class of the object to parse the request body to
+     * @return A future completed with the object, or exceptionally as {@link #parse} would throw
+     * @param <T> The type of the object
+     * @throws IOException If the request input stream cannot be obtained
+     * @throws UnsupportedOperationException If the content type cannot be read asynchronously, or the body is
+     *                                       compressed
+     */
+    public <T> CompletableFuture<T> parseAsync(HttpServletRequest request, Class<T> clazz) throws IOException {
+        String contentType = request.getContentType();
+        BodyDecoder decoder = decoderFor(contentType);
+        boolean tokens = decoder instanceof JacksonDecoder && ((JacksonDecoder) decoder).factory().canParseAsync();
+        if (!tokens && !(decoder instanceof FormDecoder)) {
+            throw new UnsupportedOperationException("Unsupported Content-Type for asynchronous parsing: "
+                    + contentType);
+        }
+        if (isEncoded(request)) {
+            throw new UnsupportedOperationException("Compressed request bodies cannot be parsed asynchronously");
+        }
+        limits.checkBodySize(request.getContentLengthLong());
+        if (!request.isAsyncStarted()) {
+            request.startAsync();
+        }
+        ServletInputStream inputStream = request.getInputStream();
+        if (tokens) {
+            JsonFactory factory = ((JacksonDecoder) decoder).factory();
+            return new AsyncBodyReader.Json<>(inputStream, limits, clazz, factory, readers, jsonBinder).start();
+        }
+        return new AsyncBodyReader.Form<>(inputStream, limits, clazz, charset(request.getCharacterEncoding()), readers)
+                .start();
+    }
 
-        for (Map.Entry<String, Object> entry : tempMap.entrySet()) {
-            Object value = entry.getValue();
-            if (value instanceof List) {
-                List<?> list = (List<?>) value;
-                String[] array = list.stream().map(Object::toString).toArray(String[]::new);
-                result.put(entry.getKey(), array);
-            } else {
-                result.put(entry.getKey(), new String[]{value.toString()});
-            }
+    private <T> T parse(InputStream inputStream, Class<T> clazz, String contentType, String encoding,
+            DecoderContext context) throws IOException, MissingParameterException {
+        BodyDecoder decoder = decoderFor(contentType);
+        if (decoder == null) {
+            throw new UnsupportedOperationException("Unsupported Content-Type: " + contentType);
         }
+        return decoder.decode(inputStream, contentType, charset(encoding), clazz, context);
+    }
 
-        return result;
+    /**
+     * @return Whether the request body has a Content-Encoding other than {@code identity}
+     */
+    private static boolean isEncoded(HttpServletRequest request) {
+        String encoding = request.getHeader("Content-Encoding");
+        return encoding != null && !encoding.trim().equalsIgnoreCase("identity");
     }
 
-    private Map<String, String[]> parseUrlEncoded(InputStream inputStream) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-        String line;
-        while ((line = reader.readLine()) != null) {
-            sb.append(line);
+    /**
+     * @return The request body, bounded by the body size limit and decompressed as it is read if it has a
+     * {@code gzip} or {@code deflate} Content-Encoding. Both the compressed and the decompressed size of an encoded
+     * body are bounded by the limit. Closing a decompressed body returns its inflater to the pool.
+     * @throws UnsupportedOperationException If the body has another Content-Encoding
+     * @throws LimitExceededException If the declared Content-Length exceeds the body size limit
+     */
+    private InputStream body(HttpServletRequest request) throws IOException {
+        limits.checkBodySize(request.getContentLengthLong());
+        if (!isEncoded(request)) {
+            return new BoundedInputStream(request.getInputStream(), limits);
         }
-        String[] pairs = sb.toString().split("&");
-        Map<String, List<String>> tempMap = new HashMap<>();
-
-        for (String pair : pairs) {
-            if (pair.isEmpty()) continue;
-            String[] keyValue = pair.split("=", 2);
-            String key = URLDecoder.decode(keyValue[0], String.valueOf(StandardCharsets.UTF_8));
-            String value = keyValue.length > 1 ? URLDecoder.decode(keyValue[1], String.valueOf(StandardCharsets.UTF_8)) : "";
-            tempMap.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+        String encoding = request.getHeader("Content-Encoding").trim().toLowerCase(Locale.ROOT);
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new InflatingInputStream(new BoundedInputStream(request.getInputStream(), limits), true,
+                        limits.maxBodySize(), inflaterPool);
+            case "deflate":
+                return new InflatingInputStream(new BoundedInputStream(request.getInputStream(), limits), false,
+                        limits.maxBodySize(), inflaterPool);
+            default:
+                throw new UnsupportedOperationException("Unsupported Content-Encoding: " + encoding);
         }
+    }
 
-        Map<String, String[]> result = new HashMap<>();
-        for (Map.Entry<String, List<String>> entry : tempMap.entrySet()) {
-            List<String> list = entry.getValue();
-            result.put(entry.getKey(), list.toArray(new String[0]));
+    /**
+     * @return The decoder of the media type, then of its structured syntax suffix, or null if there is none
+     */
+    private BodyDecoder decoderFor(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        String mediaType = mediaType(contentType);
+        BodyDecoder decoder = decoders.get(mediaType);
+        int plus = mediaType.lastIndexOf('+');
+        if (decoder == null && plus >= 0) {
+            decoder = decoders.get(mediaType.substring(plus));
         }
+        return decoder;
+    }
 
-        return result;
+    /**
+     * @return The media type of a Content-Type, without parameters and in lower case
+     */
+    static String mediaType(String contentType) {
+        int end = contentType.indexOf(';');
+        return contentType.substring(0, end < 0 ? contentType.length() : end).trim().toLowerCase(Locale.ROOT);
     }
 
-    private <T> T createInstance(Class<T> clazz) {
-        try {
-            return clazz.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("Cannot create instance of " + clazz.getName(), e);
-        }
+    private static Charset charset(String encoding) {
+        return encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+    }
+
+    /**
+     * Parse the request body to a JSONObject, decoding it with the request's character encoding. A {@code gzip} or
+     * {@code deflate} body is decompressed as it is read.
+     * @param request The HttpServletRequest object
+     * @return JSONObject
+     * @throws IOException If there is an error reading the request body
+     * @throws JSONException If the body is not a valid JSON object
+     */
+    public JSONObject parseToJSONObject(HttpServletRequest request) throws IOException, JSONException {
+        return parseToJSONObject(body(request), charset(request.getCharacterEncoding()));
     }
 
     /**
@@ -207,13 +515,28 @@ public class BodyParser {
      * @throws JSONException
      */
     public JSONObject parseToJSONObject(InputStream inputStream) throws IOException, JSONException {
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
-            }
+        return parseToJSONObject(inputStream, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse the input stream to a JSONObject. The tree is built from the token stream, without copying the body into
+     * a String, and the stream is closed afterwards.
+     * @param inputStream The JSON body
+     * @param charset The charset of the body
+     * @return JSONObject
+     * @throws IOException If there is an error reading the stream
+     * @throws JSONException If the body is not a valid JSON object
+     */
+    public JSONObject parseToJSONObject(InputStream inputStream, Charset charset) throws IOException, JSONException {
+        // Jackson decodes UTF-8 from the bytes itself; other charsets go through a reader into its recycled buffers
+        try (JsonParser parser = charset.equals(StandardCharsets.UTF_8)
+                ? objectMapper.getFactory().createParser(inputStream)
+                : objectMapper.getFactory().createParser(new InputStreamReader(inputStream, charset))) {
+            return JSONObjectReader.readObject(parser, limits);
+        } catch (StreamConstraintsException ex) {
+            throw ParseLimits.exceeded(ex);
+        } catch (JsonProcessingException ex) {
+            throw new JSONException(ex.getOriginalMessage(), ex);
         }
-        return new JSONObject(sb.toString());
     }
 }
@@ -0,0 +1,49 @@
+package com.openext.dev.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts the bytes read from a request body and fails once they pass the body size limit, so a body without a
+ * Content-Length, or with a false one, is cut off while it is read. Closing it leaves the request stream open.
+ */
+final class BoundedInputStream extends InputStream {
+    private final InputStream in;
+    private final ParseLimits limits;
+    private long count;
+
+    BoundedInputStream(InputStream in, ParseLimits limits) {
+        this.in = in;
+        this.limits = limits;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            limits.checkBodySize(++count);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read > 0) {
+            limits.checkBodySize(count += read);
+        }
+        return read;
+    }
+
+    /**
+     * @return The bytes read so far
+     */
+    long count() {
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return in.available();
+    }
+}
@@ -0,0 +1,137 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.openext.dev.binding.Binders;
+import com.openext.dev.binding.ParamSource;
+import com.openext.dev.validation.FieldErrors;
+import com.openext.dev.validation.MissingParameterException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The binding path of a {@link BodyParser}, handed to its {@link BodyDecoder}s. Token-based formats bind from a
+ * {@link JsonParser}, text-based ones from a {@link ParamSource}; both apply the same {@code @RequestParam} rules.
+ * On the context of a validating parse, binding records missing and invalid parameters instead of throwing, and on
+ * the context of a {@link BodyParser#parseInto} it refills the given instance instead of creating one.
+ */
+public final class DecoderContext {
+    private final ObjectReaders readers;
+    private final JsonBinder jsonBinder;
+    private final ParseLimits limits;
+    private final long fileSizeThreshold;
+    private final Path tempDirectory;
+    // Null on the shared context; set on the per-request copy of an instrumented parse
+    private final ParseRecorder recorder;
+    // Null on the shared context; set on the per-request copy of a validating parse
+    private final FieldErrors errors;
+    // Null on the shared context; set on the per-request copy of a parse into an existing instance
+    private final Object target;
+
+    DecoderContext(ObjectReaders readers, JsonBinder jsonBinder, ParseLimits limits, long fileSizeThreshold,
+            Path tempDirectory) {
+        this(readers, jsonBinder, limits, fileSizeThreshold, tempDirectory, null, null, null);
+    }
+
+    private DecoderContext(ObjectReaders readers, JsonBinder jsonBinder, ParseLimits limits, long fileSizeThreshold,
+            Path tempDirectory, ParseRecorder recorder, FieldErrors errors, Object target) {
+        this.readers = readers;
+        this.jsonBinder = jsonBinder;
+        this.limits = limits;
+        this.fileSizeThreshold = fileSizeThreshold;
+        this.tempDirectory = tempDirectory;
+        this.recorder = recorder;
+        this.errors = errors;
+        this.target = target;
+    }
+
+    /**
+     * @return A copy of this context that reports when binding starts and how many fields were bound
+     */
+    DecoderContext recording(ParseRecorder recorder) {
+        return new DecoderContext(readers, jsonBinder, limits, fileSizeThreshold, tempDirectory, recorder, errors,
+                target);
+    }
+
+    /**
+     * @return A copy of this context that records missing and invalid parameters in {@code errors}
+     */
+    DecoderContext collecting(FieldErrors errors) {
+        return new DecoderContext(readers, jsonBinder, limits, fileSizeThreshold, tempDirectory, recorder, errors,
+                target);
+    }
+
+    /**
+     * @return A copy of this context that binds into {@code instance}, resetting the fields the request leaves out
+     */
+    DecoderContext into(Object instance) {
+        return new DecoderContext(readers, jsonBinder, limits, fileSizeThreshold, tempDirectory, recorder, errors,
+                instance);
+    }
+
+    /**
+     * @return Whether this is the context of a validating parse that has recorded an error
+     */
+    boolean hasErrors() {
+        return errors != null && !errors.isEmpty();
+    }
+
+    /**
+     * Bind the next object of a token stream, such as a Smile or CBOR parser, reading only the declared fields
+     */
+    public <T> T bind(JsonParser parser, Class<T> clazz) throws IOException, MissingParameterException {
+        if (recorder == null && errors == null && target == null) {
+            return jsonBinder.bind(parser, clazz);
+        }
+        if (recorder != null) {
+            recorder.bindStarted();
+        }
+        return jsonBinder.bind(parser, clazz, recorder, errors, target(clazz));
+    }
+
+    /**
+     * Bind the textual parameters of a source
+     */
+    public <T> T bind(ParamSource source, Class<T> clazz) throws MissingParameterException {
+        if (recorder != null) {
+            recorder.bindStarted();
+            source = recorder.track(source);
+        }
+        T instance = target(clazz);
+        if (instance != null) {
+            Binders.of(clazz).bindInto(source, instance);
+            return instance;
+        }
+        return errors == null ? Binders.of(clazz).bind(source) : Binders.of(clazz).bind(source, errors);
+    }
+
+    /**
+     * The instance to bind into; a decoder binding another type, such as the parts of a multipart body, gets none
+     */
+    private <T> T target(Class<T> clazz) {
+        return clazz.isInstance(target) ? clazz.cast(target) : null;
+    }
+
+    /**
+     * @return The limits of the parser; the body size is already enforced on the stream handed to a decoder
+     */
+    public ParseLimits limits() {
+        return limits;
+    }
+
+    ObjectReaders readers() {
+        return readers;
+    }
+
+    JsonBinder jsonBinder() {
+        return jsonBinder;
+    }
+
+    long fileSizeThreshold() {
+        return fileSizeThreshold;
+    }
+
+    Path tempDirectory() {
+        return tempDirectory;
+    }
+}
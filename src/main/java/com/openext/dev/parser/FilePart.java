@@ -0,0 +1,95 @@
+package com.openext.dev.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A file uploaded in a {@code multipart/form-data} body, bound to {@code FilePart} or {@code List<FilePart>} fields.
+ * Small files are held in memory; larger ones were spilled to a temporary file while the body was read, and their
+ * content is only read back when {@link #getInputStream()} is called. Close the part to delete its temporary file.
+ */
+public final class FilePart implements Closeable {
+    private final String name;
+    private final String fileName;
+    private final String contentType;
+    private final long size;
+    private final byte[] content;
+    private final Path file;
+
+    FilePart(String name, String fileName, String contentType, long size, byte[] content, Path file) {
+        this.name = name;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.content = content;
+        this.file = file;
+    }
+
+    /**
+     * @return The name of the form field
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The file name sent by the client, which must not be trusted as a path
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return The content type of the part, or null if none was sent
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public boolean isInMemory() {
+        return file == null;
+    }
+
+    /**
+     * @return The temporary file holding the content, or null if it is held in memory
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return A new stream over the content
+     * @throws IOException If the temporary file cannot be opened
+     */
+    public InputStream getInputStream() throws IOException {
+        return file == null ? new ByteArrayInputStream(content) : Files.newInputStream(file);
+    }
+
+    /**
+     * Delete the temporary file, if any
+     */
+    @Override
+    public void close() throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FilePart{" +
+                "name='" + name + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", size=" + size +
+                ", inMemory=" + isInMemory() +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.openext.dev.parser;
+
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.validation.MissingParameterException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Decodes {@code application/x-www-form-urlencoded} bodies
+ */
+final class FormDecoder implements BodyDecoder {
+
+    @Override
+    public <T> T decode(InputStream inputStream, String contentType, Charset charset, Class<T> clazz,
+            DecoderContext context) throws IOException, MissingParameterException {
+        return context.bind(FormParamSource.read(inputStream, charset, BindingPlan.of(clazz), context.readers(),
+                context.limits()), clazz);
+    }
+}
@@ -0,0 +1,311 @@
+package com.openext.dev.parser;
+
+import com.openext.dev.binding.BindingPlan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The parameters of an {@code application/x-www-form-urlencoded} body or a query string, decoded in a single pass
+ * over the raw bytes. Keys are percent-decoded into a reusable buffer and matched against the parameter names of a
+ * {@link BindingPlan}; values of unknown keys are skipped without decoding, and a String is only created for the value
+ * of a known key. The body itself is never held as a whole.
+ */
+final class FormParamSource extends IndexedParamSource {
+    private static final int CHUNK_SIZE = 8192;
+    private static final ClassValue<byte[][]> UTF8_NAMES = new ClassValue<byte[][]>() {
+        @Override
+        protected byte[][] computeValue(Class<?> type) {
+            return names(BindingPlan.of(type), StandardCharsets.UTF_8);
+        }
+    };
+
+    // Whether this is a query string, bound with the rules of RequestParser
+    private final boolean lenient;
+
+    private FormParamSource(BindingPlan<?> plan, ObjectReaders readers, ParseLimits limits, boolean lenient) {
+        super(plan, readers, limits);
+        this.lenient = lenient;
+    }
+
+    @Override
+    public boolean lenient() {
+        return lenient;
+    }
+
+    /**
+     * Decode a form body
+     * @param inputStream The body
+     * @param charset The charset of the percent-decoded bytes
+     * @param plan The plan whose parameter names are kept
+     * @param readers Convert values of types without a textual conversion
+     * @param limits The limits on fields, values and lists
+     * @return The decoded parameters
+     * @throws IOException If the body cannot be read
+     * @throws IllegalArgumentException If the body contains an invalid percent-encoding, or a value that is not valid
+     * in the charset
+     * @throws com.openext.dev.validation.LimitExceededException If the body exceeds the limits
+     */
+    static FormParamSource read(InputStream inputStream, Charset charset, BindingPlan<?> plan,
+            ObjectReaders readers, ParseLimits limits) throws IOException {
+        Decoder decoder = decoder(charset, plan, readers, limits, "form body", false);
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int read;
+        while ((read = inputStream.read(chunk)) != -1) {
+            decoder.accept(chunk, 0, read);
+        }
+        return decoder.finish();
+    }
+
+    /**
+     * Decode a query string, as returned by {@code HttpServletRequest.getQueryString()}
+     * @param queryString The query string, still percent-encoded, or null if there is none
+     * @param charset The charset of the percent-decoded bytes
+     * @param plan The plan whose parameter names are kept
+     * @param limits The limits on fields, values and lists
+     * @return The decoded parameters, bound with the {@link com.openext.dev.binding.ParamSource#lenient() lenient}
+     * rules of request parameters; values of types without a textual conversion are not supported
+     * @throws IllegalArgumentException If the query string contains an invalid percent-encoding, or a value that is
+     * not valid in the charset
+     * @throws com.openext.dev.validation.LimitExceededException If the query string exceeds the limits
+     */
+    static FormParamSource readQueryString(String queryString, Charset charset, BindingPlan<?> plan,
+            ParseLimits limits) {
+        Decoder decoder = decoder(charset, plan, null, limits, "query string", true);
+        if (queryString != null) {
+            decoder.accept(queryString);
+        }
+        return decoder.finish();
+    }
+
+    /**
+     * Create a decoder that is fed the body in chunks as they arrive, for bodies read without blocking
+     * @param charset The charset of the percent-decoded bytes
+     * @param plan The plan whose parameter names are kept
+     * @param readers Convert values of types without a textual conversion
+     * @param limits The limits on fields, values and lists
+     * @return The decoder
+     */
+    static Decoder decoder(Charset charset, BindingPlan<?> plan, ObjectReaders readers, ParseLimits limits) {
+        return decoder(charset, plan, readers, limits, "form body", false);
+    }
+
+    private static Decoder decoder(Charset charset, BindingPlan<?> plan, ObjectReaders readers, ParseLimits limits,
+            String input, boolean lenient) {
+        byte[][] names = charset.equals(StandardCharsets.UTF_8) ? UTF8_NAMES.get(plan.type()) : names(plan, charset);
+        return new Decoder(new FormParamSource(plan, readers, limits, lenient), names, charset, input);
+    }
+
+    private static byte[][] names(BindingPlan<?> plan, Charset charset) {
+        byte[][] names = new byte[plan.size()][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = plan.get(i).name().getBytes(charset);
+        }
+        return names;
+    }
+
+    /**
+     * Byte-level state machine over the body. Percent escapes may span read chunks, so their state is kept across
+     * calls to {@link #accept}.
+     */
+    static final class Decoder {
+        private final FormParamSource source;
+        private final byte[][] names;
+        private final Charset charset;
+        private final CharsetDecoder charsetDecoder;
+        private final String input;
+        private final int maxNameLength;
+
+        private byte[] buffer = new byte[64];
+        private int length;
+        private boolean inValue;
+        private boolean skipping;
+        private int match = -1;
+        private int hexDigits = -1;
+        private int hexValue;
+        private int fields;
+
+        Decoder(FormParamSource source, byte[][] names, Charset charset, String input) {
+            this.source = source;
+            this.names = names;
+            this.charset = charset;
+            // Malformed bytes are rejected rather than replaced, so a truncated escape sequence is not bound as U+FFFD
+            this.charsetDecoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT);
+            this.input = input;
+            int max = 0;
+            for (byte[] name : names) {
+                max = Math.max(max, name.length);
+            }
+            this.maxNameLength = max;
+        }
+
+        /**
+         * Decode the next chunk of the body
+         * @throws IllegalArgumentException If the chunk contains an invalid percent-encoding or completes a value
+         * that is not valid in the charset
+         */
+        void accept(byte[] chunk, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                accept(chunk[i]);
+            }
+        }
+
+        /**
+         * Decode text that is already a String, such as a query string. Percent-encoded text is ASCII and is fed
+         * without copying; any other characters are encoded with the charset first.
+         * @throws IllegalArgumentException If the text contains an invalid percent-encoding or a value that is not
+         * valid in the charset
+         */
+        void accept(String text) {
+            for (int i = 0, end = text.length(); i < end; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    accept((byte) c);
+                    continue;
+                }
+                int start = i;
+                while (i + 1 < end && text.charAt(i + 1) >= 0x80) {
+                    i++;
+                }
+                byte[] encoded = text.substring(start, i + 1).getBytes(charset);
+                accept(encoded, 0, encoded.length);
+            }
+        }
+
+        /**
+         * End the body
+         * @return The decoded parameters
+         * @throws IllegalArgumentException If the body ends inside a percent-encoding or with a value that is not
+         * valid in the charset
+         */
+        FormParamSource finish() {
+            endPair();
+            return source;
+        }
+
+        private void accept(byte b) {
+            if (b == '&') {
+                endPair();
+                return;
+            }
+            if (b == '=' && !inValue) {
+                endKey();
+                return;
+            }
+            if (skipping) {
+                return;
+            }
+            if (hexDigits >= 0) {
+                int digit = Character.digit(b, 16);
+                if (digit < 0) {
+                    throw new IllegalArgumentException("Invalid percent-encoding in " + input);
+                }
+                hexValue = (hexValue << 4) | digit;
+                if (++hexDigits == 2) {
+                    append((byte) hexValue);
+                    hexDigits = -1;
+                }
+            } else if (b == '%') {
+                hexDigits = 0;
+                hexValue = 0;
+            } else {
+                append(b == '+' ? (byte) ' ' : b);
+            }
+        }
+
+        private void append(byte b) {
+            if (!inValue && length == maxNameLength) {
+                // Longer than every parameter name, so the key cannot match and its value is skipped
+                skipping = true;
+                return;
+            }
+            if (inValue) {
+                source.limits.checkStringLength(length + 1L, source.plan.get(match).name());
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, length * 2);
+            }
+            buffer[length++] = b;
+        }
+
+        private void endKey() {
+            checkEscape();
+            match = skipping ? -1 : find();
+            inValue = true;
+            skipping = match < 0;
+            length = 0;
+        }
+
+        private void endPair() {
+            if (!inValue) {
+                // A key without '=' has an empty value
+                if (length == 0 && !skipping) {
+                    reset();
+                    return;
+                }
+                endKey();
+            }
+            checkEscape();
+            // Every pair counts, including skipped ones, so a body of many unknown keys is bounded too
+            source.limits.checkFields(++fields);
+            if (match >= 0) {
+                source.put(match, decode());
+            }
+            reset();
+        }
+
+        private String decode() {
+            try {
+                return charsetDecoder.decode(ByteBuffer.wrap(buffer, 0, length)).toString();
+            } catch (CharacterCodingException ex) {
+                throw new IllegalArgumentException("Invalid " + charset.name() + " value for parameter "
+                        + source.plan.get(match).name() + " in " + input, ex);
+            }
+        }
+
+        private int find() {
+            for (int i = 0; i < names.length; i++) {
+                if (matches(names[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean matches(byte[] name) {
+            if (name.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name[i] != buffer[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void checkEscape() {
+            if (hexDigits >= 0 && !skipping) {
+                throw new IllegalArgumentException("Incomplete percent-encoding in " + input);
+            }
+            hexDigits = -1;
+        }
+
+        private void reset() {
+            length = 0;
+            inValue = false;
+            skipping = false;
+            match = -1;
+            hexDigits = -1;
+        }
+    }
+}
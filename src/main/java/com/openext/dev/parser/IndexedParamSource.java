@@ -0,0 +1,102 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.binding.ParamBinding;
+import com.openext.dev.binding.ParamSource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Parameter values of a decoded body, stored by the index of their binding in a {@link BindingPlan}, so only values
+ * of declared parameters are kept. A repeated parameter keeps its first value, except for list parameters, whose
+ * values are collected without being copied into one string, and primitive array parameters, whose values are
+ * appended to one buffer. Either way every value is split with the separator of the parameter, whether it is repeated
+ * or not. Empty values of both are skipped, and their elements are counted as values arrive, so a list over the size
+ * limit is rejected before it is split.
+ */
+abstract class IndexedParamSource implements ParamSource {
+    final BindingPlan<?> plan;
+    final ParseLimits limits;
+    // Null for sources without a Jackson binder, which only support textual conversions
+    private final ObjectReaders readers;
+    private final String[] values;
+    // Every value of a list parameter, collected once it is repeated
+    private final List<List<String>> repeated;
+    // The values of a repeated primitive array parameter, joined with its separator
+    private final StringBuilder[] joined;
+    private final int[] elements;
+
+    IndexedParamSource(BindingPlan<?> plan, ObjectReaders readers, ParseLimits limits) {
+        this.plan = plan;
+        this.readers = readers;
+        this.limits = limits;
+        this.values = new String[plan.size()];
+        this.repeated = new ArrayList<>(Collections.nCopies(plan.size(), null));
+        this.joined = new StringBuilder[plan.size()];
+        this.elements = new int[plan.size()];
+    }
+
+    void put(int index, String value) {
+        ParamBinding binding = plan.get(index);
+        if (!binding.isList() && binding.sequence() == null) {
+            if (values[index] == null) {
+                values[index] = value;
+            }
+            return;
+        }
+        if (value.isEmpty()) {
+            return;
+        }
+        char separator = binding.tokenizer().separator();
+        if (values[index] == null) {
+            values[index] = value;
+        } else if (binding.isList()) {
+            List<String> all = repeated.get(index);
+            if (all == null) {
+                all = new ArrayList<>();
+                all.add(values[index]);
+                repeated.set(index, all);
+            }
+            all.add(value);
+        } else {
+            if (joined[index] == null) {
+                joined[index] = new StringBuilder(values[index]);
+            }
+            joined[index].append(separator).append(value);
+        }
+        elements[index] += ParseLimits.count(value, separator) + 1;
+        limits.checkListSize(elements[index], binding.name());
+    }
+
+    @Override
+    public String getValue(String name) {
+        ParamBinding binding = plan.find(name);
+        if (binding == null) {
+            return null;
+        }
+        int index = binding.index();
+        if (joined[index] != null) {
+            values[index] = joined[index].toString();
+            joined[index] = null;
+        }
+        return values[index];
+    }
+
+    @Override
+    public List<String> getValues(String name) {
+        ParamBinding binding = plan.find(name);
+        return binding == null ? null : repeated.get(binding.index());
+    }
+
+    @Override
+    public Object readValue(String name, String value, Class<?> type) throws IOException {
+        if (readers == null) {
+            throw new IllegalArgumentException("Unsupported field type: " + type.getName());
+        }
+        return readers.forType(type).readValue(TextNode.valueOf(value));
+    }
+}
@@ -0,0 +1,47 @@
+package com.openext.dev.parser;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Inflater;
+
+/**
+ * Reuses {@link Inflater}s, each with its input buffer, across requests. An inflater holds native zlib memory that is
+ * only freed by {@link Inflater#end()}, so reusing them avoids both the allocation and the wait for finalization.
+ * At most {@code capacity} idle inflaters are kept; extra ones are ended when released.
+ */
+final class InflaterPool {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final int capacity;
+    private final ConcurrentLinkedQueue<Entry> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    InflaterPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    static final class Entry {
+        // Raw deflate: the gzip and zlib framing is read by InflatingInputStream
+        final Inflater inflater = new Inflater(true);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+    }
+
+    Entry acquire() {
+        Entry entry = idle.poll();
+        if (entry == null) {
+            return new Entry();
+        }
+        size.decrementAndGet();
+        return entry;
+    }
+
+    void release(Entry entry) {
+        if (size.incrementAndGet() <= capacity) {
+            entry.inflater.reset();
+            idle.offer(entry);
+        } else {
+            size.decrementAndGet();
+            entry.inflater.end();
+        }
+    }
+}
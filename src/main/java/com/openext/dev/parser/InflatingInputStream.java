@@ -0,0 +1,275 @@
+package com.openext.dev.parser;
+
+import com.openext.dev.validation.LimitExceededException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a {@code gzip} or {@code deflate} request body while it is read, with an inflater and input buffer
+ * borrowed from an {@link InflaterPool}. The gzip and zlib framing is parsed here and its checksums verified, so one
+ * raw inflater serves both encodings. Reading fails as soon as the decompressed size passes the limit, so a small
+ * compressed body cannot expand without bound; the compressed size is bounded by the stream it reads from, which
+ * also covers header fields and empty blocks that produce no output. Closing it returns the inflater and leaves the
+ * request stream open.
+ */
+final class InflatingInputStream extends InputStream {
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    // The largest FEXTRA field its two-byte length can describe, also applied to the file name and comment
+    private static final int MAX_HEADER_FIELD = 0xffff;
+
+    private final InputStream in;
+    private final boolean gzip;
+    private final long maxSize;
+    private final InflaterPool pool;
+    private InflaterPool.Entry entry;
+    private final Inflater inflater;
+    private final byte[] buffer;
+    private final Checksum checksum;
+    private int position;
+    private int limit;
+    private long size;
+    private long memberSize;
+    private boolean started;
+    private boolean raw;
+    private boolean done;
+    private final byte[] single = new byte[1];
+
+    /**
+     * @param in The compressed body, bounded by the body size limit
+     * @param gzip Whether the body is gzip; otherwise it is zlib-wrapped or raw deflate
+     * @param maxSize The largest decompressed size accepted
+     * @param pool The pool to borrow the inflater from; it is returned on {@link #close()}
+     */
+    InflatingInputStream(InputStream in, boolean gzip, long maxSize, InflaterPool pool) {
+        this.in = in;
+        this.gzip = gzip;
+        this.maxSize = maxSize;
+        this.pool = pool;
+        this.entry = pool.acquire();
+        this.inflater = entry.inflater;
+        this.buffer = entry.buffer;
+        this.checksum = gzip ? new CRC32() : new Adler32();
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (entry == null) {
+            throw new IOException("Stream closed");
+        }
+        if (!started) {
+            started = true;
+            if (gzip) {
+                readGzipHeader();
+            } else {
+                readDeflateHeader();
+            }
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (!done) {
+            int inflated;
+            try {
+                inflated = inflater.inflate(b, off, len);
+            } catch (DataFormatException ex) {
+                throw new ZipException("Invalid compressed request body: " + ex.getMessage());
+            }
+            if (inflated > 0) {
+                checksum.update(b, off, inflated);
+                memberSize += inflated;
+                size += inflated;
+                if (size > maxSize) {
+                    throw new LimitExceededException("Decompressed request body exceeds " + maxSize + " bytes");
+                }
+                return inflated;
+            }
+            if (inflater.finished()) {
+                // Bytes after the deflate stream are handed back to the framing reader
+                position = limit - inflater.getRemaining();
+                endMember();
+            } else if (inflater.needsDictionary()) {
+                throw new ZipException("Compressed request body requires a preset dictionary");
+            } else if (inflater.needsInput()) {
+                if (!fill()) {
+                    throw new EOFException("Unexpected end of compressed request body");
+                }
+                inflater.setInput(buffer, 0, limit);
+                position = limit;
+            }
+        }
+        return -1;
+    }
+
+    private void endMember() throws IOException {
+        if (raw) {
+            done = true;
+            return;
+        }
+        if (!gzip) {
+            long adler = (long) readByte() << 24 | readByte() << 16 | readByte() << 8 | readByte();
+            if (adler != checksum.getValue()) {
+                throw new ZipException("Corrupt deflate request body: checksum mismatch");
+            }
+            done = true;
+            return;
+        }
+        if (readIntLe() != checksum.getValue() || readIntLe() != (memberSize & 0xffffffffL)) {
+            throw new ZipException("Corrupt gzip request body: checksum mismatch");
+        }
+        // A gzip body may hold several members; anything else after the trailer is ignored, as GZIPInputStream does
+        int next = peekByte();
+        if (next != GZIP_MAGIC_1) {
+            done = true;
+            return;
+        }
+        inflater.reset();
+        checksum.reset();
+        memberSize = 0;
+        readGzipHeader();
+    }
+
+    private void readGzipHeader() throws IOException {
+        if (readByte() != GZIP_MAGIC_1 || readByte() != GZIP_MAGIC_2) {
+            throw new ZipException("Not in gzip format");
+        }
+        if (readByte() != 8) {
+            throw new ZipException("Unsupported gzip compression method");
+        }
+        int flags = readByte();
+        // Modification time, extra flags and operating system
+        skip(6);
+        if ((flags & FEXTRA) != 0) {
+            skip(readByte() | readByte() << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            skipZeroTerminated("file name");
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipZeroTerminated("comment");
+        }
+        if ((flags & FHCRC) != 0) {
+            skip(2);
+        }
+        startInflating();
+    }
+
+    /**
+     * HTTP {@code deflate} is zlib-wrapped, but some clients send raw deflate; a zlib header is recognized by its
+     * method nibble and check bits, which raw deflate data does not produce
+     */
+    private void readDeflateHeader() throws IOException {
+        if (!ensure(2)) {
+            throw new EOFException("Unexpected end of compressed request body");
+        }
+        int cmf = buffer[position] & 0xff;
+        int flg = buffer[position + 1] & 0xff;
+        if ((cmf & 0x0f) == 8 && (cmf << 8 | flg) % 31 == 0) {
+            if ((flg & 0x20) != 0) {
+                throw new ZipException("Compressed request body requires a preset dictionary");
+            }
+            position += 2;
+        } else {
+            raw = true;
+        }
+        startInflating();
+    }
+
+    private void startInflating() {
+        inflater.setInput(buffer, position, limit - position);
+        position = limit;
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException("Unexpected end of compressed request body");
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private int peekByte() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xff;
+    }
+
+    private long readIntLe() throws IOException {
+        return (readByte() | readByte() << 8 | readByte() << 16 | (long) readByte() << 24) & 0xffffffffL;
+    }
+
+    private void skip(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readByte();
+        }
+    }
+
+    /**
+     * Skip a zero-terminated header field, which produces no output and so is not bounded by the decompressed size
+     */
+    private void skipZeroTerminated(String field) throws IOException {
+        for (int length = 0; readByte() != 0; length++) {
+            if (length == MAX_HEADER_FIELD) {
+                throw new LimitExceededException("Gzip header " + field + " exceeds " + MAX_HEADER_FIELD + " bytes");
+            }
+        }
+    }
+
+    private boolean ensure(int count) throws IOException {
+        while (limit - position < count) {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                limit -= position;
+                position = 0;
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read == -1) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read == -1) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * @return The decompressed bytes read so far
+     */
+    long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (entry != null) {
+            pool.release(entry);
+            entry = null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+/**
+ * Builds org.json trees from a Jackson token stream, so a body is parsed straight from its bytes with Jackson's
+ * recycled buffers instead of being copied into a String first. Values are typed as {@link JSONObject} would type
+ * them: numbers keep their text and go through {@link JSONObject#stringToValue}. The keys of each object and the
+ * elements of each array are counted against the {@link ParseLimits} as they are read.
+ */
+final class JSONObjectReader {
+
+    private JSONObjectReader() {
+    }
+
+    /**
+     * Read the root JSON object of the parser
+     * @throws JSONException If the root value is not an object or an object has a duplicate key
+     * @throws com.openext.dev.validation.LimitExceededException If an object or array exceeds the limits
+     */
+    static JSONObject readObject(JsonParser parser, ParseLimits limits) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JSONException("A JSONObject text must begin with '{'");
+        }
+        return object(parser, limits);
+    }
+
+    private static JSONObject object(JsonParser parser, ParseLimits limits) throws IOException {
+        JSONObject object = new JSONObject();
+        String key;
+        while ((key = parser.nextFieldName()) != null) {
+            if (object.has(key)) {
+                throw new JSONException("Duplicate key \"" + key + "\"");
+            }
+            object.put(key, value(parser, parser.nextToken(), limits));
+            limits.checkFields(object.length());
+        }
+        return object;
+    }
+
+    private static JSONArray array(JsonParser parser, ParseLimits limits) throws IOException {
+        JSONArray array = new JSONArray();
+        JsonStreamContext parent = parser.getParsingContext().getParent();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            array.put(value(parser, token, limits));
+            if (array.length() > limits.maxListSize()) {
+                // Named by its JSON Pointer, such as /items
+                limits.checkListSize(array.length(), parent.pathAsPointer().toString());
+            }
+        }
+        return array;
+    }
+
+    private static Object value(JsonParser parser, JsonToken token, ParseLimits limits) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return object(parser, limits);
+            case START_ARRAY:
+                return array(parser, limits);
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return JSONObject.stringToValue(parser.getText());
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return JSONObject.NULL;
+            default:
+                throw new JSONException("Unexpected token " + token);
+        }
+    }
+}
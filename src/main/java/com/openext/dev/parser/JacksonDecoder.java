@@ -0,0 +1,38 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.openext.dev.validation.MissingParameterException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Decodes any format with a Jackson {@link JsonFactory}, such as JSON, Smile or CBOR, by binding straight from its
+ * token stream. The encoding of textual formats is detected from the bytes. The nesting depth and string length
+ * limits are enforced by the factory's {@link com.fasterxml.jackson.core.StreamReadConstraints}, which a
+ * {@link BodyParser} sets on its own factories.
+ */
+public final class JacksonDecoder implements BodyDecoder {
+    private final JsonFactory factory;
+
+    public JacksonDecoder(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    public JsonFactory factory() {
+        return factory;
+    }
+
+    @Override
+    public <T> T decode(InputStream inputStream, String contentType, Charset charset, Class<T> clazz,
+            DecoderContext context) throws IOException, MissingParameterException {
+        try (JsonParser parser = factory.createParser(inputStream)) {
+            return context.bind(parser, clazz);
+        } catch (StreamConstraintsException ex) {
+            throw ParseLimits.exceeded(ex);
+        }
+    }
+}
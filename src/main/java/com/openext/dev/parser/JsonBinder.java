@@ -0,0 +1,485 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.InputCoercionException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.openext.dev.binding.Binders;
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.binding.EnumLookup;
+import com.openext.dev.binding.FieldSetters;
+import com.openext.dev.binding.ParamBinding;
+import com.openext.dev.binding.ValueConverter;
+import com.openext.dev.collections.DoubleList;
+import com.openext.dev.collections.IntList;
+import com.openext.dev.collections.LongList;
+import com.openext.dev.validation.FieldErrors;
+import com.openext.dev.validation.LimitExceededException;
+import com.openext.dev.validation.MissingParameterException;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binds a JSON object straight from the {@link JsonParser} token stream into the fields of a {@link BindingPlan}.
+ * Numbers and booleans are read with the native token accessors and written to primitive fields without boxing;
+ * unknown keys are skipped without being materialized. Values are written through the {@link FieldSetters} of the
+ * generated binder when the class has one. Keys and list elements are counted against the {@link ParseLimits} as
+ * they are read.
+ */
+class JsonBinder {
+    // The bound-field flags of the object being bound on each thread
+    private static final ThreadLocal<boolean[]> BOUND = new ThreadLocal<>();
+
+    private final ObjectReaders readers;
+    private final ParseLimits limits;
+
+    JsonBinder(ObjectReaders readers, ParseLimits limits) {
+        this.readers = readers;
+        this.limits = limits;
+    }
+
+    <T> T bind(JsonParser parser, Class<T> clazz) throws IOException, MissingParameterException {
+        parser.nextToken();
+        return bindCurrent(parser, clazz, null, null, null);
+    }
+
+    /**
+     * Bind the next object, reporting the number of fields bound to the recorder if one is given, recording missing
+     * and invalid fields in {@code errors} instead of throwing if it is given, and refilling {@code target} instead of
+     * creating an instance if it is given
+     */
+    <T> T bind(JsonParser parser, Class<T> clazz, ParseRecorder recorder, FieldErrors errors, T target)
+            throws IOException, MissingParameterException {
+        parser.nextToken();
+        return bindCurrent(parser, clazz, recorder, errors, target);
+    }
+
+    /**
+     * Bind the object at the current token of the parser, such as one element of an array, leaving the parser on its
+     * closing token
+     */
+    <T> T bindCurrent(JsonParser parser, Class<T> clazz) throws IOException, MissingParameterException {
+        return bindCurrent(parser, clazz, null, null, null);
+    }
+
+    private <T> T bindCurrent(JsonParser parser, Class<T> clazz, ParseRecorder recorder, FieldErrors errors,
+            T target) throws IOException, MissingParameterException {
+        BindingPlan<T> plan = BindingPlan.of(clazz);
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, clazz, "Expected a JSON object for " + clazz.getName());
+        }
+
+        if (target != null && plan.isConstructorBound()) {
+            throw new IllegalArgumentException("Cannot bind into an instance of " + clazz.getName()
+                    + ", which is bound through its constructor");
+        }
+        // The argument array of a class bound through its constructor
+        Object instance = target != null ? target : plan.newTarget();
+        FieldSetters<Object> setters = Binders.setters(clazz);
+        ObjectReader[] fieldReaders = readers.forFields(clazz);
+        boolean reset = target != null;
+        boolean[] bound = takeBound(plan.size());
+        boolean collecting = errors != null;
+        JsonStreamContext object = parser.getParsingContext();
+
+        int fields = 0;
+        String name;
+        while ((name = parser.nextFieldName()) != null) {
+            limits.checkFields(++fields);
+            JsonToken token = parser.nextToken();
+            ParamBinding binding = plan.find(name);
+            if (binding == null) {
+                parser.skipChildren();
+                continue;
+            }
+            if (token == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            try {
+                bound[binding.index()] = binding.isList()
+                        ? bindList(parser, token, binding, setters, fieldReaders, instance, collecting, reset)
+                        : bindScalar(parser, token, binding, setters, fieldReaders, instance, collecting, reset);
+            } catch (LimitExceededException ex) {
+                throw ex;
+            } catch (RuntimeException | JsonMappingException | InputCoercionException ex) {
+                if (!collecting) {
+                    throw new IllegalArgumentException(binding.invalidMessage(), ex);
+                }
+                errors.invalid(name, binding.invalidMessage(), ex == Rejected.INSTANCE ? null : ex);
+                // Counted as present, so the field is neither reported missing nor defaulted
+                bound[binding.index()] = true;
+                skipRest(parser, object);
+            }
+        }
+
+        List<String> missingParams = null;
+        int boundCount = 0;
+        for (int i = 0; i < plan.size(); i++) {
+            if (bound[i]) {
+                boundCount++;
+            } else {
+                missingParams = absent(plan.get(i), fieldReaders, instance, reset, errors, missingParams);
+            }
+        }
+        BOUND.set(bound);
+        if (recorder != null) {
+            recorder.fieldsBound(boundCount);
+        }
+        if (missingParams != null) {
+            throw new MissingParameterException("Missing required parameters: " + String.join(", ", missingParams));
+        }
+
+        return plan.build(instance, errors);
+    }
+
+    private boolean bindScalar(JsonParser parser, JsonToken token, ParamBinding binding, FieldSetters<Object> setters,
+            ObjectReader[] fieldReaders, Object instance, boolean collecting, boolean reuse) throws IOException {
+        if (!binding.isConvertible()) {
+            setters.set(instance, binding, ObjectReaders.field(fieldReaders, binding).readValue(parser));
+            return true;
+        }
+        if (binding.sequence() != null) {
+            return bindSequence(parser, token, binding, setters, instance, collecting, reuse);
+        }
+        if (token == JsonToken.START_ARRAY) {
+            // A single-valued field takes the first element of an array
+            JsonToken first = parser.nextToken();
+            boolean bound = first != JsonToken.END_ARRAY && first != JsonToken.VALUE_NULL
+                    && bindScalar(parser, first, binding, setters, fieldReaders, instance, collecting, reuse);
+            if (first != JsonToken.END_ARRAY) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    parser.skipChildren();
+                }
+            }
+            return bound;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Expected a scalar value but found an object");
+        }
+
+        Class<?> type = binding.type();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            if (type == int.class) {
+                setters.setInt(instance, binding, parser.getIntValue());
+                return true;
+            } else if (type == long.class) {
+                setters.setLong(instance, binding, parser.getLongValue());
+                return true;
+            } else if (type == double.class) {
+                setters.setDouble(instance, binding, parser.getDoubleValue());
+                return true;
+            } else if (type == float.class) {
+                setters.setFloat(instance, binding, parser.getFloatValue());
+                return true;
+            }
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            if (type == double.class) {
+                setters.setDouble(instance, binding, parser.getDoubleValue());
+                return true;
+            } else if (type == float.class) {
+                setters.setFloat(instance, binding, parser.getFloatValue());
+                return true;
+            }
+        } else if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            if (type == boolean.class) {
+                setters.setBoolean(instance, binding, token == JsonToken.VALUE_TRUE);
+                return true;
+            }
+        }
+
+        if (token == JsonToken.VALUE_STRING && parser.getTextLength() == 0) {
+            return false;
+        }
+        if (type.isPrimitive()) {
+            String text = parser.getText();
+            if (collecting && binding.rejects(text)) {
+                throw Rejected.INSTANCE;
+            }
+            setters.set(instance, binding, binding.convert(text));
+        } else {
+            setters.set(instance, binding, readElement(parser, token, binding, type, collecting));
+        }
+        return true;
+    }
+
+    /**
+     * Bind a list field; with {@code reuse}, the list the field already holds is emptied and refilled if it can be
+     */
+    private boolean bindList(JsonParser parser, JsonToken token, ParamBinding binding, FieldSetters<Object> setters,
+            ObjectReader[] fieldReaders, Object instance, boolean collecting, boolean reuse) throws IOException {
+        ObjectReader reader = binding.isConvertible() ? null : ObjectReaders.element(fieldReaders, binding);
+        if (!binding.isConvertible() && (token != JsonToken.START_ARRAY || reader == null)) {
+            setters.set(instance, binding, ObjectReaders.field(fieldReaders, binding).readValue(parser));
+            return true;
+        }
+
+        List<Object> list = reuse ? binding.reusableList(instance) : new ArrayList<>();
+        if (!binding.isConvertible()) {
+            // Elements are read one at a time, so the size limit applies before the whole list is built
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                list.add(token == JsonToken.VALUE_NULL ? null : reader.readValue(parser));
+                limits.checkListSize(list.size(), binding.name());
+            }
+            setters.set(instance, binding, list);
+            return true;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            JsonToken element;
+            while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                list.add(element == JsonToken.VALUE_NULL ? null
+                        : readElement(parser, element, binding, binding.elementType(), collecting));
+                limits.checkListSize(list.size(), binding.name());
+            }
+        } else if (token != JsonToken.VALUE_STRING || parser.getTextLength() != 0) {
+            list.add(readElement(parser, token, binding, binding.elementType(), collecting));
+        }
+        if (list.isEmpty()) {
+            return false;
+        }
+        setters.set(instance, binding, list);
+        return true;
+    }
+
+    /**
+     * Fill a primitive array or list from a JSON array of numbers, or from a comma-separated string, without boxing;
+     * with {@code reuse}, the primitive list the field already holds is emptied and refilled
+     */
+    private boolean bindSequence(JsonParser parser, JsonToken token, ParamBinding binding,
+            FieldSetters<Object> setters, Object instance, boolean collecting, boolean reuse) throws IOException {
+        if (token == JsonToken.VALUE_STRING) {
+            if (parser.getTextLength() == 0) {
+                return false;
+            }
+            String text = parser.getText();
+            limits.checkDelimited(text, binding.tokenizer().separator(), binding.name());
+            if (collecting && binding.rejects(text)) {
+                throw Rejected.INSTANCE;
+            }
+            setters.set(instance, binding, reuse ? binding.parseSequence(text, instance) : binding.convert(text));
+            return true;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Expected an array of numbers but found " + token);
+        }
+
+        List<?> reused = reuse ? binding.reusableSequence(instance) : null;
+        Object value;
+        boolean array = binding.type().isArray();
+        switch (binding.sequence()) {
+            case INT: {
+                IntList list = reused != null ? (IntList) reused : new IntList();
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    list.addInt(integral(parser, token, JsonParser.NumberType.INT, collecting) ? parser.getIntValue()
+                            : Integer.parseInt(elementText(parser, token, int.class, collecting).trim()));
+                    limits.checkListSize(list.size(), binding.name());
+                }
+                value = list.isEmpty() ? null : array ? list.toIntArray() : list;
+                break;
+            }
+            case LONG: {
+                LongList list = reused != null ? (LongList) reused : new LongList();
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    list.addLong(integral(parser, token, JsonParser.NumberType.LONG, collecting)
+                            ? parser.getLongValue()
+                            : Long.parseLong(elementText(parser, token, long.class, collecting).trim()));
+                    limits.checkListSize(list.size(), binding.name());
+                }
+                value = list.isEmpty() ? null : array ? list.toLongArray() : list;
+                break;
+            }
+            default: {
+                DoubleList list = reused != null ? (DoubleList) reused : new DoubleList();
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    list.addDouble(token.isNumeric() ? parser.getDoubleValue()
+                            : Double.parseDouble(elementText(parser, token, double.class, collecting)));
+                    limits.checkListSize(list.size(), binding.name());
+                }
+                value = list.isEmpty() ? null : array ? list.toDoubleArray() : list;
+                break;
+            }
+        }
+        if (value == null) {
+            return false;
+        }
+        setters.set(instance, binding, value);
+        return true;
+    }
+
+    /**
+     * @return Whether the element is an integer token for the native accessor; while collecting errors, an integer
+     * beyond the range of {@code widest} is rejected rather than left to the accessor to throw
+     */
+    private static boolean integral(JsonParser parser, JsonToken token, JsonParser.NumberType widest,
+            boolean collecting) throws IOException {
+        if (token != JsonToken.VALUE_NUMBER_INT) {
+            return false;
+        }
+        if (collecting) {
+            JsonParser.NumberType numberType = parser.getNumberType();
+            if (numberType == JsonParser.NumberType.BIG_INTEGER
+                    || widest == JsonParser.NumberType.INT && numberType != JsonParser.NumberType.INT) {
+                throw Rejected.INSTANCE;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The text of a string or decimal element; while collecting errors, text that is certain to fail to parse
+     * as {@code type} is rejected without parsing it
+     */
+    private static String elementText(JsonParser parser, JsonToken token, Class<?> type, boolean collecting)
+            throws IOException {
+        if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_FLOAT) {
+            if (collecting) {
+                throw Rejected.INSTANCE;
+            }
+            throw new IllegalArgumentException("Expected a number but found " + token);
+        }
+        String text = parser.getText();
+        if (collecting && ValueConverter.rejects(type, text)) {
+            throw Rejected.INSTANCE;
+        }
+        return text;
+    }
+
+    /**
+     * Read a scalar token as a boxed value of {@code type}. Numbers and booleans use the native accessors when the
+     * token matches the type; anything else goes through the textual conversion of the binding. While collecting
+     * errors, text that is certain to fail is rejected without converting it.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readElement(JsonParser parser, JsonToken token, ParamBinding binding, Class<?> type,
+            boolean collecting) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            if (type == Integer.class || type == int.class) {
+                return parser.getIntValue();
+            } else if (type == Long.class || type == long.class) {
+                return parser.getLongValue();
+            } else if (type == Double.class || type == double.class) {
+                return parser.getDoubleValue();
+            } else if (type == Float.class || type == float.class) {
+                return parser.getFloatValue();
+            }
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            if (type == Double.class || type == double.class) {
+                return parser.getDoubleValue();
+            } else if (type == Float.class || type == float.class) {
+                return parser.getFloatValue();
+            }
+        } else if (token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE) {
+            if (type == Boolean.class || type == boolean.class) {
+                return token == JsonToken.VALUE_TRUE ? Boolean.TRUE : Boolean.FALSE;
+            }
+        } else if (token == JsonToken.VALUE_STRING && type.isEnum()) {
+            // Matched on the parser's text buffer, without a String
+            EnumLookup<?> lookup = EnumLookup.of((Class<Enum>) type);
+            if (!collecting) {
+                return lookup.parse(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            }
+            Object constant = lookup.find(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+            if (constant == null) {
+                throw Rejected.INSTANCE;
+            }
+            return constant;
+        } else if (token.isStructStart()) {
+            throw new IllegalArgumentException("Expected a scalar value but found " + token);
+        }
+
+        String text = parser.getText();
+        if (collecting && ValueConverter.rejects(type, text)) {
+            throw Rejected.INSTANCE;
+        }
+        return binding.convert(text);
+    }
+
+    /**
+     * Move the parser past the rest of a value that failed to bind, back into the object holding it. The failure may
+     * have left the parser at any depth within the value, so it is skipped token by token.
+     */
+    private static void skipRest(JsonParser parser, JsonStreamContext object) throws IOException {
+        while (parser.getParsingContext() != object) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The declared element type of a field of type {@code List<E>}, such as {@code Address} or
+     * {@code Map<String, Item>}, or null for any other field
+     */
+    static Type elementType(ParamBinding binding) {
+        if (binding.type() != List.class || !(binding.genericType() instanceof ParameterizedType)) {
+            return null;
+        }
+        return ((ParameterizedType) binding.genericType()).getActualTypeArguments()[0];
+    }
+
+    private List<String> absent(ParamBinding binding, ObjectReader[] fieldReaders, Object instance, boolean reset,
+            FieldErrors errors, List<String> missingParams) throws IOException {
+        if (binding.isRequired()) {
+            if (errors == null) {
+                if (missingParams == null) {
+                    missingParams = new ArrayList<>();
+                }
+                missingParams.add(binding.message().isEmpty() ? binding.name() : binding.message());
+            } else {
+                errors.missing(binding.name(), binding.message().isEmpty()
+                        ? "Missing required parameter: " + binding.name() : binding.message());
+            }
+        } else if (binding.hasDefault()) {
+            if (binding.isConvertible()) {
+                binding.set(instance, binding.defaultValue());
+            } else {
+                try {
+                    binding.set(instance, ObjectReaders.field(fieldReaders, binding)
+                            .readValue(TextNode.valueOf(binding.defaultText())));
+                } catch (JsonMappingException ex) {
+                    throw new IllegalArgumentException("Invalid default value for parameter: " + binding.name(), ex);
+                }
+            }
+        } else if (reset) {
+            binding.reset(instance);
+        }
+        return missingParams;
+    }
+
+    /**
+     * @return Cleared flags for the fields of one object, taken from this thread's scratch array so a bind allocates
+     * none. The array is put back once the fields are bound; if the bind fails, or a setter binds another body on the
+     * same thread, the next bind allocates a new one.
+     */
+    private static boolean[] takeBound(int size) {
+        boolean[] bound = BOUND.get();
+        if (bound == null || bound.length < size) {
+            return new boolean[Math.max(size, 16)];
+        }
+        BOUND.set(null);
+        Arrays.fill(bound, 0, size, false);
+        return bound;
+    }
+
+    /**
+     * Unwinds the binding of a value rejected without converting it while errors are collected. The one instance is
+     * shared, so it has neither a stack trace nor suppressed exceptions.
+     */
+    private static final class Rejected extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        static final Rejected INSTANCE = new Rejected();
+
+        private Rejected() {
+            super("Rejected value", null, false, false);
+        }
+    }
+}
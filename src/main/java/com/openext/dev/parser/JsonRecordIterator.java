@@ -0,0 +1,82 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.openext.dev.validation.MissingParameterException;
+import com.openext.dev.validation.RecordBindingException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Binds the records of a top-level JSON array, or of newline-delimited JSON objects, one at a time as they are
+ * requested. Only the record being bound is held, so memory does not grow with the number of records.
+ */
+final class JsonRecordIterator<T> implements Iterator<T>, Closeable {
+    private final JsonParser parser;
+    private final Class<T> clazz;
+    private final JsonBinder jsonBinder;
+    private boolean started;
+    private boolean ready;
+    private boolean done;
+    private long index;
+
+    JsonRecordIterator(JsonParser parser, Class<T> clazz, JsonBinder jsonBinder) {
+        this.parser = parser;
+        this.clazz = clazz;
+        this.jsonBinder = jsonBinder;
+    }
+
+    /**
+     * @throws RecordBindingException If the JSON before the next record is malformed
+     */
+    @Override
+    public boolean hasNext() {
+        if (done || ready) {
+            return !done;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    token = parser.nextToken();
+                }
+            }
+            done = token == null || token == JsonToken.END_ARRAY;
+            ready = !done;
+            return ready;
+        } catch (IOException ex) {
+            // Malformed JSON between records, reported against the record that was expected
+            done = true;
+            throw new RecordBindingException(index, ex);
+        }
+    }
+
+    /**
+     * @throws RecordBindingException If the record cannot be bound; the iteration ends with it
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        try {
+            return jsonBinder.bindCurrent(parser, clazz);
+        } catch (IOException | MissingParameterException | RuntimeException ex) {
+            done = true;
+            throw new RecordBindingException(index, ex);
+        } finally {
+            index++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        parser.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.openext.dev.parser;
+
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.validation.MissingParameterException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Decodes {@code multipart/form-data} bodies
+ */
+final class MultipartDecoder implements BodyDecoder {
+
+    @Override
+    public <T> T decode(InputStream inputStream, String contentType, Charset charset, Class<T> clazz,
+            DecoderContext context) throws IOException, MissingParameterException {
+        MultipartParamSource source = MultipartParamSource.read(inputStream, contentType, charset,
+                BindingPlan.of(clazz), context);
+        try {
+            T result = context.bind(source, clazz);
+            if (context.hasErrors()) {
+                // An invalid result is not handed to the caller either
+                source.close();
+            } else {
+                source.closeUnclaimed();
+            }
+            return result;
+        } catch (MissingParameterException | RuntimeException ex) {
+            // The caller never receives the parts, so their temporary files are deleted here
+            source.close();
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.openext.dev.parser;
+
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.binding.ParamBinding;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of a {@code multipart/form-data} body, read in a single pass over the request stream. Text parts are
+ * kept as values of their parameters, file parts of {@link FilePart} fields become {@link FilePart}s that are held in
+ * memory up to a threshold and streamed to a temporary file beyond it, and parts of undeclared parameters, file parts
+ * of other fields and extra file parts of a single {@link FilePart} field are skipped without being buffered.
+ */
+final class MultipartParamSource extends IndexedParamSource {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_HEADER_SIZE = 16 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    private final Map<String, List<FilePart>> files = new HashMap<>();
+    // Names of the parts handed to a binder, which the caller now owns
+    private final Set<String> claimed = new HashSet<>();
+
+    private MultipartParamSource(BindingPlan<?> plan, ObjectReaders readers, ParseLimits limits) {
+        super(plan, readers, limits);
+    }
+
+    /**
+     * Read a multipart body
+     * @param inputStream The body
+     * @param contentType The request content type, holding the boundary
+     * @param charset The charset of text parts that do not declare one
+     * @param plan The plan whose parameter names are kept
+     * @param context The file size threshold, temporary directory, limits and readers of the parser
+     * @return The decoded parameters
+     * @throws IOException If the body cannot be read or a temporary file cannot be written
+     * @throws IllegalArgumentException If the body is not valid multipart
+     * @throws com.openext.dev.validation.LimitExceededException If the body has too many parts or too long a text
+     *                                                           part
+     */
+    static MultipartParamSource read(InputStream inputStream, String contentType, Charset charset, BindingPlan<?> plan,
+            DecoderContext context) throws IOException {
+        String boundary = parameter(contentType, "boundary");
+        if (boundary == null || boundary.isEmpty()) {
+            throw new IllegalArgumentException("Missing boundary in Content-Type: " + contentType);
+        }
+        MultipartParamSource source = new MultipartParamSource(plan, context.readers(), context.limits());
+        try {
+            new Reader(inputStream, boundary, charset, context.fileSizeThreshold(), context.tempDirectory(), source)
+                    .read();
+        } catch (IOException | RuntimeException ex) {
+            source.close();
+            throw ex;
+        }
+        return source;
+    }
+
+    @Override
+    public Object readValue(String name, String value, Class<?> type) throws IOException {
+        List<FilePart> parts = files.get(name);
+        if (parts != null && type == FilePart.class) {
+            claimed.add(name);
+            return parts.get(0);
+        }
+        if (parts != null && List.class.isAssignableFrom(type)) {
+            claimed.add(name);
+            return parts;
+        }
+        return super.readValue(name, value, type);
+    }
+
+    private void addFile(int index, FilePart part) {
+        ParamBinding binding = plan.get(index);
+        List<FilePart> parts = files.get(binding.name());
+        if (parts == null) {
+            files.put(binding.name(), parts = new ArrayList<>());
+        }
+        parts.add(part);
+        // The file name is the textual value, so an empty file input is absent like an empty text field
+        put(index, part.getFileName());
+    }
+
+    /**
+     * @return Whether parts of the field are kept as {@link FilePart}s: a {@link FilePart} or {@code List<FilePart>}
+     */
+    private static boolean holdsFiles(ParamBinding binding) {
+        return binding.type() == FilePart.class || binding.isList() && binding.elementType() == FilePart.class;
+    }
+
+    /**
+     * @return Whether a file part of the field would be dropped: a single {@link FilePart} field keeps its first one
+     */
+    private boolean isFull(ParamBinding binding) {
+        return binding.type() == FilePart.class && files.containsKey(binding.name());
+    }
+
+    /**
+     * Delete the temporary files of all file parts
+     */
+    void close() {
+        close(false);
+    }
+
+    /**
+     * Delete the temporary files of the file parts that were not handed to a binder, such as an empty file input
+     */
+    void closeUnclaimed() {
+        close(true);
+    }
+
+    private void close(boolean unclaimedOnly) {
+        for (Map.Entry<String, List<FilePart>> entry : files.entrySet()) {
+            if (unclaimedOnly && claimed.contains(entry.getKey())) {
+                continue;
+            }
+            for (FilePart part : entry.getValue()) {
+                try {
+                    part.close();
+                } catch (IOException ignored) {
+                    // Best effort: the original failure is more useful to the caller
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The value of a {@code ; key=value} parameter of a header, unquoted, or null if it is absent
+     */
+    static String parameter(String header, String key) {
+        int i = header.indexOf(';');
+        while (i >= 0 && i < header.length()) {
+            int start = i + 1;
+            while (start < header.length() && header.charAt(start) == ' ') {
+                start++;
+            }
+            int equals = header.indexOf('=', start);
+            if (equals < 0) {
+                return null;
+            }
+            String name = header.substring(start, equals).trim();
+            int valueStart = equals + 1;
+            String value;
+            int next;
+            if (valueStart < header.length() && header.charAt(valueStart) == '"') {
+                StringBuilder quoted = new StringBuilder();
+                int j = valueStart + 1;
+                for (; j < header.length() && header.charAt(j) != '"'; j++) {
+                    char c = header.charAt(j);
+                    if (c == '\\' && j + 1 < header.length()) {
+                        c = header.charAt(++j);
+                    }
+                    quoted.append(c);
+                }
+                value = quoted.toString();
+                next = header.indexOf(';', j);
+            } else {
+                next = header.indexOf(';', valueStart);
+                value = header.substring(valueStart, next < 0 ? header.length() : next).trim();
+            }
+            if (name.equalsIgnoreCase(key)) {
+                return value;
+            }
+            i = next;
+        }
+        return null;
+    }
+
+    /**
+     * Scans the body for boundaries through a fixed buffer. Bytes of a part body are handed to their sink as soon as
+     * they cannot be the start of a boundary, so memory use does not depend on the size of a part.
+     */
+    private static final class Reader {
+        private final InputStream inputStream;
+        private final byte[] dashBoundary;
+        private final byte[] delimiter;
+        private final Charset charset;
+        private final long fileSizeThreshold;
+        private final Path tempDirectory;
+        private final MultipartParamSource source;
+        private final byte[] buffer;
+        private int head;
+        private int tail;
+        private int parts;
+
+        Reader(InputStream inputStream, String boundary, Charset charset, long fileSizeThreshold, Path tempDirectory,
+                MultipartParamSource source) {
+            this.inputStream = inputStream;
+            this.dashBoundary = ("--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+            this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+            this.charset = charset;
+            this.fileSizeThreshold = fileSizeThreshold;
+            this.tempDirectory = tempDirectory;
+            this.source = source;
+            this.buffer = new byte[Math.max(BUFFER_SIZE, delimiter.length * 2)];
+        }
+
+        void read() throws IOException {
+            if (!readUntil(dashBoundary, null)) {
+                throw new IllegalArgumentException("Multipart body has no boundary");
+            }
+            while (true) {
+                if (!ensure(2)) {
+                    throw new IllegalArgumentException("Unexpected end of multipart body");
+                }
+                if (buffer[head] == '-' && buffer[head + 1] == '-') {
+                    return;
+                }
+                if (buffer[head] != '\r' || buffer[head + 1] != '\n') {
+                    throw new IllegalArgumentException("Malformed multipart boundary");
+                }
+                head += 2;
+                source.limits.checkFields(++parts);
+                readPart();
+            }
+        }
+
+        private void readPart() throws IOException {
+            Map<String, String> headers = readHeaders();
+            String disposition = headers.get("content-disposition");
+            String name = disposition == null ? null : parameter(disposition, "name");
+            ParamBinding binding = name == null ? null : source.plan.find(name);
+            String fileName = disposition == null ? null : parameter(disposition, "filename");
+            String partType = headers.get("content-type");
+
+            if (binding == null || fileName != null && (!holdsFiles(binding) || source.isFull(binding))) {
+                body(null);
+            } else if (fileName != null) {
+                PartSink sink = new PartSink();
+                try {
+                    body(sink);
+                } catch (IOException | RuntimeException ex) {
+                    sink.discard();
+                    throw ex;
+                }
+                source.addFile(binding.index(), sink.toPart(name, fileName, partType));
+            } else {
+                ByteArrayOutputStream text = new ByteArrayOutputStream() {
+                    @Override
+                    public synchronized void write(byte[] b, int off, int len) {
+                        source.limits.checkStringLength((long) count + len, name);
+                        super.write(b, off, len);
+                    }
+                };
+                body(text);
+                String partCharset = partType == null ? null : parameter(partType, "charset");
+                source.put(binding.index(),
+                        new String(text.toByteArray(), partCharset == null ? charset : Charset.forName(partCharset)));
+            }
+        }
+
+        private void body(OutputStream sink) throws IOException {
+            if (!readUntil(delimiter, sink)) {
+                throw new IllegalArgumentException("Unexpected end of multipart body");
+            }
+        }
+
+        private Map<String, String> readHeaders() throws IOException {
+            Map<String, String> headers = new HashMap<>();
+            if (ensure(2) && buffer[head] == '\r' && buffer[head + 1] == '\n') {
+                head += 2;
+                return headers;
+            }
+            ByteArrayOutputStream block = new ByteArrayOutputStream() {
+                @Override
+                public synchronized void write(byte[] b, int off, int len) {
+                    if (count + len > MAX_HEADER_SIZE) {
+                        throw new IllegalArgumentException("Multipart headers exceed " + MAX_HEADER_SIZE + " bytes");
+                    }
+                    super.write(b, off, len);
+                }
+            };
+            if (!readUntil(HEADER_END, block)) {
+                throw new IllegalArgumentException("Unexpected end of multipart body");
+            }
+            // Browsers send non-ASCII file names as raw UTF-8
+            for (String line : new String(block.toByteArray(), StandardCharsets.UTF_8).split("\r\n")) {
+                int colon = line.indexOf(':');
+                if (colon > 0) {
+                    headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                            line.substring(colon + 1).trim());
+                }
+            }
+            return headers;
+        }
+
+        /**
+         * Copy bytes to the sink up to the next occurrence of the pattern, consuming the pattern
+         * @param sink Receives the bytes, or null to discard them
+         * @return Whether the pattern was found before the end of the stream
+         */
+        private boolean readUntil(byte[] pattern, OutputStream sink) throws IOException {
+            while (true) {
+                int found = indexOf(pattern);
+                if (found >= 0) {
+                    write(sink, found);
+                    head = found + pattern.length;
+                    return true;
+                }
+                // The last bytes may be the start of the pattern, so they stay in the buffer
+                write(sink, Math.max(head, tail - pattern.length + 1));
+                if (!fill()) {
+                    write(sink, tail);
+                    return false;
+                }
+            }
+        }
+
+        private int indexOf(byte[] pattern) {
+            byte first = pattern[0];
+            for (int i = head, last = tail - pattern.length; i <= last; i++) {
+                if (buffer[i] != first) {
+                    continue;
+                }
+                int j = 1;
+                while (j < pattern.length && buffer[i + j] == pattern[j]) {
+                    j++;
+                }
+                if (j == pattern.length) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void write(OutputStream sink, int end) throws IOException {
+            if (sink != null && end > head) {
+                sink.write(buffer, head, end - head);
+            }
+            head = Math.max(head, end);
+        }
+
+        private boolean ensure(int count) throws IOException {
+            while (tail - head < count) {
+                if (!fill()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean fill() throws IOException {
+            if (head > 0) {
+                System.arraycopy(buffer, head, buffer, 0, tail - head);
+                tail -= head;
+                head = 0;
+            }
+            int read = inputStream.read(buffer, tail, buffer.length - tail);
+            if (read <= 0) {
+                return false;
+            }
+            tail += read;
+            return true;
+        }
+
+        /**
+         * Holds a file part in memory until it exceeds the threshold, then moves it to a temporary file
+         */
+        private final class PartSink extends OutputStream {
+            private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+            private OutputStream out;
+            private Path file;
+            private long size;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (out == null && size + len > fileSizeThreshold) {
+                    file = tempDirectory == null
+                            ? Files.createTempFile("multipart-", ".part")
+                            : Files.createTempFile(tempDirectory, "multipart-", ".part");
+                    out = Files.newOutputStream(file);
+                    memory.writeTo(out);
+                    memory = null;
+                }
+                (out != null ? out : memory).write(b, off, len);
+                size += len;
+            }
+
+            FilePart toPart(String name, String fileName, String contentType) throws IOException {
+                if (out != null) {
+                    out.close();
+                    return new FilePart(name, fileName, contentType, size, null, file);
+                }
+                return new FilePart(name, fileName, contentType, size, memory.toByteArray(), null);
+            }
+
+            void discard() throws IOException {
+                if (out != null) {
+                    out.close();
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.binding.ParamBinding;
+
+import java.lang.reflect.Type;
+
+/**
+ * The {@link ObjectReader}s of one {@link ObjectMapper}, resolved once and shared by every thread. Readers are held by
+ * {@link ClassValue}s, so a lookup does not lock and a reader does not keep the class loader of its class alive:
+ * readers of a class by the class, and readers of the generic field types of a bound class, such as
+ * {@code List<Address>}, by the bound class alongside its {@link BindingPlan}.
+ */
+final class ObjectReaders {
+    private final ObjectMapper objectMapper;
+    private final ClassValue<ObjectReader> classReaders = new ClassValue<ObjectReader>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return objectMapper.readerFor(type);
+        }
+    };
+    // The readers of the fields Jackson converts, by binding index: the field type at 2 * index, and the element
+    // type of a list field at 2 * index + 1
+    private final ClassValue<ObjectReader[]> fieldReaders = new ClassValue<ObjectReader[]>() {
+        @Override
+        protected ObjectReader[] computeValue(Class<?> type) {
+            BindingPlan<?> plan = BindingPlan.of(type);
+            ObjectReader[] readers = new ObjectReader[plan.size() * 2];
+            for (int i = 0; i < plan.size(); i++) {
+                ParamBinding binding = plan.get(i);
+                if (!binding.isConvertible()) {
+                    readers[2 * i] = reader(binding.genericType());
+                    Type elementType = JsonBinder.elementType(binding);
+                    readers[2 * i + 1] = elementType == null ? null : reader(elementType);
+                }
+            }
+            return readers;
+        }
+    };
+
+    ObjectReaders(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    ObjectMapper mapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @param type The target class
+     * @return The reader for the class
+     */
+    ObjectReader forType(Class<?> type) {
+        return classReaders.get(type);
+    }
+
+    /**
+     * @param type A bound class
+     * @return The readers of its fields that Jackson converts, to be read with {@link #field} and {@link #element}
+     */
+    ObjectReader[] forFields(Class<?> type) {
+        return fieldReaders.get(type);
+    }
+
+    /**
+     * @return The reader of the full generic type of a field that Jackson converts, from {@link #forFields}
+     */
+    static ObjectReader field(ObjectReader[] readers, ParamBinding binding) {
+        return readers[2 * binding.index()];
+    }
+
+    /**
+     * @return The reader of the element type of a list field that Jackson converts, from {@link #forFields}, or null
+     * if the field is not a {@code List<E>}
+     */
+    static ObjectReader element(ObjectReader[] readers, ParamBinding binding) {
+        return readers[2 * binding.index() + 1];
+    }
+
+    /**
+     * Resolve the binding plan of a class and the readers of its fields that Jackson converts
+     */
+    void preload(Class<?> type) {
+        BindingPlan<?> plan = BindingPlan.of(type);
+        forFields(type);
+        for (int i = 0; i < plan.size(); i++) {
+            ParamBinding binding = plan.get(i);
+            if (!binding.isConvertible()) {
+                forType(binding.type());
+            }
+        }
+    }
+
+    private ObjectReader reader(Type type) {
+        return objectMapper.readerFor(objectMapper.constructType(type));
+    }
+}
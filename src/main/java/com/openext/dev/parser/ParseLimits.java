@@ -0,0 +1,184 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import com.openext.dev.validation.LimitExceededException;
+
+/**
+ * Upper bounds on what a single request may make the parser hold or process. Every limit is checked while the input
+ * is read, so an oversized request is rejected with a {@link LimitExceededException} before it is buffered.
+ * Limits are immutable and can be shared.
+ */
+public final class ParseLimits {
+    /** 64 MB bodies, 1,000 fields, 100 levels of nesting, 10,000 list elements and 1 MB strings */
+    public static final ParseLimits DEFAULT = builder().build();
+
+    private final long maxBodySize;
+    private final int maxFields;
+    private final int maxNestingDepth;
+    private final int maxListSize;
+    private final int maxStringLength;
+
+    private ParseLimits(Builder builder) {
+        this.maxBodySize = builder.maxBodySize;
+        this.maxFields = builder.maxFields;
+        this.maxNestingDepth = builder.maxNestingDepth;
+        this.maxListSize = builder.maxListSize;
+        this.maxStringLength = builder.maxStringLength;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return The largest body in bytes, after any Content-Encoding is removed
+     */
+    public long maxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * @return The most fields of a form or multipart body, or keys of one JSON object
+     */
+    public int maxFields() {
+        return maxFields;
+    }
+
+    /**
+     * @return The deepest nesting of objects and arrays in a token-based body
+     */
+    public int maxNestingDepth() {
+        return maxNestingDepth;
+    }
+
+    /**
+     * @return The most elements of a list or primitive array parameter
+     */
+    public int maxListSize() {
+        return maxListSize;
+    }
+
+    /**
+     * @return The longest string value in characters; form and multipart values are measured in bytes
+     */
+    public int maxStringLength() {
+        return maxStringLength;
+    }
+
+    public static final class Builder {
+        private long maxBodySize = 64L * 1024 * 1024;
+        private int maxFields = 1000;
+        private int maxNestingDepth = 100;
+        private int maxListSize = 10_000;
+        private int maxStringLength = 1024 * 1024;
+
+        private Builder() {
+        }
+
+        public Builder maxBodySize(long maxBodySize) {
+            this.maxBodySize = positive(maxBodySize, "Max body size");
+            return this;
+        }
+
+        public Builder maxFields(int maxFields) {
+            this.maxFields = (int) positive(maxFields, "Max fields");
+            return this;
+        }
+
+        public Builder maxNestingDepth(int maxNestingDepth) {
+            this.maxNestingDepth = (int) positive(maxNestingDepth, "Max nesting depth");
+            return this;
+        }
+
+        public Builder maxListSize(int maxListSize) {
+            this.maxListSize = (int) positive(maxListSize, "Max list size");
+            return this;
+        }
+
+        public Builder maxStringLength(int maxStringLength) {
+            this.maxStringLength = (int) positive(maxStringLength, "Max string length");
+            return this;
+        }
+
+        public ParseLimits build() {
+            return new ParseLimits(this);
+        }
+
+        private static long positive(long value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return value;
+        }
+    }
+
+    /**
+     * @return The constraints with the nesting depth and string length of these limits, which Jackson enforces as it
+     * tokenizes
+     */
+    StreamReadConstraints apply(StreamReadConstraints constraints) {
+        return constraints.rebuild()
+                .maxNestingDepth(maxNestingDepth)
+                .maxStringLength(maxStringLength)
+                .build();
+    }
+
+    void checkBodySize(long size) {
+        if (size > maxBodySize) {
+            throw new LimitExceededException("Request body exceeds " + maxBodySize + " bytes");
+        }
+    }
+
+    void checkFields(int count) {
+        if (count > maxFields) {
+            throw new LimitExceededException("Request has more than " + maxFields + " fields");
+        }
+    }
+
+    /**
+     * Check a nesting depth counted outside Jackson, such as that of a subtree the non-blocking reader skips
+     */
+    void checkDepth(int depth) {
+        if (depth > maxNestingDepth) {
+            throw new LimitExceededException("Request nests deeper than " + maxNestingDepth + " levels");
+        }
+    }
+
+    void checkListSize(int size, String name) {
+        if (size > maxListSize) {
+            throw new LimitExceededException("Parameter " + name + " has more than " + maxListSize + " elements");
+        }
+    }
+
+    void checkStringLength(long length, String name) {
+        if (length > maxStringLength) {
+            throw new LimitExceededException("Parameter " + name + " exceeds " + maxStringLength + " characters");
+        }
+    }
+
+    /**
+     * Check the length of delimited text and its number of elements, counted by separators, before it is split
+     */
+    void checkDelimited(CharSequence text, char separator, String name) {
+        checkStringLength(text.length(), name);
+        checkListSize(count(text, separator) + 1, name);
+    }
+
+    static int count(CharSequence text, char separator) {
+        int count = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (text.charAt(i) == separator) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return Jackson's report of an exceeded nesting depth or string length, as the exception of every other limit
+     */
+    static LimitExceededException exceeded(StreamConstraintsException ex) {
+        return new LimitExceededException(ex.getOriginalMessage(), ex);
+    }
+}
@@ -0,0 +1,118 @@
+package com.openext.dev.parser;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.openext.dev.binding.ParamSource;
+import com.openext.dev.metrics.ParseEvent;
+import com.openext.dev.metrics.ParseListener;
+import com.openext.dev.validation.FieldError;
+import com.openext.dev.validation.LimitExceededException;
+import com.openext.dev.validation.MissingParameterException;
+import com.openext.dev.validation.ParseResult;
+
+import java.util.List;
+
+/**
+ * Times one instrumented parse and counts the fields it binds. Only created when a {@link ParseListener} is set, so
+ * an uninstrumented parse allocates nothing for it.
+ */
+final class ParseRecorder {
+    private final long start = System.nanoTime();
+    private long bindStart;
+    private boolean binding;
+    private int fields;
+
+    void bindStarted() {
+        bindStart = System.nanoTime();
+        binding = true;
+    }
+
+    void fieldsBound(int fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @return The source, counting the declared parameters that have a value as the binder reads them
+     */
+    ParamSource track(ParamSource source) {
+        return new ParamSource() {
+            @Override
+            public String getValue(String name) {
+                String value = source.getValue(name);
+                if (value != null && !value.isEmpty()) {
+                    fields++;
+                }
+                return value;
+            }
+
+            @Override
+            public List<String> getValues(String name) {
+                return source.getValues(name);
+            }
+
+            @Override
+            public boolean lenient() {
+                return source.lenient();
+            }
+
+            @Override
+            public Object readValue(String name, String value, Class<?> type) throws Exception {
+                return source.readValue(name, value, type);
+            }
+        };
+    }
+
+    /**
+     * Report the parse to the listener
+     * @param failure The exception the parse ended with, or null if it succeeded
+     * @param bytes The body bytes read
+     */
+    void finish(ParseListener listener, Class<?> type, Throwable failure, long bytes) {
+        finish(listener, type, outcome(failure), bytes);
+    }
+
+    /**
+     * Report a validating parse to the listener, classified by its first error
+     * @param result The result of the parse
+     * @param bytes The body bytes read
+     */
+    void finishValidated(ParseListener listener, Class<?> type, ParseResult<?> result, long bytes) {
+        finish(listener, type, result.isValid() ? ParseEvent.Outcome.SUCCESS : outcome(result.errors().get(0)), bytes);
+    }
+
+    private void finish(ParseListener listener, Class<?> type, ParseEvent.Outcome outcome, long bytes) {
+        long end = System.nanoTime();
+        long split = binding ? bindStart : end;
+        listener.onParse(new ParseEvent(type, outcome, split - start, end - split, bytes, fields));
+    }
+
+    private static ParseEvent.Outcome outcome(FieldError error) {
+        switch (error.code()) {
+            case MISSING:
+                return ParseEvent.Outcome.MISSING_PARAMETER;
+            case INVALID_VALUE:
+            case MALFORMED:
+                return ParseEvent.Outcome.INVALID_VALUE;
+            case LIMIT_EXCEEDED:
+                return ParseEvent.Outcome.LIMIT_EXCEEDED;
+            default:
+                return ParseEvent.Outcome.FAILED;
+        }
+    }
+
+    private static ParseEvent.Outcome outcome(Throwable failure) {
+        if (failure == null) {
+            return ParseEvent.Outcome.SUCCESS;
+        }
+        // RequestParser reports a missing parameter as the cause of an IllegalArgumentException
+        if (failure instanceof MissingParameterException || failure.getCause() instanceof MissingParameterException) {
+            return ParseEvent.Outcome.MISSING_PARAMETER;
+        }
+        if (failure instanceof LimitExceededException) {
+            return ParseEvent.Outcome.LIMIT_EXCEEDED;
+        }
+        if (failure instanceof IllegalArgumentException || failure instanceof JsonProcessingException) {
+            return ParseEvent.Outcome.INVALID_VALUE;
+        }
+        return ParseEvent.Outcome.FAILED;
+    }
+}
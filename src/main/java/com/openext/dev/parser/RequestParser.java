@@ -1,18 +1,40 @@
 package com.openext.dev.parser;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 import javax.servlet.http.HttpServletRequest;
 
-import com.openext.dev.annotations.RequestParam;
+import com.openext.dev.binding.Binders;
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.binding.ListTokenizer;
+import com.openext.dev.binding.ParamBinding;
+import com.openext.dev.binding.ParamSource;
+import com.openext.dev.binding.PrimitiveSequence;
+import com.openext.dev.binding.ValueConverter;
+import com.openext.dev.metrics.ParseListener;
+import com.openext.dev.metrics.ParseMetrics;
 import com.openext.dev.utils.RequestUtils;
+import com.openext.dev.validation.FieldError;
+import com.openext.dev.validation.FieldErrors;
+import com.openext.dev.validation.LimitExceededException;
+import com.openext.dev.validation.MissingParameterException;
+import com.openext.dev.validation.ParseResult;
 
 public class RequestParser {
+    private static volatile ParseListener listener;
+
+    /**
+     * Report every {@link #parseRequest} to a listener, such as a {@link ParseMetrics}. Without one, parsing is not
+     * timed at all.
+     * @param listener The listener, or null to disable instrumentation, the default
+     */
+    public static void setParseListener(ParseListener listener) {
+        RequestParser.listener = listener;
+    }
 
     /**
      * Parse request parameters to an object
@@ -23,69 +45,182 @@ public class RequestParser {
      * @throws IllegalArgumentException If there is an error parsing the request parameters
      */
     public static <T> T parseRequest(HttpServletRequest req, Class<T> clazz) throws IllegalArgumentException {
-        T instance = null;
+        return parseRequest(req, clazz, ParseLimits.DEFAULT);
+    }
+
+    /**
+     * Parse request parameters to an object, rejecting values longer than the string limit and list values with more
+     * elements than the list limit before they are split
+     * @param req The HttpServletRequest object
+     * @param clazz The class of the object to parse the request parameters to
+     * @param limits The limits on values and lists
+     * @return The object with the request parameters set
+     * @param <T> The type of the object
+     * @throws LimitExceededException If a parameter exceeds the limits
+     * @throws IllegalArgumentException If there is an error parsing the request parameters
+     */
+    public static <T> T parseRequest(HttpServletRequest req, Class<T> clazz, ParseLimits limits)
+            throws IllegalArgumentException {
+        return parse(req, clazz, limits, false, null);
+    }
+
+    /**
+     * Parse the query string to an object without building the container's parameter map. The query string is
+     * scanned once and only the values of declared parameters are percent-decoded, as UTF-8; a repeated parameter
+     * keeps its first value, or adds to a list. Parameters of a form body are not read, so use this for GET
+     * requests, such as search endpoints with many parameters.
+     * @param req The HttpServletRequest object
+     * @param clazz The class of the object to parse the query string to
+     * @return The object with the query parameters set
+     * @param <T> The type of the object
+     * @throws IllegalArgumentException If there is an error parsing the query string
+     */
+    public static <T> T parseQueryString(HttpServletRequest req, Class<T> clazz) throws IllegalArgumentException {
+        return parseQueryString(req, clazz, ParseLimits.DEFAULT);
+    }
+
+    /**
+     * Parse the query string to an object with the given limits
+     * @see #parseQueryString(HttpServletRequest, Class)
+     * @throws LimitExceededException If the query string exceeds the limits
+     */
+    public static <T> T parseQueryString(HttpServletRequest req, Class<T> clazz, ParseLimits limits)
+            throws IllegalArgumentException {
+        return parse(req, clazz, limits, true, null);
+    }
+
+    /**
+     * Parse request parameters into an existing instance, such as one taken from an
+     * {@link com.openext.dev.binding.InstancePool}. A field without a parameter is reset to its default value, or to
+     * zero or null, and a list field is emptied and refilled in place when it holds an ArrayList or a primitive list.
+     * @param req The HttpServletRequest object
+     * @param instance The object to bind the request parameters into
+     * @return The instance
+     * @param <T> The type of the object
+     * @throws IllegalArgumentException If there is an error parsing the request parameters
+     */
+    public static <T> T parseInto(HttpServletRequest req, T instance) throws IllegalArgumentException {
+        return parseInto(req, instance, ParseLimits.DEFAULT);
+    }
+
+    /**
+     * Parse request parameters into an existing instance with the given limits
+     * @see #parseInto(HttpServletRequest, Object)
+     * @throws LimitExceededException If a parameter exceeds the limits
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T parseInto(HttpServletRequest req, T instance, ParseLimits limits)
+            throws IllegalArgumentException {
+        Class<T> clazz = (Class<T>) Objects.requireNonNull(instance, "instance").getClass();
+        return parse(req, clazz, limits, false, instance);
+    }
+
+    /**
+     * Parse request parameters to an object and validate them in one pass. Every missing or invalid parameter is
+     * collected into the result instead of failing on the first; malformed numbers and unknown enum constants are
+     * rejected without creating an exception.
+     * @param req The HttpServletRequest object
+     * @param clazz The class of the object to parse the request parameters to
+     * @return The bound object, or the errors of the request
+     * @param <T> The type of the object
+     */
+    public static <T> ParseResult<T> parseValidated(HttpServletRequest req, Class<T> clazz) {
+        return parseValidated(req, clazz, ParseLimits.DEFAULT);
+    }
+
+    /**
+     * Parse request parameters to an object and validate them with the given limits. A parameter over the limits
+     * ends the parse with a single {@link FieldError.Code#LIMIT_EXCEEDED} error.
+     * @see #parseValidated(HttpServletRequest, Class)
+     */
+    public static <T> ParseResult<T> parseValidated(HttpServletRequest req, Class<T> clazz, ParseLimits limits) {
+        ParseListener listener = RequestParser.listener;
+        ParseRecorder recorder = listener == null ? null : new ParseRecorder();
+        FieldErrors errors = new FieldErrors();
+        ParseResult<T> result;
         try {
-            instance = clazz.getDeclaredConstructor().newInstance();
-            Field[] fields = clazz.getDeclaredFields();
-
-            for (Field field : fields) {
-                if (field.isAnnotationPresent(RequestParam.class)) {
-                    RequestParam requestParam = field.getAnnotation(RequestParam.class);
-                    String paramName = requestParam.name();
-                    boolean isRequired = requestParam.required();
-                    String defaultValue = requestParam.defaultValue();
-                    String customMessage = requestParam.message();
-
-                    field.setAccessible(true);
-
-                    Object value = null;
-                    try {
-                        if (List.class.isAssignableFrom(field.getType())) {
-                            Type genericType = field.getGenericType();
-                            if (genericType instanceof ParameterizedType) {
-                                ParameterizedType pt = (ParameterizedType) genericType;
-                                Class<?> listType = (Class<?>) pt.getActualTypeArguments()[0];
-                                value = parseParamToList(req, paramName, defaultValue, isRequired, listType);
-                            }
-                        } else if (field.getType() == String.class) {
-                            value = RequestUtils.getString(req, paramName, defaultValue, isRequired);
-                        } else if (field.getType() == Integer.class) {
-                            value = RequestUtils.getInt(req, paramName,
-                                    defaultValue.isEmpty() ? null : Integer.parseInt(defaultValue), isRequired);
-                        } else if (field.getType() == int.class) {
-                            value = RequestUtils.getInt(req, paramName,
-                                    defaultValue.isEmpty() ? 0 : Integer.parseInt(defaultValue), isRequired);
-                        } else if (field.getType() == Long.class) {
-                            value = RequestUtils.getLong(req, paramName,
-                                    defaultValue.isEmpty() ? null : Long.parseLong(defaultValue), isRequired);
-                        } else if (field.getType().isEnum()) {
-                            value = RequestUtils.getEnum(req, paramName, (Class<? extends Enum>) field.getType(),
-                                    defaultValue, isRequired);
-                        } else if (field.getType() == Boolean.class) {
-                            value = RequestUtils.getBoolean(req, paramName,
-                                    defaultValue.isEmpty() ? null : Boolean.parseBoolean(defaultValue), isRequired);
-                        } else if (field.getType() == Double.class) {
-                            value = RequestUtils.getDouble(req, paramName,
-                                    defaultValue.isEmpty() ? null : Double.parseDouble(defaultValue), isRequired);
-                        } else if (field.getType() == Float.class) {
-                            value = RequestUtils.getFloat(req, paramName,
-                                    defaultValue.isEmpty() ? null : Float.parseFloat(defaultValue), isRequired);
-                        } else {
-                            throw new IllegalArgumentException("Unsupported field type: " + field.getType().getName());
-                        }
-                    } catch (IllegalArgumentException ex) {
-                        String errorMessage = !customMessage.isEmpty() ? customMessage
-                                : "Invalid value for parameter: " + paramName;
-                        throw new IllegalArgumentException(errorMessage, ex);
-                    }
-
-                    field.set(instance, value);
-                }
+            ParamSource source = track(source(req, BindingPlan.of(clazz), limits, false), recorder);
+            result = ParseResult.of(Binders.of(clazz).bind(source, errors), errors);
+        } catch (LimitExceededException ex) {
+            result = ParseResult.invalid(new FieldError(null, FieldError.Code.LIMIT_EXCEEDED, ex.getMessage()));
+        }
+        if (recorder != null) {
+            recorder.finishValidated(listener, clazz, result, 0);
+        }
+        return result;
+    }
+
+    private static <T> T parse(HttpServletRequest req, Class<T> clazz, ParseLimits limits, boolean queryString,
+            T target) {
+        ParseListener listener = RequestParser.listener;
+        if (listener == null) {
+            return bind(req, clazz, limits, queryString, target, null);
+        }
+        ParseRecorder recorder = new ParseRecorder();
+        try {
+            T result = bind(req, clazz, limits, queryString, target, recorder);
+            recorder.finish(listener, clazz, null, 0);
+            return result;
+        } catch (RuntimeException ex) {
+            recorder.finish(listener, clazz, ex, 0);
+            throw ex;
+        }
+    }
+
+    private static <T> T bind(HttpServletRequest req, Class<T> clazz, ParseLimits limits, boolean queryString,
+            T target, ParseRecorder recorder) {
+        ParamSource source = null;
+        try {
+            BindingPlan<T> plan = BindingPlan.of(clazz);
+            source = source(req, plan, limits, queryString);
+            if (target == null) {
+                return Binders.of(clazz).bind(track(source, recorder));
             }
+            Binders.of(clazz).bindInto(track(source, recorder), target);
+            return target;
+        } catch (LimitExceededException ex) {
+            throw ex;
+        } catch (MissingParameterException ex) {
+            throw missing(BindingPlan.of(clazz), source, ex);
         } catch (Exception ex) {
             throw new IllegalArgumentException("Error parsing request parameters: " + ex.getMessage(), ex);
         }
-        return instance;
+    }
+
+    /**
+     * @return The failure for the first missing required parameter, reported as it always has been by this parser:
+     * with the message of its annotation, or as an invalid value, caused by the parameter being required
+     */
+    private static IllegalArgumentException missing(BindingPlan<?> plan, ParamSource source,
+            MissingParameterException collected) {
+        for (int i = 0; i < plan.size(); i++) {
+            ParamBinding binding = plan.get(i);
+            if (!binding.isRequired()) {
+                continue;
+            }
+            String value = source.getValue(binding.name());
+            if (value == null || value.isEmpty()) {
+                return new IllegalArgumentException("Error parsing request parameters: " + binding.invalidMessage(),
+                        new MissingParameterException(binding.name() + " is required"));
+            }
+        }
+        return new IllegalArgumentException("Error parsing request parameters: " + collected.getMessage(), collected);
+    }
+
+    private static ParamSource source(HttpServletRequest req, BindingPlan<?> plan, ParseLimits limits,
+            boolean queryString) {
+        return queryString
+                ? FormParamSource.readQueryString(req.getQueryString(), StandardCharsets.UTF_8, plan, limits)
+                : new RequestParamSource(req, plan, limits);
+    }
+
+    private static ParamSource track(ParamSource source, ParseRecorder recorder) {
+        if (recorder == null) {
+            return source;
+        }
+        // Request parameters are decoded by the container, so for them the whole parse is binding
+        recorder.bindStarted();
+        return recorder.track(source);
     }
 
     /***
@@ -100,38 +235,166 @@ public class RequestParser {
      */
     public static <T> List<T> parseParamToList(HttpServletRequest req, String paramName, String defaultValue,
             boolean isRequired, Class<T> listType) {
+        return parseParamToList(req, paramName, defaultValue, isRequired, listType, ListTokenizer.DEFAULT);
+    }
+
+    /***
+     * Parse a delimited request parameter to a list of a specific type
+     * @param req The HttpServletRequest object
+     * @param paramName The name of the request parameter
+     * @param defaultValue The default value for the parameter
+     * @param isRequired Whether the parameter is required
+     * @param listType The type of the list
+     * @param tokenizer The separator and quoting of the elements
+     * @param <T> The type of the list
+     * @return The list of values for the parameter
+     */
+    public static <T> List<T> parseParamToList(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired, Class<T> listType, ListTokenizer tokenizer) {
+        return parseParamToList(req, paramName, defaultValue, isRequired, listType, tokenizer, ParseLimits.DEFAULT);
+    }
+
+    /***
+     * Parse a delimited request parameter to a list of a specific type, within the given limits
+     * @param req The HttpServletRequest object
+     * @param paramName The name of the request parameter
+     * @param defaultValue The default value for the parameter
+     * @param isRequired Whether the parameter is required
+     * @param listType The type of the list
+     * @param tokenizer The separator and quoting of the elements
+     * @param limits The limits on the length of the value and the number of elements
+     * @param <T> The type of the list
+     * @return The list of values for the parameter
+     * @throws LimitExceededException If the value exceeds the limits; it is checked before being split
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> parseParamToList(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired, Class<T> listType, ListTokenizer tokenizer, ParseLimits limits) {
+        ListTokenizer.TokenParser<?> parser = ValueConverter.tokenParser(listType);
+        if (parser == null) {
+            throw new IllegalArgumentException("Unsupported type: " + listType.getName());
+        }
         String paramValue = RequestUtils.getString(req, paramName, defaultValue, isRequired);
         if (paramValue == null || paramValue.isEmpty()) {
             return Collections.emptyList();
         }
+        limits.checkDelimited(paramValue, tokenizer.separator(), paramName);
+        return tokenizer.toList(paramValue, (ListTokenizer.TokenParser<T>) parser);
+    }
 
-        String[] values = paramValue.split(",");
+    /***
+     * Parse a comma-separated request parameter to an int array without boxing its elements
+     * @param req The HttpServletRequest object
+     * @param paramName The name of the request parameter
+     * @param defaultValue The default value for the parameter
+     * @param isRequired Whether the parameter is required
+     * @return The values of the parameter, or an empty array if it is absent
+     */
+    public static int[] parseParamToIntArray(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired) {
+        return parseParamToIntArray(req, paramName, defaultValue, isRequired, ParseLimits.DEFAULT);
+    }
 
-        List<T> result = new ArrayList<>();
-        for (String value : values) {
-            result.add(convertToType(value.trim(), listType));
+    /***
+     * Parse a comma-separated request parameter to an int array without boxing its elements, within the given limits
+     * @param req The HttpServletRequest object
+     * @param paramName The name of the request parameter
+     * @param defaultValue The default value for the parameter
+     * @param isRequired Whether the parameter is required
+     * @param limits The limits on the length of the value and the number of elements
+     * @return The values of the parameter, or an empty array if it is absent
+     * @throws LimitExceededException If the value exceeds the limits; it is checked before being split
+     */
+    public static int[] parseParamToIntArray(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired, ParseLimits limits) {
+        return (int[]) parseParamToSequence(req, paramName, defaultValue, isRequired, int[].class, limits);
+    }
+
+    /***
+     * Parse a comma-separated request parameter to a long array without boxing its elements
+     * @see #parseParamToIntArray(HttpServletRequest, String, String, boolean)
+     */
+    public static long[] parseParamToLongArray(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired) {
+        return parseParamToLongArray(req, paramName, defaultValue, isRequired, ParseLimits.DEFAULT);
+    }
+
+    /***
+     * Parse a comma-separated request parameter to a long array without boxing its elements, within the given limits
+     * @see #parseParamToIntArray(HttpServletRequest, String, String, boolean, ParseLimits)
+     */
+    public static long[] parseParamToLongArray(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired, ParseLimits limits) {
+        return (long[]) parseParamToSequence(req, paramName, defaultValue, isRequired, long[].class, limits);
+    }
+
+    /***
+     * Parse a comma-separated request parameter to a double array without boxing its elements
+     * @see #parseParamToIntArray(HttpServletRequest, String, String, boolean)
+     */
+    public static double[] parseParamToDoubleArray(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired) {
+        return parseParamToDoubleArray(req, paramName, defaultValue, isRequired, ParseLimits.DEFAULT);
+    }
+
+    /***
+     * Parse a comma-separated request parameter to a double array without boxing its elements, within the given
+     * limits
+     * @see #parseParamToIntArray(HttpServletRequest, String, String, boolean, ParseLimits)
+     */
+    public static double[] parseParamToDoubleArray(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired, ParseLimits limits) {
+        return (double[]) parseParamToSequence(req, paramName, defaultValue, isRequired, double[].class, limits);
+    }
+
+    private static Object parseParamToSequence(HttpServletRequest req, String paramName, String defaultValue,
+            boolean isRequired, Class<?> arrayType, ParseLimits limits) {
+        String paramValue = RequestUtils.getString(req, paramName, defaultValue, isRequired);
+        if (paramValue == null || paramValue.isEmpty()) {
+            return Array.newInstance(arrayType.getComponentType(), 0);
+        }
+        limits.checkDelimited(paramValue, ListTokenizer.DEFAULT.separator(), paramName);
+        try {
+            return PrimitiveSequence.of(arrayType).parse(paramValue, arrayType, ListTokenizer.DEFAULT);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value for parameter: " + paramName, ex);
         }
-        return result;
     }
 
-    @SuppressWarnings("unchecked")
-    private static <T> T convertToType(String value, Class<T> type) {
-        if (type == String.class) {
-            return (T) value;
-        } else if (type == Integer.class) {
-            return (T) Integer.valueOf(value);
-        } else if (type == Long.class) {
-            return (T) Long.valueOf(value);
-        } else if (type == Boolean.class) {
-            return (T) Boolean.valueOf(value);
-        } else if (type == Double.class) {
-            return (T) Double.valueOf(value);
-        } else if (type == Float.class) {
-            return (T) Float.valueOf(value);
-        } else if (type.isEnum()) {
-            return (T) Enum.valueOf((Class<Enum>) type, value.toUpperCase());
-        } else {
-            throw new IllegalArgumentException("Unsupported type: " + type.getName());
+    private static class RequestParamSource implements ParamSource {
+        private final HttpServletRequest req;
+        private final BindingPlan<?> plan;
+        private final ParseLimits limits;
+
+        RequestParamSource(HttpServletRequest req, BindingPlan<?> plan, ParseLimits limits) {
+            this.req = req;
+            this.plan = plan;
+            this.limits = limits;
+        }
+
+        @Override
+        public String getValue(String name) {
+            String value = req.getParameter(name);
+            if (value == null) {
+                return null;
+            }
+            ParamBinding binding = plan.find(name);
+            if (binding != null && (binding.isList() || binding.sequence() != null)) {
+                limits.checkDelimited(value, binding.tokenizer().separator(), name);
+            } else {
+                limits.checkStringLength(value.length(), name);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean lenient() {
+            return true;
+        }
+
+        @Override
+        public Object readValue(String name, String value, Class<?> type) {
+            throw new IllegalArgumentException("Unsupported field type: " + type.getName());
         }
     }
 }
@@ -0,0 +1,1140 @@
+package com.openext.dev.processor;
+
+import com.openext.dev.annotations.EnumAlias;
+import com.openext.dev.annotations.EnumOrdinals;
+import com.openext.dev.annotations.RequestParam;
+import com.openext.dev.binding.Binders;
+import com.openext.dev.binding.ListTokenizer;
+import com.openext.dev.binding.PrimitiveSequence;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Generates a {@code <Type>_Binder} for every class with {@link RequestParam} fields. The generated binder does
+ * the same conversion, required checks and defaults as the reflective one, without reflection. A record with
+ * {@link RequestParam} components, or a class with a {@link RequestParam} constructor, is bound into local variables
+ * and created with a single constructor call. Unsupported field types and invalid default values are reported as
+ * compile errors; classes the generated code cannot access are reported as warnings and keep using reflection.
+ */
+public class BinderProcessor extends AbstractProcessor {
+    private static final String REQUEST_PARAM = RequestParam.class.getCanonicalName();
+
+    private final Set<String> generated = new LinkedHashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(REQUEST_PARAM);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<VariableElement>> fieldsByType = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(RequestParam.class)) {
+            if (element.getKind() == ElementKind.FIELD) {
+                TypeElement owner = (TypeElement) element.getEnclosingElement();
+                fieldsByType.computeIfAbsent(owner, k -> new ArrayList<>()).add((VariableElement) element);
+            } else if (element.getKind() == ElementKind.RECORD_COMPONENT
+                    || element.getKind() == ElementKind.PARAMETER
+                    && element.getEnclosingElement().getKind() == ElementKind.CONSTRUCTOR) {
+                // Bound through the constructor, whose parameters the writer resolves
+                Element owner = element.getEnclosingElement();
+                fieldsByType.computeIfAbsent((TypeElement) (owner instanceof TypeElement
+                        ? owner : owner.getEnclosingElement()), k -> new ArrayList<>());
+            }
+        }
+
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : fieldsByType.entrySet()) {
+            TypeElement type = entry.getKey();
+            String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+            if (generated.add(binaryName)) {
+                new BinderWriter(type, binaryName, entry.getValue()).write();
+            }
+        }
+        return false;
+    }
+
+    private class BinderWriter {
+        private final TypeElement type;
+        private final String binaryName;
+        // The annotated fields, or the parameters of the constructor a constructor-bound class is created with
+        private List<VariableElement> fields;
+        private ExecutableElement constructor;
+        private boolean constructorBound;
+        private final Messager messager = processingEnv.getMessager();
+        private final Elements elements = processingEnv.getElementUtils();
+        private final Types types = processingEnv.getTypeUtils();
+        private final StringBuilder constants = new StringBuilder();
+        // Tokenizer constants by separator and quote, so fields that split alike share one
+        private final Map<String, String> tokenizers = new LinkedHashMap<>();
+        private final StringBuilder body = new StringBuilder();
+        // The statements of each FieldSetters method, by binding index
+        private final Map<String, Map<Integer, String>> setters = new LinkedHashMap<>();
+        private boolean failed;
+
+        BinderWriter(TypeElement type, String binaryName, List<VariableElement> fields) {
+            this.type = type;
+            this.binaryName = binaryName;
+            this.fields = fields;
+        }
+
+        void write() {
+            List<VariableElement> parameters = boundParameters();
+            if (failed) {
+                return;
+            }
+            if (parameters != null) {
+                fields = parameters;
+                constructorBound = true;
+            } else {
+                // Numbered in declaration order, as BindingPlan numbers the fields getDeclaredFields returns
+                List<? extends Element> declared = type.getEnclosedElements();
+                fields.sort(Comparator.comparingInt(declared::indexOf));
+            }
+            if (!isAccessible()) {
+                return;
+            }
+            Map<String, VariableElement> names = new HashMap<>();
+            for (VariableElement field : fields) {
+                String name = field.getAnnotation(RequestParam.class).name();
+                VariableElement previous = names.putIfAbsent(name, field);
+                if (previous != null) {
+                    error(field, "Duplicate parameter name " + name + ", already used by "
+                            + previous.getSimpleName() + " in " + type.getQualifiedName());
+                }
+            }
+            if (failed) {
+                return;
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                writeField(fields.get(i), i);
+            }
+            if (failed) {
+                return;
+            }
+
+            String binderName = Binders.generatedName(binaryName);
+            int packageEnd = binderName.lastIndexOf('.');
+            String packageName = packageEnd < 0 ? "" : binderName.substring(0, packageEnd);
+            String simpleName = binderName.substring(packageEnd + 1);
+            String typeName = type.getQualifiedName().toString();
+
+            StringBuilder source = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                source.append("package ").append(packageName).append(";\n\n");
+            }
+            source.append("public final class ").append(simpleName)
+                    .append(" implements com.openext.dev.binding.Binder<").append(typeName).append(">");
+            if (!constructorBound) {
+                source.append(", com.openext.dev.binding.FieldSetters<").append(typeName).append(">");
+            }
+            source.append(" {\n").append(constants);
+            if (constructorBound) {
+                writeConstructorBinder(source, typeName);
+            } else {
+                writeFieldBinder(source, typeName);
+            }
+            source.append("}\n");
+
+            try {
+                JavaFileObject file = processingEnv.getFiler().createSourceFile(binderName, type);
+                try (Writer writer = file.openWriter()) {
+                    writer.write(source.toString());
+                }
+            } catch (IOException ex) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Cannot write " + binderName + ": " + ex.getMessage(),
+                        type);
+            }
+        }
+
+        private void writeFieldBinder(StringBuilder source, String typeName) {
+            source.append("\n    @Override\n")
+                    .append("    public ").append(typeName)
+                    .append(" bind(com.openext.dev.binding.ParamSource source)")
+                    .append(" throws com.openext.dev.validation.MissingParameterException {\n")
+                    .append("        ").append(typeName).append(" instance = new ").append(typeName).append("();\n")
+                    .append("        bindChecked(source, instance, false);\n")
+                    .append("        return instance;\n")
+                    .append("    }\n")
+                    .append("\n    @Override\n")
+                    .append("    public void bindInto(com.openext.dev.binding.ParamSource source, ").append(typeName)
+                    .append(" instance) throws com.openext.dev.validation.MissingParameterException {\n")
+                    .append("        bindChecked(source, instance, true);\n")
+                    .append("    }\n")
+                    .append("\n    @Override\n")
+                    .append("    public ").append(typeName).append(" bind(com.openext.dev.binding.ParamSource source, ")
+                    .append("com.openext.dev.validation.FieldErrors errors) {\n")
+                    .append("        ").append(typeName).append(" instance = new ").append(typeName).append("();\n")
+                    .append("        bind(source, instance, false, errors, null);\n")
+                    .append("        return instance;\n")
+                    .append("    }\n")
+                    .append("\n    private void bindChecked(com.openext.dev.binding.ParamSource source, ")
+                    .append(typeName).append(" instance, boolean reset)")
+                    .append(" throws com.openext.dev.validation.MissingParameterException {\n")
+                    .append("        java.util.List<String> missingParams = new java.util.ArrayList<>();\n")
+                    .append("        bind(source, instance, reset, null, missingParams);\n")
+                    .append("        if (!missingParams.isEmpty()) {\n")
+                    .append("            throw new com.openext.dev.validation.MissingParameterException(")
+                    .append("\"Missing required parameters: \" + String.join(\", \", missingParams));\n")
+                    .append("        }\n")
+                    .append("    }\n")
+                    .append("\n    @SuppressWarnings(\"unchecked\")\n")
+                    .append("    private void bind(com.openext.dev.binding.ParamSource source, ").append(typeName)
+                    .append(" instance, boolean reset, com.openext.dev.validation.FieldErrors errors,")
+                    .append(" java.util.List<String> missingParams) {\n")
+                    .append("        String value;\n")
+                    .append(body)
+                    .append("    }\n");
+            writeSetter(source, typeName, "set", "Object", true);
+            writeSetter(source, typeName, "setInt", "int", false);
+            writeSetter(source, typeName, "setLong", "long", false);
+            writeSetter(source, typeName, "setDouble", "double", false);
+            writeSetter(source, typeName, "setFloat", "float", false);
+            writeSetter(source, typeName, "setBoolean", "boolean", false);
+            writeParameterNames(source);
+        }
+
+        /**
+         * Write {@code FieldSetters.parameterNames}, which lets {@code Binders} check that the binding indexes the
+         * setters switch on are those of the binding plan
+         */
+        private void writeParameterNames(StringBuilder source) {
+            source.append("\n    @Override\n")
+                    .append("    public java.util.List<String> parameterNames() {\n")
+                    .append("        return java.util.Arrays.asList(");
+            for (int i = 0; i < fields.size(); i++) {
+                source.append(i == 0 ? "" : ", ")
+                        .append(literal(fields.get(i).getAnnotation(RequestParam.class).name()));
+            }
+            source.append(");\n")
+                    .append("    }\n");
+        }
+
+        /**
+         * Write a method of {@code FieldSetters}: a switch on the binding index that writes the field directly, with
+         * the accessor of the binding for any other field
+         */
+        private void writeSetter(StringBuilder source, String typeName, String method, String valueType,
+                boolean unchecked) {
+            Map<Integer, String> statements = setters.getOrDefault(method, Collections.emptyMap());
+            source.append("\n    @Override\n");
+            if (unchecked && !statements.isEmpty()) {
+                source.append("    @SuppressWarnings(\"unchecked\")\n");
+            }
+            source.append("    public void ").append(method).append("(").append(typeName).append(" instance, ")
+                    .append("com.openext.dev.binding.ParamBinding binding, ").append(valueType).append(" value) {\n");
+            String fallback = "binding.accessor()." + method + "(instance, value);\n";
+            if (statements.isEmpty()) {
+                source.append("        ").append(fallback).append("    }\n");
+                return;
+            }
+            source.append("        switch (binding.index()) {\n");
+            for (Map.Entry<Integer, String> statement : statements.entrySet()) {
+                source.append("            case ").append(statement.getKey()).append(":\n")
+                        .append("                ").append(statement.getValue()).append(";\n")
+                        .append("                return;\n");
+            }
+            source.append("            default:\n")
+                    .append("                ").append(fallback)
+                    .append("        }\n")
+                    .append("    }\n");
+        }
+
+        /**
+         * Record the statements writing the field at {@code index} from {@code FieldSetters}
+         */
+        private void addSetter(int index, TypeMirror fieldType, String target) {
+            String cast;
+            if (fieldType.getKind().isPrimitive()) {
+                cast = types.boxedClass((PrimitiveType) fieldType).getQualifiedName().toString();
+                String kind = fieldType.getKind().name();
+                String method = "set" + kind.charAt(0) + kind.substring(1).toLowerCase(Locale.ROOT);
+                switch (fieldType.getKind()) {
+                    case INT:
+                    case LONG:
+                    case DOUBLE:
+                    case FLOAT:
+                    case BOOLEAN:
+                        setters.computeIfAbsent(method, key -> new LinkedHashMap<>())
+                                .put(index, assign(target, "value"));
+                        break;
+                    default:
+                        break;
+                }
+            } else {
+                cast = fieldType.toString();
+            }
+            setters.computeIfAbsent("set", key -> new LinkedHashMap<>())
+                    .put(index, assign(target, "(" + cast + ") value"));
+        }
+
+        /**
+         * Binder of a constructor-bound class: every parameter is bound into a local variable, and once none is
+         * missing or invalid the object is created with a single constructor call. {@code bindInto} is left to the
+         * default, which rejects such classes.
+         */
+        private void writeConstructorBinder(StringBuilder source, String typeName) {
+            StringBuilder arguments = new StringBuilder();
+            StringBuilder locals = new StringBuilder();
+            for (int i = 0; i < fields.size(); i++) {
+                TypeMirror parameterType = fields.get(i).asType();
+                arguments.append(i == 0 ? "" : ", ").append("arg").append(i);
+                locals.append("        ").append(parameterType).append(" arg").append(i).append(" = ")
+                        .append(zero(parameterType)).append(";\n");
+            }
+            String failure = literal("Cannot create " + binaryName + ": ");
+            source.append("\n    @Override\n")
+                    .append("    public ").append(typeName)
+                    .append(" bind(com.openext.dev.binding.ParamSource source)")
+                    .append(" throws com.openext.dev.validation.MissingParameterException {\n")
+                    .append("        java.util.List<String> missingParams = new java.util.ArrayList<>();\n")
+                    .append("        ").append(typeName).append(" instance = bind(source, null, missingParams);\n")
+                    .append("        if (!missingParams.isEmpty()) {\n")
+                    .append("            throw new com.openext.dev.validation.MissingParameterException(")
+                    .append("\"Missing required parameters: \" + String.join(\", \", missingParams));\n")
+                    .append("        }\n")
+                    .append("        return instance;\n")
+                    .append("    }\n")
+                    .append("\n    @Override\n")
+                    .append("    public ").append(typeName).append(" bind(com.openext.dev.binding.ParamSource source, ")
+                    .append("com.openext.dev.validation.FieldErrors errors) {\n")
+                    .append("        return bind(source, errors, null);\n")
+                    .append("    }\n")
+                    .append("\n    @SuppressWarnings(\"unchecked\")\n")
+                    .append("    private ").append(typeName).append(" bind(com.openext.dev.binding.ParamSource source,")
+                    .append(" com.openext.dev.validation.FieldErrors errors, java.util.List<String> missingParams)")
+                    .append(" {\n")
+                    .append("        String value;\n")
+                    .append(locals)
+                    .append(body)
+                    .append("        if (errors == null ? !missingParams.isEmpty() : !errors.isEmpty()) {\n")
+                    .append("            return null;\n")
+                    .append("        }\n")
+                    .append("        try {\n")
+                    .append("            return new ").append(typeName).append("(").append(arguments).append(");\n")
+                    .append("        } catch (Exception ex) {\n")
+                    .append("            if (errors == null) {\n")
+                    .append("                throw new IllegalArgumentException(").append(failure)
+                    .append(" + ex.getMessage(), ex);\n")
+                    .append("            }\n")
+                    .append("            errors.invalid(null, ").append(failure).append(" + ex.getMessage(), ex);\n")
+                    .append("            return null;\n")
+                    .append("        }\n")
+                    .append("    }\n");
+        }
+
+        /**
+         * @return The fields of the components of a record with {@link RequestParam} components, or the parameters of
+         * a constructor with {@link RequestParam} parameters, or null if the class is bound through its fields
+         */
+        private List<VariableElement> boundParameters() {
+            if (type.getKind() == ElementKind.RECORD) {
+                List<VariableElement> components = new ArrayList<>();
+                int annotated = 0;
+                for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                    if (!field.getModifiers().contains(Modifier.STATIC)) {
+                        components.add(field);
+                        annotated += field.getAnnotation(RequestParam.class) != null ? 1 : 0;
+                    }
+                }
+                if (annotated == 0) {
+                    return null;
+                }
+                if (annotated < components.size()) {
+                    error(type, "Every component of record " + type.getQualifiedName() + " must have @RequestParam");
+                }
+                return components;
+            }
+
+            List<VariableElement> found = null;
+            for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+                int annotated = 0;
+                for (VariableElement parameter : candidate.getParameters()) {
+                    annotated += parameter.getAnnotation(RequestParam.class) != null ? 1 : 0;
+                }
+                if (annotated == 0) {
+                    continue;
+                }
+                if (annotated < candidate.getParameters().size()) {
+                    error(candidate, "Every parameter of a @RequestParam constructor must have @RequestParam");
+                } else if (found != null) {
+                    error(candidate, type.getQualifiedName() + " has more than one @RequestParam constructor");
+                }
+                found = new ArrayList<>(candidate.getParameters());
+                constructor = candidate;
+            }
+            return found;
+        }
+
+        private boolean isAccessible() {
+            for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+                if (!(e instanceof TypeElement) || ((TypeElement) e).getNestingKind() == NestingKind.LOCAL
+                        || ((TypeElement) e).getNestingKind() == NestingKind.ANONYMOUS) {
+                    return skip("is a local class");
+                }
+                TypeElement t = (TypeElement) e;
+                if (t.getModifiers().contains(Modifier.PRIVATE)
+                        || (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)
+                        && t.getKind() == ElementKind.CLASS)) {
+                    return skip("is private or an inner class");
+                }
+            }
+            if (type.getKind() != ElementKind.CLASS && !(constructorBound && type.getKind() == ElementKind.RECORD)
+                    || type.getModifiers().contains(Modifier.ABSTRACT)) {
+                return skip("is not a concrete class");
+            }
+            if (!type.getTypeParameters().isEmpty()) {
+                return skip("is generic");
+            }
+            if (constructorBound) {
+                // The canonical constructor of a record is at least as accessible as the record
+                return constructor == null || !constructor.getModifiers().contains(Modifier.PRIVATE)
+                        || skip("has a private @RequestParam constructor");
+            }
+            for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+                if (constructor.getParameters().isEmpty()) {
+                    return !constructor.getModifiers().contains(Modifier.PRIVATE)
+                            || skip("has a private no-arg constructor");
+                }
+            }
+            return skip("has no no-arg constructor");
+        }
+
+        private boolean skip(String reason) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "No binder generated: " + type.getQualifiedName() + " "
+                    + reason + ", it will be bound through reflection", type);
+            failed = true;
+            return false;
+        }
+
+        /**
+         * Write the binding of a field, or of the parameter at {@code index} of a constructor-bound class
+         */
+        private void writeField(VariableElement field, int index) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (!constructorBound && (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL))) {
+                skip("has a static or final @RequestParam field " + field.getSimpleName());
+                return;
+            }
+            String target = constructorBound ? "arg" + index + " = " : writeTarget(field);
+            if (target == null) {
+                skip("has no accessible setter for " + field.getSimpleName());
+                return;
+            }
+
+            RequestParam requestParam = field.getAnnotation(RequestParam.class);
+            String name = requestParam.name();
+            if (requestParam.separator() == requestParam.quote()) {
+                error(field, "List separator and quote of parameter " + name + " must differ");
+                return;
+            }
+            if (!constructorBound) {
+                addSetter(index, field.asType(), target);
+            }
+            String missing = requestParam.message().isEmpty() ? name : requestParam.message();
+            String invalid = requestParam.message().isEmpty()
+                    ? "Invalid value for parameter: " + name : requestParam.message();
+            String defaultText = requestParam.defaultValue();
+            TypeMirror fieldType = field.asType();
+            // Named by index, as upper-cased field names can collide, e.g. for an inherited field of the same name
+            String constant = "DEFAULT_" + index;
+            // A list of a reused instance is emptied and refilled in place when the field can be read; an object
+            // created by its constructor is never reused
+            String read = isList(fieldType) && !constructorBound ? readTarget(field) : null;
+            String reused = read == null ? null : sequence(fieldType) != null
+                    ? "(" + types.erasure(fieldType) + ") com.openext.dev.binding.Binders.reuse(" + read + ")"
+                    : "com.openext.dev.binding.Binders.reuse(" + read + ")";
+            String reset = constructorBound ? null
+                    : isList(fieldType) ? (reused == null ? "null" : reused) : zero(fieldType);
+
+            String defaultExpression = null;
+            // Assigns the default, or zero or null, when an invalid value is bound from a lenient source
+            String fallback = null;
+            TypeMirror element = elementType(fieldType);
+            if (element != null) {
+                if (!holdsArrayList(field, fieldType)) {
+                    return;
+                }
+                String elementName = types.erasure(element).toString();
+                String tokenizer = tokenizer(field);
+                if (!defaultText.isEmpty()) {
+                    StringBuilder items = new StringBuilder();
+                    for (String item : defaultItems(field, defaultText)) {
+                        items.append(items.length() == 0 ? "" : ", ")
+                                .append(conversion(field, element, literal(item), item));
+                    }
+                    constants.append("    private static final java.util.List<").append(elementName).append("> ")
+                            .append(constant).append(" = java.util.Collections.unmodifiableList(")
+                            .append("java.util.Arrays.asList(").append(items).append("));\n");
+                    // Converted once, and copied for each instance so that it can modify its own list
+                    defaultExpression = "new java.util.ArrayList<>(" + constant + ")";
+                }
+                body.append("        value = source.getValue(").append(literal(name)).append(");\n");
+                writeCondition("value == null || value.isEmpty()", "value != null && !value.isEmpty()",
+                        absent(requestParam, missing, target, defaultExpression, true, reset, fieldType));
+                body.append("            try {\n");
+                if (reused == null) {
+                    body.append("                java.util.List<").append(elementName)
+                            .append("> list = new java.util.ArrayList<>();\n");
+                } else {
+                    body.append("                java.util.List<").append(elementName).append("> reused = reset ? ")
+                            .append(reused).append(" : null;\n")
+                            .append("                java.util.List<").append(elementName)
+                            .append("> list = reused != null ? reused : new java.util.ArrayList<>();\n");
+                }
+                body.append("                java.util.List<String> values = source.getValues(")
+                        .append(literal(name)).append(");\n")
+                        .append("                if (values != null) {\n")
+                        .append("                    for (String item : values) {\n")
+                        .append("                        ").append(tokenizer)
+                        .append(".forEach(item, (text, start, end) -> list.add(")
+                        .append(elementConversion(field, element)).append("));\n")
+                        .append("                    }\n")
+                        .append("                } else {\n")
+                        .append("                    ").append(tokenizer)
+                        .append(".forEach(value, (text, start, end) -> list.add(")
+                        .append(elementConversion(field, element)).append("));\n")
+                        .append("                }\n")
+                        .append("                ").append(assign(target, "list")).append(";\n");
+            } else {
+                if (!defaultText.isEmpty() && sequence(fieldType) != null) {
+                    // Arrays and primitive lists are mutable, so the default is parsed per instance rather than shared
+                    defaultExpression = conversion(field, fieldType, literal(defaultText), defaultText);
+                } else if (!defaultText.isEmpty() && isConvertible(fieldType)) {
+                    constants.append("    private static final ").append(fieldType).append(' ').append(constant)
+                            .append(" = ").append(conversion(field, fieldType, literal(defaultText), defaultText))
+                            .append(";\n");
+                    defaultExpression = constant;
+                } else if (!defaultText.isEmpty()) {
+                    defaultExpression = conversion(field, fieldType, literal(defaultText), null);
+                }
+                body.append("        value = source.getValue(").append(literal(name)).append(");\n");
+                writeCondition("value == null || value.isEmpty()", "value != null && !value.isEmpty()",
+                        absent(requestParam, missing, target, defaultExpression, isConvertible(fieldType), reset,
+                                fieldType));
+                body.append("            try {\n");
+                String converted = sequence(fieldType) != null && reused != null
+                        ? sequenceParse(field, fieldType, "value", "reset ? " + reused + " : null")
+                        : conversion(field, fieldType, "value", null);
+                String checked = checkedType(fieldType);
+                String rejects = checked != null
+                        ? "com.openext.dev.binding.ValueConverter.rejects(" + checked + ", value)"
+                        : sequence(fieldType) != null
+                        ? "com.openext.dev.binding.PrimitiveSequence." + sequence(fieldType).name() + ".rejects(value, "
+                                + tokenizer(field) + ")"
+                        : null;
+                fallback = defaultsInvalidValue(requestParam, fieldType)
+                        ? assign(target, defaultExpression != null ? defaultExpression : zero(fieldType)) : null;
+                if (rejects == null) {
+                    body.append("                ").append(assign(target, converted)).append(";\n");
+                } else if (fallback != null) {
+                    body.append("                if ((errors != null || source.lenient()) && ").append(rejects)
+                            .append(") {\n")
+                            .append("                    if (source.lenient()) {\n")
+                            .append("                        ").append(fallback).append(";\n")
+                            .append("                    } else {\n")
+                            .append("                        errors.invalid(").append(literal(name)).append(", ")
+                            .append(literal(invalid)).append(", null);\n")
+                            .append("                    }\n")
+                            .append("                } else {\n")
+                            .append("                    ")
+                            .append(assign(target, converted)).append(";\n")
+                            .append("                }\n");
+                } else {
+                    // Malformed numbers and unknown constants are recorded without an exception when collecting
+                    body.append("                if (errors != null && ").append(rejects).append(") {\n")
+                            .append("                    errors.invalid(").append(literal(name)).append(", ")
+                            .append(literal(invalid)).append(", null);\n")
+                            .append("                } else {\n")
+                            .append("                    ")
+                            .append(assign(target, converted)).append(";\n")
+                            .append("                }\n");
+                }
+            }
+            body.append("            } catch (Exception ex) {\n");
+            if (fallback == null) {
+                body.append("                if (errors == null) {\n")
+                        .append("                    throw new IllegalArgumentException(")
+                        .append(literal(invalid)).append(", ex);\n")
+                        .append("                }\n")
+                        .append("                errors.invalid(").append(literal(name)).append(", ")
+                        .append(literal(invalid)).append(", ex);\n");
+            } else {
+                body.append("                if (source.lenient()) {\n")
+                        .append("                    ").append(fallback).append(";\n")
+                        .append("                } else if (errors == null) {\n")
+                        .append("                    throw new IllegalArgumentException(")
+                        .append(literal(invalid)).append(", ex);\n")
+                        .append("                } else {\n")
+                        .append("                    errors.invalid(").append(literal(name)).append(", ")
+                        .append(literal(invalid)).append(", ex);\n")
+                        .append("                }\n");
+            }
+            body.append("            }\n")
+                    .append("        }\n");
+        }
+
+        /**
+         * @return The class literal of a number or enum type that {@code ValueConverter.rejects} checks, or null
+         */
+        private String checkedType(TypeMirror type) {
+            switch (type.getKind()) {
+                case INT:
+                case LONG:
+                case DOUBLE:
+                case FLOAT:
+                    return type + ".class";
+                case DECLARED:
+                    break;
+                default:
+                    return null;
+            }
+            Element element = types.asElement(type);
+            String name = ((TypeElement) element).getQualifiedName().toString();
+            if (element.getKind() == ElementKind.ENUM || name.equals("java.lang.Integer")
+                    || name.equals("java.lang.Long") || name.equals("java.lang.Double")
+                    || name.equals("java.lang.Float")) {
+                return name + ".class";
+            }
+            return null;
+        }
+
+        private void writeCondition(String absentCondition, String presentCondition, String absent) {
+            if (absent.isEmpty()) {
+                body.append("        if (").append(presentCondition).append(") {\n");
+            } else {
+                body.append("        if (").append(absentCondition).append(") {\n")
+                        .append(absent)
+                        .append("        } else {\n");
+            }
+        }
+
+        /**
+         * @return The statements for an absent value: a missing required parameter, the default value, or on a reused
+         * instance the {@code reset} expression, if there is one. A list without a default is bound as an empty list
+         * from a lenient source.
+         */
+        private String absent(RequestParam requestParam, String missing, String target, String defaultExpression,
+                boolean preConverted, String reset, TypeMirror fieldType) {
+            StringBuilder code = new StringBuilder();
+            if (requestParam.required()) {
+                code.append("            if (errors == null) {\n")
+                        .append("                missingParams.add(").append(literal(missing)).append(");\n")
+                        .append("            } else {\n")
+                        .append("                errors.missing(").append(literal(requestParam.name())).append(", ")
+                        .append(literal(requestParam.message().isEmpty()
+                                ? "Missing required parameter: " + requestParam.name() : requestParam.message()))
+                        .append(");\n")
+                        .append("            }\n");
+            } else if (defaultExpression != null) {
+                if (preConverted) {
+                    code.append("            ").append(assign(target, defaultExpression)).append(";\n");
+                } else {
+                    code.append("            try {\n")
+                            .append("                ").append(assign(target, defaultExpression)).append(";\n")
+                            .append("            } catch (Exception ex) {\n")
+                            .append("                throw new IllegalArgumentException(")
+                            .append(literal("Invalid default value for parameter: " + requestParam.name()))
+                            .append(", ex);\n")
+                            .append("            }\n");
+                }
+            } else if (isList(fieldType) && sequence(fieldType) == null) {
+                String empty = types.isAssignable(types.erasure(elements.getTypeElement("java.util.List").asType()),
+                        types.erasure(fieldType)) ? "java.util.Collections.emptyList()" : "new java.util.ArrayList<>()";
+                if (reset == null) {
+                    code.append("            if (source.lenient()) {\n")
+                            .append("                ").append(assign(target, empty)).append(";\n")
+                            .append("            }\n");
+                } else {
+                    code.append("            if (reset || source.lenient()) {\n")
+                            .append("                ").append(fieldType).append(" emptied = reset ? ").append(reset)
+                            .append(" : null;\n")
+                            .append("                ")
+                            .append(assign(target, "emptied != null || !source.lenient() ? emptied : " + empty))
+                            .append(";\n")
+                            .append("            }\n");
+                }
+            } else if (reset != null) {
+                code.append("            if (reset) {\n")
+                        .append("                ").append(assign(target, reset)).append(";\n")
+                        .append("            }\n");
+            }
+            return code.toString();
+        }
+
+        /**
+         * @return Whether an invalid value falls back to the default from a lenient source: for optional numbers, as
+         * {@code ParamBinding.defaultsInvalidValue} decides for reflective binding
+         */
+        private boolean defaultsInvalidValue(RequestParam requestParam, TypeMirror type) {
+            if (requestParam.required()) {
+                return false;
+            }
+            switch (type.getKind()) {
+                case INT:
+                case LONG:
+                case DOUBLE:
+                case FLOAT:
+                    return true;
+                case DECLARED:
+                    String name = ((TypeElement) types.asElement(type)).getQualifiedName().toString();
+                    return name.equals("java.lang.Integer") || name.equals("java.lang.Long")
+                            || name.equals("java.lang.Double") || name.equals("java.lang.Float");
+                default:
+                    return false;
+            }
+        }
+
+        /**
+         * @return The zero value of a primitive type, or null for a reference type
+         */
+        private String zero(TypeMirror type) {
+            switch (type.getKind()) {
+                case BOOLEAN:
+                    return "false";
+                case LONG:
+                    return "0L";
+                case DOUBLE:
+                    return "0d";
+                case FLOAT:
+                    return "0f";
+                case CHAR:
+                    return "'\\0'";
+                case BYTE:
+                case SHORT:
+                    return "(" + type + ") 0";
+                case INT:
+                    return "0";
+                default:
+                    return "null";
+            }
+        }
+
+        /**
+         * @return {@code instance.field} for a non-private field, {@code instance.setField} for a setter, or null
+         */
+        private String writeTarget(VariableElement field) {
+            String fieldName = field.getSimpleName().toString();
+            if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+                return "instance." + fieldName + " = ";
+            }
+            String setter = setterName(field);
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(setter) && method.getParameters().size() == 1
+                        && !method.getModifiers().contains(Modifier.PRIVATE)
+                        && !method.getModifiers().contains(Modifier.STATIC)) {
+                    return "instance." + setter + "(";
+                }
+            }
+            if (hasLombokAccessor(field, "lombok.Setter") || hasLombokAccessor(type, "lombok.Setter")) {
+                return "instance." + setter + "(";
+            }
+            return null;
+        }
+
+        /**
+         * @return {@code instance.field} for a non-private field, {@code instance.getField()} for a getter, or null
+         */
+        private String readTarget(VariableElement field) {
+            String fieldName = field.getSimpleName().toString();
+            if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+                return "instance." + fieldName;
+            }
+            String getter = "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (method.getSimpleName().contentEquals(getter) && method.getParameters().isEmpty()
+                        && !method.getModifiers().contains(Modifier.PRIVATE)
+                        && !method.getModifiers().contains(Modifier.STATIC)) {
+                    return "instance." + getter + "()";
+                }
+            }
+            if (hasLombokAccessor(field, "lombok.Getter") || hasLombokAccessor(type, "lombok.Getter")) {
+                return "instance." + getter + "()";
+            }
+            return null;
+        }
+
+        private String setterName(VariableElement field) {
+            String name = field.getSimpleName().toString();
+            if (field.asType().getKind() == TypeKind.BOOLEAN && name.length() > 2 && name.startsWith("is")
+                    && Character.isUpperCase(name.charAt(2))) {
+                name = name.substring(2);
+            }
+            return "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+
+        /**
+         * @return Whether Lombok generates a non-private accessor, {@code lombok.Getter} or {@code lombok.Setter}, for
+         * the annotated field or class
+         */
+        private boolean hasLombokAccessor(Element element, String accessor) {
+            for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+                String annotation = mirror.getAnnotationType().toString();
+                if (annotation.equals("lombok.Data")) {
+                    return true;
+                }
+                if (annotation.equals(accessor)) {
+                    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                            : mirror.getElementValues().entrySet()) {
+                        if (value.getKey().getSimpleName().contentEquals("value")) {
+                            String level = value.getValue().getValue().toString();
+                            return !level.equals("PRIVATE") && !level.equals("NONE");
+                        }
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private String assign(String target, String expression) {
+            return target.endsWith("(") ? target + expression + ")" : target + expression;
+        }
+
+        private boolean isList(TypeMirror fieldType) {
+            if (fieldType.getKind() != TypeKind.DECLARED) {
+                return false;
+            }
+            TypeMirror list = types.erasure(elements.getTypeElement("java.util.List").asType());
+            return types.isAssignable(types.erasure(fieldType), list);
+        }
+
+        /**
+         * @return The element type of a list whose elements convert from text, or null for any other field, which is
+         * then bound as a whole through {@code ParamSource.readValue}
+         */
+        private TypeMirror elementType(TypeMirror fieldType) {
+            if (!isList(fieldType)) {
+                return null;
+            }
+            List<? extends TypeMirror> arguments = ((DeclaredType) fieldType).getTypeArguments();
+            if (arguments.isEmpty() || !isConvertible(arguments.get(0))) {
+                return null;
+            }
+            return arguments.get(0);
+        }
+
+        private boolean holdsArrayList(VariableElement field, TypeMirror fieldType) {
+            TypeMirror arrayList = types.erasure(elements.getTypeElement("java.util.ArrayList").asType());
+            if (!types.isAssignable(arrayList, types.erasure(fieldType))) {
+                error(field, "List field type " + fieldType + " cannot hold an ArrayList");
+                return false;
+            }
+            return true;
+        }
+
+        private boolean isConvertible(TypeMirror type) {
+            if (sequence(type) != null) {
+                return true;
+            }
+            if (type.getKind().isPrimitive()) {
+                TypeKind kind = type.getKind();
+                return kind == TypeKind.INT || kind == TypeKind.LONG || kind == TypeKind.DOUBLE
+                        || kind == TypeKind.FLOAT || kind == TypeKind.BOOLEAN;
+            }
+            if (type.getKind() != TypeKind.DECLARED) {
+                return false;
+            }
+            Element element = types.asElement(type);
+            if (element.getKind() == ElementKind.ENUM) {
+                return true;
+            }
+            String name = ((TypeElement) element).getQualifiedName().toString();
+            return name.equals("java.lang.String") || name.equals("java.lang.Integer") || name.equals("java.lang.Long")
+                    || name.equals("java.lang.Double") || name.equals("java.lang.Float")
+                    || name.equals("java.lang.Boolean");
+        }
+
+        /**
+         * Java expression parsing {@code text} to a primitive array or list; with {@code reused}, an expression for the
+         * emptied list of a reused instance or null, the list is refilled in place
+         */
+        private String sequenceParse(VariableElement field, TypeMirror type, String text, String reused) {
+            String erasure = types.erasure(type).toString();
+            return "(" + erasure + ") com.openext.dev.binding.PrimitiveSequence." + sequence(type).name() + ".parse("
+                    + text + ", " + erasure + ".class, " + tokenizer(field)
+                    + (reused == null ? "" : ", " + reused) + ")";
+        }
+
+        /**
+         * Java expression converting {@code text} to {@code type}. When {@code constant} is given it is the
+         * compile-time value of {@code text} and is validated, so an invalid default fails the build.
+         */
+        private String conversion(VariableElement field, TypeMirror type, String text, String constant) {
+            PrimitiveSequence sequence = sequence(type);
+            if (sequence != null) {
+                try {
+                    check(constant, value -> sequence.parse(value, Object.class, runtimeTokenizer(field)));
+                } catch (IllegalArgumentException ex) {
+                    error(field, "Invalid default value for parameter "
+                            + field.getAnnotation(RequestParam.class).name() + ": " + constant);
+                }
+                return sequenceParse(field, type, text, null);
+            }
+            try {
+                switch (type.getKind()) {
+                    case INT:
+                        check(constant, Integer::parseInt);
+                        return "Integer.parseInt(" + text + ".trim())";
+                    case LONG:
+                        check(constant, Long::parseLong);
+                        return "Long.parseLong(" + text + ".trim())";
+                    case DOUBLE:
+                        check(constant, Double::parseDouble);
+                        return "Double.parseDouble(" + text + ".trim())";
+                    case FLOAT:
+                        check(constant, Float::parseFloat);
+                        return "Float.parseFloat(" + text + ".trim())";
+                    case BOOLEAN:
+                        return "Boolean.parseBoolean(" + text + ".trim())";
+                    case DECLARED:
+                        break;
+                    default:
+                        String cast = type.getKind().isPrimitive()
+                                ? types.boxedClass((PrimitiveType) type).getQualifiedName().toString()
+                                : types.erasure(type).toString();
+                        return "(" + cast + ") source.readValue(" + parameterName(field) + ", " + text + ", "
+                                + types.erasure(type) + ".class)";
+                }
+            } catch (IllegalArgumentException ex) {
+                error(field, "Invalid default value for parameter " + field.getAnnotation(RequestParam.class).name()
+                        + ": " + constant);
+                return "null";
+            }
+
+            TypeElement element = (TypeElement) types.asElement(type);
+            String name = element.getQualifiedName().toString();
+            if (element.getKind() == ElementKind.ENUM) {
+                if (constant != null && !hasConstant(element, constant.trim())) {
+                    error(field, "Invalid default value for parameter " + field.getAnnotation(RequestParam.class).name()
+                            + ": " + constant);
+                }
+                return "com.openext.dev.binding.EnumLookup.of(" + name + ".class).parse(" + text + ")";
+            }
+            switch (name) {
+                case "java.lang.String":
+                    return text;
+                case "java.lang.Integer":
+                    return conversion(field, types.getPrimitiveType(TypeKind.INT), text, constant);
+                case "java.lang.Long":
+                    return conversion(field, types.getPrimitiveType(TypeKind.LONG), text, constant);
+                case "java.lang.Double":
+                    return conversion(field, types.getPrimitiveType(TypeKind.DOUBLE), text, constant);
+                case "java.lang.Float":
+                    return conversion(field, types.getPrimitiveType(TypeKind.FLOAT), text, constant);
+                case "java.lang.Boolean":
+                    return conversion(field, types.getPrimitiveType(TypeKind.BOOLEAN), text, constant);
+                default:
+                    return "(" + types.erasure(type) + ") source.readValue(" + parameterName(field) + ", " + text + ", "
+                            + types.erasure(type) + ".class)";
+            }
+        }
+
+        /**
+         * @return An expression for the tokenizer of a list field, declaring a constant unless it is the default
+         */
+        private String tokenizer(VariableElement field) {
+            RequestParam requestParam = field.getAnnotation(RequestParam.class);
+            if (runtimeTokenizer(field) == ListTokenizer.DEFAULT) {
+                return "com.openext.dev.binding.ListTokenizer.DEFAULT";
+            }
+            String arguments = charLiteral(requestParam.separator()) + ", " + charLiteral(requestParam.quote());
+            String constant = tokenizers.get(arguments);
+            if (constant == null) {
+                constant = "TOKENIZER_" + tokenizers.size();
+                tokenizers.put(arguments, constant);
+                constants.append("    private static final com.openext.dev.binding.ListTokenizer ").append(constant)
+                        .append(" = com.openext.dev.binding.ListTokenizer.of(").append(arguments).append(");\n");
+            }
+            return constant;
+        }
+
+        /**
+         * @return The tokenizer the generated code will use, to split default values the same way at build time
+         */
+        private ListTokenizer runtimeTokenizer(VariableElement field) {
+            RequestParam requestParam = field.getAnnotation(RequestParam.class);
+            return ListTokenizer.of(requestParam.separator(), requestParam.quote());
+        }
+
+        private List<String> defaultItems(VariableElement field, String defaultText) {
+            try {
+                return runtimeTokenizer(field).toList(defaultText,
+                        (text, start, end) -> text.subSequence(start, end).toString());
+            } catch (IllegalArgumentException ex) {
+                error(field, "Invalid default value for parameter " + field.getAnnotation(RequestParam.class).name()
+                        + ": " + ex.getMessage());
+                return Collections.emptyList();
+            }
+        }
+
+        /**
+         * @return An expression converting the range {@code text[start, end)} to a list element; integers and enums are
+         * parsed in place
+         */
+        private String elementConversion(VariableElement field, TypeMirror element) {
+            String name = types.erasure(element).toString();
+            if (types.asElement(element) != null && types.asElement(element).getKind() == ElementKind.ENUM) {
+                return "com.openext.dev.binding.EnumLookup.of(" + name + ".class).parse(text, start, end)";
+            }
+            switch (name) {
+                case "java.lang.String":
+                    return "text.subSequence(start, end).toString()";
+                case "java.lang.Integer":
+                    return "com.openext.dev.utils.PrimitiveParser.parseInt(text, start, end)";
+                case "java.lang.Long":
+                    return "com.openext.dev.utils.PrimitiveParser.parseLong(text, start, end)";
+                default:
+                    return conversion(field, element, "text.subSequence(start, end).toString()", null);
+            }
+        }
+
+        private String parameterName(VariableElement field) {
+            return literal(field.getAnnotation(RequestParam.class).name());
+        }
+
+        private String charLiteral(char c) {
+            return c >= 0x20 && c < 0x7f && c != '\'' && c != '\\' ? "'" + c + "'" : "(char) " + (int) c;
+        }
+
+        /**
+         * @return The kind of an {@code int[]}, {@code long[]}, {@code double[]} or primitive list type, or null
+         */
+        private PrimitiveSequence sequence(TypeMirror type) {
+            if (type.getKind() == TypeKind.ARRAY) {
+                switch (((ArrayType) type).getComponentType().getKind()) {
+                    case INT:
+                        return PrimitiveSequence.INT;
+                    case LONG:
+                        return PrimitiveSequence.LONG;
+                    case DOUBLE:
+                        return PrimitiveSequence.DOUBLE;
+                    default:
+                        return null;
+                }
+            }
+            if (type.getKind() != TypeKind.DECLARED) {
+                return null;
+            }
+            switch (((TypeElement) types.asElement(type)).getQualifiedName().toString()) {
+                case "com.openext.dev.collections.IntList":
+                    return PrimitiveSequence.INT;
+                case "com.openext.dev.collections.LongList":
+                    return PrimitiveSequence.LONG;
+                case "com.openext.dev.collections.DoubleList":
+                    return PrimitiveSequence.DOUBLE;
+                default:
+                    return null;
+            }
+        }
+
+        private void check(String constant, Function<String, ?> parser) {
+            if (constant != null) {
+                parser.apply(constant);
+            }
+        }
+
+        /**
+         * @return Whether an enum constant matches the value as {@code EnumLookup} matches it: by name or alias
+         * ignoring case, or by ordinal if the enum accepts ordinals
+         */
+        private boolean hasConstant(TypeElement enumType, String constant) {
+            int ordinal = 0;
+            boolean ordinals = enumType.getAnnotation(EnumOrdinals.class) != null;
+            for (Element member : enumType.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.ENUM_CONSTANT) {
+                    continue;
+                }
+                if (member.getSimpleName().toString().equalsIgnoreCase(constant)
+                        || ordinals && Integer.toString(ordinal).equals(constant)) {
+                    return true;
+                }
+                EnumAlias alias = member.getAnnotation(EnumAlias.class);
+                if (alias != null) {
+                    for (String name : alias.value()) {
+                        if (name.trim().equalsIgnoreCase(constant)) {
+                            return true;
+                        }
+                    }
+                }
+                ordinal++;
+            }
+            return false;
+        }
+
+        private void error(Element element, String message) {
+            messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+            failed = true;
+        }
+
+        private String literal(String value) {
+            StringBuilder sb = new StringBuilder("\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '\t':
+                        sb.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+}
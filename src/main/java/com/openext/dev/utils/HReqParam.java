@@ -25,6 +25,18 @@ public class HReqParam {
         return strVal;
     }
 
+    /**
+     * Look up a parameter without throwing
+     * @return The raw value, or null if the name is null or blank or the parameter does not exist
+     */
+    private static String _findParameter(HttpServletRequest req, String paramName) {
+        if (paramName == null) {
+            return null;
+        }
+        String name = paramName.trim();
+        return name.isEmpty() ? null : req.getParameter(name);
+    }
+
     private static String _getParameterAsTrimString(HttpServletRequest req, String paramName) {
         return _getParameterAsString(req, paramName).trim();
     }
@@ -63,67 +75,45 @@ public class HReqParam {
     }
 
     public static Boolean getBoolean(HttpServletRequest req, String paramName, Boolean defaultVal) {
-        try {
-            return getBoolean(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        return strVal == null ? defaultVal : Boolean.valueOf(PrimitiveParser.parseBoolean(strVal, false));
     }
 
     public static Byte getByte(HttpServletRequest req, String paramName, Byte defaultVal) {
-        try {
-            return getByte(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        long value = PrimitiveParser.parseInteger(strVal, Byte.MIN_VALUE, Byte.MAX_VALUE, Long.MIN_VALUE);
+        return value == Long.MIN_VALUE ? defaultVal : Byte.valueOf((byte) value);
     }
 
     public static Double getDouble(HttpServletRequest req, String paramName, Double defaultVal) {
-        try {
-            return getDouble(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        return PrimitiveParser.isDouble(strVal) ? Double.valueOf(Double.parseDouble(strVal)) : defaultVal;
     }
 
     public static Float getFloat(HttpServletRequest req, String paramName, Float defaultVal) {
-        try {
-            return getFloat(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        return PrimitiveParser.isDouble(strVal) ? Float.valueOf(Float.parseFloat(strVal)) : defaultVal;
     }
 
     public static Integer getInt(HttpServletRequest req, String paramName, Integer defaultVal) {
-        try {
-            return getInt(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        return PrimitiveParser.isInt(strVal) ? Integer.valueOf(PrimitiveParser.parseInt(strVal, 0)) : defaultVal;
     }
 
     public static Long getLong(HttpServletRequest req, String paramName, Long defaultVal) {
-        try {
-            return getLong(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        return PrimitiveParser.isLong(strVal) ? Long.valueOf(PrimitiveParser.parseLong(strVal, 0L)) : defaultVal;
     }
 
     public static Short getShort(HttpServletRequest req, String paramName, Short defaultVal) {
-        try {
-            return getShort(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        long value = PrimitiveParser.parseInteger(strVal, Short.MIN_VALUE, Short.MAX_VALUE, Long.MIN_VALUE);
+        return value == Long.MIN_VALUE ? defaultVal : Short.valueOf((short) value);
     }
 
     public static String getString(HttpServletRequest req, String paramName, String defaultVal) {
-        try {
-            return getString(req, paramName);
-        } catch (Exception ex) {
-            return defaultVal;
-        }
+        String strVal = _findParameter(req, paramName);
+        return strVal == null ? defaultVal : strVal;
     }
 
     public static Boolean getBooleanExl(HttpServletRequest req, String paramName) {
@@ -157,4 +147,30 @@ public class HReqParam {
     public static String getStringExl(HttpServletRequest req, String paramName) {
         return getString(req, paramName, null);
     }
+
+    // Exception-free accessors: absent or malformed values resolve to the default without unwinding a stack
+
+    public static boolean hasParameter(HttpServletRequest req, String paramName) {
+        return _findParameter(req, paramName) != null;
+    }
+
+    public static boolean getBooleanValue(HttpServletRequest req, String paramName, boolean defaultVal) {
+        return PrimitiveParser.parseBoolean(_findParameter(req, paramName), defaultVal);
+    }
+
+    public static double getDoubleValue(HttpServletRequest req, String paramName, double defaultVal) {
+        return PrimitiveParser.parseDouble(_findParameter(req, paramName), defaultVal);
+    }
+
+    public static float getFloatValue(HttpServletRequest req, String paramName, float defaultVal) {
+        return PrimitiveParser.parseFloat(_findParameter(req, paramName), defaultVal);
+    }
+
+    public static int getIntValue(HttpServletRequest req, String paramName, int defaultVal) {
+        return PrimitiveParser.parseInt(_findParameter(req, paramName), defaultVal);
+    }
+
+    public static long getLongValue(HttpServletRequest req, String paramName, long defaultVal) {
+        return PrimitiveParser.parseLong(_findParameter(req, paramName), defaultVal);
+    }
 }
@@ -0,0 +1,234 @@
+package com.openext.dev.utils;
+
+/**
+ * Parses request parameter text to primitives without throwing. Leading and trailing whitespace is skipped in place
+ * rather than with {@link String#trim()}, and invalid or absent text is reported through {@code isX} checks or by
+ * returning the caller's default, so a missing optional parameter never costs an exception.
+ */
+public final class PrimitiveParser {
+
+    private PrimitiveParser() {
+    }
+
+    /**
+     * @return Whether the text is a decimal {@code int}, ignoring surrounding whitespace
+     */
+    public static boolean isInt(String text) {
+        return parseInteger(text, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE) != Long.MIN_VALUE;
+    }
+
+    /**
+     * @return The decimal {@code int} value of the text, or {@code defaultVal} if it is null or not a valid int
+     */
+    public static int parseInt(String text, int defaultVal) {
+        return (int) parseInteger(text, Integer.MIN_VALUE, Integer.MAX_VALUE, defaultVal);
+    }
+
+    /**
+     * @return Whether the text is a decimal {@code long}, ignoring surrounding whitespace
+     */
+    public static boolean isLong(String text) {
+        // Every long is a valid result, so check against two sentinels; only "0" and invalid text scan twice
+        return parseInteger(text, Long.MIN_VALUE, Long.MAX_VALUE, 0L) != 0L
+                || parseInteger(text, Long.MIN_VALUE, Long.MAX_VALUE, 1L) != 1L;
+    }
+
+    /**
+     * @return The decimal {@code long} value of the text, or {@code defaultVal} if it is null or not a valid long
+     */
+    public static long parseLong(String text, long defaultVal) {
+        return parseInteger(text, Long.MIN_VALUE, Long.MAX_VALUE, defaultVal);
+    }
+
+    /**
+     * @return Whether the text is a decimal floating point number, {@code NaN} or {@code Infinity}, ignoring
+     * surrounding whitespace. Hexadecimal floating point literals are not accepted.
+     */
+    public static boolean isDouble(String text) {
+        if (text == null) {
+            return false;
+        }
+        int end = end(text);
+        int i = start(text, end);
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (text.startsWith("NaN", i)) {
+            return i + 3 == end;
+        }
+        if (text.startsWith("Infinity", i)) {
+            return i + 8 == end;
+        }
+
+        int digits = 0;
+        while (i < end && isDigit(text.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < end && text.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(text.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+        }
+        if (i < end) {
+            char suffix = text.charAt(i);
+            if (suffix == 'd' || suffix == 'D' || suffix == 'f' || suffix == 'F') {
+                i++;
+            }
+        }
+        return i == end;
+    }
+
+    /**
+     * @return The {@code double} value of the text, or {@code defaultVal} if it is null or not a valid number
+     */
+    public static double parseDouble(String text, double defaultVal) {
+        // Validated first, so the correctly rounded JDK conversion cannot throw
+        return isDouble(text) ? Double.parseDouble(text) : defaultVal;
+    }
+
+    /**
+     * @return The {@code float} value of the text, or {@code defaultVal} if it is null or not a valid number
+     */
+    public static float parseFloat(String text, float defaultVal) {
+        return isDouble(text) ? Float.parseFloat(text) : defaultVal;
+    }
+
+    /**
+     * @return {@code true} for "true" in any case, {@code defaultVal} for null text, and {@code false} otherwise,
+     * as {@link Boolean#parseBoolean} does, ignoring surrounding whitespace
+     */
+    public static boolean parseBoolean(String text, boolean defaultVal) {
+        if (text == null) {
+            return defaultVal;
+        }
+        int end = end(text);
+        int start = start(text, end);
+        return end - start == 4 && text.regionMatches(true, start, "true", 0, 4);
+    }
+
+    /**
+     * @return Whether a region of the text, such as one element of a comma-separated list, is a decimal {@code int},
+     * ignoring surrounding whitespace
+     */
+    public static boolean isInt(CharSequence text, int start, int end) {
+        return parseInteger(text, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE) != Long.MIN_VALUE;
+    }
+
+    /**
+     * @return Whether a region of the text is a decimal {@code long}, ignoring surrounding whitespace
+     */
+    public static boolean isLong(CharSequence text, int start, int end) {
+        return parseInteger(text, start, end, Long.MIN_VALUE, Long.MAX_VALUE, 0L) != 0L
+                || parseInteger(text, start, end, Long.MIN_VALUE, Long.MAX_VALUE, 1L) != 1L;
+    }
+
+    /**
+     * Parse the {@code int} in a region of the text, such as one element of a comma-separated list, without copying it
+     * @throws NumberFormatException If the region is not a valid int
+     */
+    public static int parseInt(CharSequence text, int start, int end) {
+        long value = parseInteger(text, start, end, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE);
+        if (value == Long.MIN_VALUE) {
+            throw new NumberFormatException("For input string: \"" + text.subSequence(start, end) + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parse the {@code long} in a region of the text without copying it
+     * @throws NumberFormatException If the region is not a valid long
+     */
+    public static long parseLong(CharSequence text, int start, int end) {
+        long value = parseInteger(text, start, end, Long.MIN_VALUE, Long.MAX_VALUE, 0L);
+        if (value == 0L && parseInteger(text, start, end, Long.MIN_VALUE, Long.MAX_VALUE, 1L) == 1L) {
+            throw new NumberFormatException("For input string: \"" + text.subSequence(start, end) + "\"");
+        }
+        return value;
+    }
+
+    static long parseInteger(String text, long min, long max, long invalid) {
+        return text == null ? invalid : parseInteger(text, 0, text.length(), min, max, invalid);
+    }
+
+    /**
+     * Parse a decimal integer within {@code [min, max]} from {@code text[start, end)}, accumulating negatively like
+     * {@link Long#parseLong} so the minimum value does not overflow
+     * @return The value, or {@code invalid} if the region is malformed or out of range
+     */
+    private static long parseInteger(CharSequence text, int start, int end, long min, long max, long invalid) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int i = start;
+        while (i < end && text.charAt(i) <= ' ') {
+            i++;
+        }
+        if (i == end) {
+            return invalid;
+        }
+
+        boolean negative = false;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return invalid;
+            }
+        }
+
+        long limit = negative ? min : -max;
+        long multiplyMin = limit / 10;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || result < multiplyMin) {
+                return invalid;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return invalid;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static int start(String text, int end) {
+        int start = 0;
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
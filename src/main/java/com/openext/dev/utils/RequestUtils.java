@@ -1,61 +1,64 @@
 package com.openext.dev.utils;
 
+import com.openext.dev.binding.EnumLookup;
+
 import javax.servlet.http.HttpServletRequest;
 
 public class RequestUtils {
 
     public static Long getLong(HttpServletRequest req, String paramName, Long defaultValue, boolean isRequired)
             throws IllegalArgumentException {
-        Long value = HReqParam.getLong(req, paramName, defaultValue);
-        if (isRequired && value == defaultValue) {
-            throw new IllegalArgumentException(paramName + " is required");
+        String value = HReqParam.getStringExl(req, paramName);
+        if (!PrimitiveParser.isLong(value)) {
+            return missing(paramName, defaultValue, isRequired);
         }
-        return value;
+        return PrimitiveParser.parseLong(value, 0L);
     }
 
     public static Integer getInt(HttpServletRequest req, String paramName, Integer defaultValue, boolean isRequired)
             throws IllegalArgumentException {
-        Integer value = HReqParam.getInt(req, paramName, defaultValue);
-        if (isRequired && value == defaultValue) {
-            throw new IllegalArgumentException(paramName + " is required");
+        String value = HReqParam.getStringExl(req, paramName);
+        if (!PrimitiveParser.isInt(value)) {
+            return missing(paramName, defaultValue, isRequired);
         }
-        return value;
+        return PrimitiveParser.parseInt(value, 0);
     }
 
     public static String getString(HttpServletRequest req, String paramName, String defaultValue, boolean isRequired)
             throws IllegalArgumentException {
-        String value = HReqParam.getString(req, paramName, defaultValue);
-        if (isRequired && value.equals(defaultValue)) {
-            throw new IllegalArgumentException(paramName + " is required");
+        String value = HReqParam.getStringExl(req, paramName);
+        if (value == null) {
+            // An empty parameter is present: it is returned as is rather than replaced by the default
+            return missing(paramName, defaultValue, isRequired);
         }
         return value;
     }
 
     public static boolean getBoolean(HttpServletRequest req, String paramName, Boolean defaultValue, boolean isRequired)
             throws IllegalArgumentException {
-        Boolean value = HReqParam.getBoolean(req, paramName, defaultValue);
-        if (isRequired && value == defaultValue) {
-            throw new IllegalArgumentException(paramName + " is required");
+        String value = HReqParam.getStringExl(req, paramName);
+        if (value == null) {
+            return missing(paramName, defaultValue, isRequired);
         }
-        return value;
+        return PrimitiveParser.parseBoolean(value, false);
     }
 
     public static double getDouble(HttpServletRequest req, String paramName, Double defaultValue, boolean isRequired)
             throws IllegalArgumentException {
-        Double value = HReqParam.getDouble(req, paramName, defaultValue);
-        if (isRequired && value == defaultValue) {
-            throw new IllegalArgumentException(paramName + " is required");
+        String value = HReqParam.getStringExl(req, paramName);
+        if (!PrimitiveParser.isDouble(value)) {
+            return missing(paramName, defaultValue, isRequired);
         }
-        return value;
+        return Double.parseDouble(value);
     }
 
     public static float getFloat(HttpServletRequest req, String paramName, Float defaultValue, boolean isRequired)
             throws IllegalArgumentException {
-        Float value = HReqParam.getFloat(req, paramName, defaultValue);
-        if (isRequired && value == defaultValue) {
-            throw new IllegalArgumentException(paramName + " is required");
+        String value = HReqParam.getStringExl(req, paramName);
+        if (!PrimitiveParser.isDouble(value)) {
+            return missing(paramName, defaultValue, isRequired);
         }
-        return value;
+        return Float.parseFloat(value);
     }
 
     public static <E extends Enum<E>> E getEnum(HttpServletRequest req, String paramName, Class<E> enumClass,
@@ -67,10 +70,21 @@ public class RequestUtils {
             }
             return null;
         }
-        try {
-            return Enum.valueOf(enumClass, valueStr);
-        } catch (IllegalArgumentException ex) {
-            throw new IllegalArgumentException("Invalid value for parameter " + paramName + ": " + valueStr, ex);
+        E constant = EnumLookup.of(enumClass).find(valueStr);
+        if (constant == null) {
+            throw new IllegalArgumentException("Invalid value for parameter " + paramName + ": " + valueStr);
+        }
+        return constant;
+    }
+
+    /**
+     * Resolve a parameter that is absent or not valid for its type
+     * @return The default value, unless the parameter is required
+     */
+    private static <T> T missing(String paramName, T defaultValue, boolean isRequired) {
+        if (isRequired) {
+            throw new IllegalArgumentException(paramName + " is required");
         }
+        return defaultValue;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package com.openext.dev.validation;
+
+/**
+ * One problem of a request found by a validating parse: the parameter it concerns, a code to branch on and a message
+ * that can be returned to the client
+ */
+public final class FieldError {
+
+    /**
+     * The kind of problem
+     */
+    public enum Code {
+        /** A required parameter was absent */
+        MISSING,
+        /** A value could not be converted to its field type */
+        INVALID_VALUE,
+        /** The request exceeded a parse limit */
+        LIMIT_EXCEEDED,
+        /** The body could not be decoded, such as JSON with a syntax error */
+        MALFORMED,
+        /** The content type or encoding of the body is not supported */
+        UNSUPPORTED
+    }
+
+    private final String field;
+    private final Code code;
+    private final String message;
+
+    public FieldError(String field, Code code, String message) {
+        this.field = field;
+        this.code = code;
+        this.message = message;
+    }
+
+    /**
+     * @return The parameter name, or null for a problem of the request as a whole, such as a malformed body
+     */
+    public String field() {
+        return field;
+    }
+
+    public Code code() {
+        return code;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return field == null ? code + ": " + message : field + " " + code + ": " + message;
+    }
+}
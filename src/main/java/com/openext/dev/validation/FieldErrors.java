@@ -0,0 +1,49 @@
+package com.openext.dev.validation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the errors of one validating parse, in the order the parameters are bound. Not thread-safe; a collector
+ * belongs to a single request.
+ */
+public final class FieldErrors {
+    // Created with the first error, so a valid request allocates no list
+    private List<FieldError> errors;
+
+    public void add(FieldError error) {
+        if (errors == null) {
+            errors = new ArrayList<>(4);
+        }
+        errors.add(error);
+    }
+
+    /**
+     * Record an absent required parameter
+     */
+    public void missing(String field, String message) {
+        add(new FieldError(field, FieldError.Code.MISSING, message));
+    }
+
+    /**
+     * Record a value that cannot be bound
+     * @param cause The failure of the conversion, or null if the value was rejected without converting it; a
+     *              {@link LimitExceededException} is recorded as {@link FieldError.Code#LIMIT_EXCEEDED}
+     */
+    public void invalid(String field, String message, Throwable cause) {
+        add(new FieldError(field, cause instanceof LimitExceededException
+                ? FieldError.Code.LIMIT_EXCEEDED : FieldError.Code.INVALID_VALUE, message));
+    }
+
+    public boolean isEmpty() {
+        return errors == null;
+    }
+
+    /**
+     * @return The errors so far, unmodifiable
+     */
+    public List<FieldError> toList() {
+        return errors == null ? Collections.emptyList() : Collections.unmodifiableList(errors);
+    }
+}
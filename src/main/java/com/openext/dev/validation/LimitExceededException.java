@@ -0,0 +1,18 @@
+package com.openext.dev.validation;
+
+/**
+ * Thrown when a request exceeds one of the configured parse limits, such as the body size or the number of list
+ * elements. It is an {@link IllegalArgumentException}, so existing handlers keep working; catch it first to answer
+ * with {@code 413 Payload Too Large}.
+ */
+public class LimitExceededException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    public LimitExceededException(String message) {
+        super(message);
+    }
+
+    public LimitExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
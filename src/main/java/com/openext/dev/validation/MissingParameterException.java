@@ -1,6 +1,8 @@
 package com.openext.dev.validation;
 
 public class MissingParameterException extends Exception {
+    private static final long serialVersionUID = 1L;
+
     public MissingParameterException(String message) {
         super(message);
     }
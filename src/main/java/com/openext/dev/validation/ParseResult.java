@@ -0,0 +1,69 @@
+package com.openext.dev.validation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a validating parse: the bound instance, or every error found in the request. Invalid input is
+ * reported here instead of by an exception, so a request with several bad parameters costs one pass and no stack
+ * trace.
+ * @param <T> The type of the bound object
+ */
+public final class ParseResult<T> {
+    private final T value;
+    private final List<FieldError> errors;
+
+    private ParseResult(T value, List<FieldError> errors) {
+        this.value = value;
+        this.errors = errors;
+    }
+
+    /**
+     * @return A valid result with the value if no error was collected, otherwise an invalid result with the errors
+     */
+    public static <T> ParseResult<T> of(T value, FieldErrors errors) {
+        return errors.isEmpty() ? new ParseResult<>(value, Collections.emptyList())
+                : new ParseResult<>(null, errors.toList());
+    }
+
+    /**
+     * @return An invalid result with a single error
+     */
+    public static <T> ParseResult<T> invalid(FieldError error) {
+        return new ParseResult<>(null, Collections.singletonList(error));
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * @return The bound instance, or null if the result is invalid
+     */
+    public T value() {
+        return value;
+    }
+
+    /**
+     * @return The errors in the order they were found, empty if the result is valid
+     */
+    public List<FieldError> errors() {
+        return errors;
+    }
+
+    /**
+     * @return The bound instance
+     * @throws ValidationException If the result is invalid
+     */
+    public T orElseThrow() {
+        if (!isValid()) {
+            throw new ValidationException(errors);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return isValid() ? "ParseResult[" + value + "]" : "ParseResult" + errors;
+    }
+}
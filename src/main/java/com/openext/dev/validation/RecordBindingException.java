@@ -0,0 +1,22 @@
+package com.openext.dev.validation;
+
+/**
+ * Thrown while iterating a stream of records when one record cannot be bound
+ */
+public class RecordBindingException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long index;
+
+    public RecordBindingException(long index, Throwable cause) {
+        super("Invalid record at index " + index + ": " + cause.getMessage(), cause);
+        this.index = index;
+    }
+
+    /**
+     * @return The zero-based position of the record in the stream
+     */
+    public long getIndex() {
+        return index;
+    }
+}
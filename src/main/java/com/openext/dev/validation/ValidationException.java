@@ -0,0 +1,36 @@
+package com.openext.dev.validation;
+
+import java.util.List;
+
+/**
+ * Thrown by {@link ParseResult#orElseThrow()} with every error of the request. It records no stack trace, which
+ * would only point into the parser, and builds its message on first use. It is an
+ * {@link IllegalArgumentException}, so existing handlers keep working.
+ */
+public class ValidationException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<FieldError> errors;
+
+    public ValidationException(List<FieldError> errors) {
+        this.errors = errors;
+    }
+
+    public List<FieldError> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String getMessage() {
+        StringBuilder message = new StringBuilder("Invalid request: ");
+        for (int i = 0; i < errors.size(); i++) {
+            message.append(i == 0 ? "" : "; ").append(errors.get(i).message());
+        }
+        return message.toString();
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
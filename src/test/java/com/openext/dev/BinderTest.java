@@ -0,0 +1,220 @@
+package com.openext.dev;
+
+import com.openext.dev.annotations.RequestParam;
+import com.openext.dev.binding.Binder;
+import com.openext.dev.binding.Binders;
+import com.openext.dev.binding.BindingPlan;
+import com.openext.dev.binding.FieldAccessor;
+import com.openext.dev.binding.FieldSetters;
+import com.openext.dev.binding.ParamSource;
+import com.openext.dev.binding.ReflectiveBinder;
+import com.openext.dev.entity.GeoPoint;
+import com.openext.dev.entity.PageRequest;
+import com.openext.dev.entity.SearchFilter;
+import com.openext.dev.entity.SortOrder;
+import com.openext.dev.entity.UserInfo;
+import com.openext.dev.entity.UserInfo2;
+import com.openext.dev.validation.MissingParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinderTest {
+
+    private static ParamSource source(Map<String, String> values) {
+        return source(values, false);
+    }
+
+    private static ParamSource source(Map<String, String> values, boolean lenient) {
+        return new ParamSource() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public boolean lenient() {
+                return lenient;
+            }
+
+            @Override
+            public Object readValue(String name, String value, Class<?> type) {
+                throw new IllegalArgumentException("Unsupported field type: " + type.getName());
+            }
+        };
+    }
+
+    @Test
+    public void testGeneratedBinderIsUsed() {
+        Binder<UserInfo> binder = Binders.of(UserInfo.class);
+        System.err.println("binder: " + binder.getClass().getName());
+
+        assertFalse(binder instanceof ReflectiveBinder, "UserInfo should have a generated binder");
+        assertEquals("com.openext.dev.entity.UserInfo_Binder", binder.getClass().getName());
+    }
+
+    @Test
+    public void testGeneratedBinderMatchesReflective() throws MissingParameterException {
+        Map<String, String> values = new HashMap<>();
+        values.put("age", "25");
+        values.put("hobbies", "reading, swimming");
+
+        UserInfo2 generated = Binders.of(UserInfo2.class).bind(source(values));
+        UserInfo2 reflective = Binders.reflective(UserInfo2.class).bind(source(values));
+
+        assertEquals(reflective.toString(), generated.toString());
+        assertEquals("Alice", generated.getName());
+        assertEquals(25, generated.getAge());
+        assertEquals(Arrays.asList("reading", "swimming"), generated.getHobbies());
+        assertEquals(Arrays.asList(1, 3, 3), generated.getFavoriteNumbers());
+    }
+
+    @Test
+    public void testListDefaultsAreModifiable() throws MissingParameterException {
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Alice");
+        values.put("age", "25");
+        values.put("hobbies", "reading");
+
+        for (Binder<UserInfo> binder : Arrays.asList(Binders.of(UserInfo.class), Binders.reflective(UserInfo.class))) {
+            UserInfo first = binder.bind(source(values));
+            first.getFavoriteNumbers().add(4);
+            assertEquals(Arrays.asList(1, 2, 3, 4), first.getFavoriteNumbers());
+
+            UserInfo second = binder.bind(source(values));
+            assertEquals(Arrays.asList(1, 2, 3), second.getFavoriteNumbers(), "the default should not be shared");
+        }
+    }
+
+    @Test
+    public void testGeneratedSetters() {
+        FieldSetters<Object> setters = Binders.setters(UserInfo2.class);
+        assertSame(Binders.of(UserInfo2.class), setters, "JSON values should be written by the generated binder");
+
+        BindingPlan<UserInfo2> plan = BindingPlan.of(UserInfo2.class);
+        for (int i = 0; i < plan.size(); i++) {
+            assertEquals(plan.get(i).name(), setters.parameterNames().get(i),
+                    "The generated setters should index the parameters as the plan does");
+        }
+        UserInfo2 userInfo = new UserInfo2();
+        setters.setInt(userInfo, plan.find("age"), 41);
+        setters.set(userInfo, plan.find("hobbies"), Collections.singletonList("chess"));
+        assertEquals(41, userInfo.getAge());
+        assertEquals(Collections.singletonList("chess"), userInfo.getHobbies());
+
+        assertNotSame(Binders.of(PageRequest.class), Binders.setters(PageRequest.class),
+                "A record is bound into an argument array, through the accessors of its plan");
+    }
+
+    @Test
+    public void testDuplicateParameterNames() {
+        // A local class is not seen by the binder processor, which rejects the same duplicate at build time
+        class Duplicated {
+            @RequestParam(name = "id")
+            private String id;
+            @RequestParam(name = "id")
+            private String legacyId;
+        }
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> BindingPlan.of(Duplicated.class));
+        System.err.println(exception.getMessage());
+        assertTrue(exception.getMessage().contains("Duplicate parameter name id"));
+    }
+
+    @Test
+    public void testFieldAccessorSkipsAccessorMethods() throws NoSuchFieldException {
+        class Guarded {
+            private int age;
+            private String name;
+
+            public void setAge(int age) {
+                throw new IllegalStateException("setAge called");
+            }
+
+            public String getName() {
+                throw new IllegalStateException("getName called");
+            }
+
+            public void setName(String name) {
+                throw new IllegalStateException("setName called");
+            }
+        }
+
+        Guarded guarded = new Guarded();
+        FieldAccessor age = FieldAccessor.of(Guarded.class.getDeclaredField("age"));
+        FieldAccessor name = FieldAccessor.of(Guarded.class.getDeclaredField("name"));
+        age.setInt(guarded, 30);
+        age.set(guarded, 31);
+        name.set(guarded, "Alice");
+
+        assertEquals(31, guarded.age);
+        assertEquals(31, age.get(guarded));
+        assertEquals("Alice", name.get(guarded));
+        assertThrows(IllegalArgumentException.class, () -> name.set(guarded, 1));
+    }
+
+    @Test
+    public void testGeneratedBinderMissingParameters() {
+        Map<String, String> values = new HashMap<>();
+        values.put("name", "Alice");
+
+        MissingParameterException generated = assertThrows(MissingParameterException.class,
+                () -> Binders.of(UserInfo.class).bind(source(values)));
+        MissingParameterException reflective = assertThrows(MissingParameterException.class,
+                () -> Binders.reflective(UserInfo.class).bind(source(values)));
+
+        assertEquals(reflective.getMessage(), generated.getMessage());
+        assertTrue(generated.getMessage().contains("Hobbies are required"));
+    }
+
+    @Test
+    public void testLenientSource() throws MissingParameterException {
+        Map<String, String> values = new HashMap<>();
+        values.put("lat", "52.52");
+        values.put("lng", "13.405");
+        values.put("radius", "zz");
+
+        GeoPoint generated = Binders.of(GeoPoint.class).bind(source(values, true));
+        GeoPoint reflective = Binders.reflective(GeoPoint.class).bind(source(values, true));
+        assertNull(generated.getRadius(), "An invalid optional number should fall back to null");
+        assertNull(reflective.getRadius());
+        assertThrows(IllegalArgumentException.class, () -> Binders.of(GeoPoint.class).bind(source(values)),
+                "A strict source should reject the invalid number");
+
+        assertEquals(Collections.emptyList(),
+                Binders.of(SearchFilter.class).bind(source(new HashMap<>(), true)).getTiebreakers());
+        assertEquals(Collections.emptyList(),
+                Binders.reflective(SearchFilter.class).bind(source(new HashMap<>(), true)).getTiebreakers());
+        assertNull(Binders.of(SearchFilter.class).bind(source(new HashMap<>())).getTiebreakers(),
+                "A strict source should leave an absent list untouched");
+    }
+
+    @Test
+    public void testEnumParameters() throws MissingParameterException {
+        Map<String, String> values = new HashMap<>();
+        values.put("sort", " Desc ");
+        values.put("tiebreakers", "relevance,UP,0");
+
+        SearchFilter generated = Binders.of(SearchFilter.class).bind(source(values));
+        SearchFilter reflective = Binders.reflective(SearchFilter.class).bind(source(values));
+        System.err.println(generated);
+
+        assertEquals(reflective.toString(), generated.toString());
+        assertEquals(SortOrder.DESCENDING, generated.getSort());
+        assertEquals(Arrays.asList(SortOrder.RELEVANCE, SortOrder.ASCENDING, SortOrder.ASCENDING),
+                generated.getTiebreakers(), "Names, aliases and ordinals should all match");
+        assertEquals(SortOrder.ASCENDING, Binders.of(SearchFilter.class).bind(source(new HashMap<>())).getSort(),
+                "The default should be resolved through its alias");
+
+        values.put("sort", "sideways");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> Binders.of(SearchFilter.class).bind(source(values)));
+        System.err.println(exception.getMessage());
+    }
+}
@@ -1,22 +1,70 @@
 package com.openext.dev;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.openext.dev.binding.InstancePool;
+import com.openext.dev.binding.ParamSource;
+import com.openext.dev.collections.DoubleList;
+import com.openext.dev.entity.BulkLookup;
+import com.openext.dev.entity.LineItem;
+import com.openext.dev.entity.Order;
+import com.openext.dev.entity.PageRequest;
+import com.openext.dev.entity.SortOrder;
+import com.openext.dev.entity.Upload;
 import com.openext.dev.entity.UserInfo2;
+import com.openext.dev.metrics.ParseEvent;
+import com.openext.dev.metrics.ParseMetrics;
+import com.openext.dev.metrics.TypeMetrics;
+import com.openext.dev.parser.BodyDecoder;
 import com.openext.dev.parser.BodyParser;
+import com.openext.dev.parser.DecoderContext;
+import com.openext.dev.parser.FilePart;
+import com.openext.dev.parser.ParseLimits;
+import com.openext.dev.validation.FieldError;
+import com.openext.dev.validation.LimitExceededException;
 import com.openext.dev.validation.MissingParameterException;
+import com.openext.dev.validation.ParseResult;
+import com.openext.dev.validation.RecordBindingException;
+import com.openext.dev.validation.ValidationException;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import javax.management.MBeanServer;
 import javax.servlet.ReadListener;
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -76,13 +124,437 @@ public class BodyParserTest {
     }
 
     @Test
-    public void testParseUrlEncodedRequest() {
+    public void testParseUrlEncodedRequest() throws MissingParameterException, IOException, IllegalAccessException {
         when(mockRequest.getContentType()).thenReturn("application/x-www-form-urlencoded");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "name=J%C3%BCrgen+M&age=25&tracking=" + String.join("", Collections.nCopies(10000, "x"))
+                        + "&hobbies=reading&hobbies=swimming&favoriteNumbers=4%2C5"));
 
-        when(mockRequest.getParameter("name")).thenReturn("Alice");
-        when(mockRequest.getParameter("age")).thenReturn("25");
-        when(mockRequest.getParameter("hobbies")).thenReturn("reading,swimming");
+        UserInfo2 userInfo = bodyParser.parse(mockRequest, UserInfo2.class);
+        System.err.println(userInfo);
+
+        assertEquals("J\u00fcrgen M", userInfo.getName(), "Name should be percent-decoded as UTF-8");
+        assertEquals(25, userInfo.getAge(), "Age should be 25");
+        assertEquals(Arrays.asList("reading", "swimming"), userInfo.getHobbies(), "Repeated keys should form a list");
+        assertEquals(Arrays.asList(4, 5), userInfo.getFavoriteNumbers());
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "name=Al&age=25&hobbies=reading%2C+writing&hobbies=&hobbies=%22chess%22"));
+        userInfo = bodyParser.parse(mockRequest, UserInfo2.class);
+        assertEquals(Arrays.asList("reading", "writing", "\"chess\""), userInfo.getHobbies(),
+                "Each value of a repeated key should be split like a single value");
+    }
+
+    @Test
+    public void testParseMultipartRequest() throws MissingParameterException, IOException, IllegalAccessException {
+        String content = String.join("", Collections.nCopies(1000, "0123456789"));
+        String body = "--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + "Quarterly report\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"tracking\"; filename=\"t.bin\"\r\n\r\n"
+                + content + "\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"document\"; filename=\"report.txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n"
+                + content + "\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"attachments\"; filename=\"a.txt\"\r\n\r\n"
+                + "first\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"attachments\"; filename=\"b.txt\"\r\n\r\n"
+                + "second\r\n--XyZ--\r\n";
+        when(mockRequest.getContentType()).thenReturn("multipart/form-data; boundary=XyZ");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(body));
+        BodyParser bodyParser = BodyParser.builder().fileSizeThreshold(1024).build();
+
+        Upload upload = bodyParser.parse(mockRequest, Upload.class);
+        System.err.println(upload);
+
+        assertEquals("Quarterly report", upload.getTitle());
+        FilePart document = upload.getDocument();
+        assertEquals("report.txt", document.getFileName());
+        assertEquals("text/plain", document.getContentType());
+        assertEquals(content.length(), document.getSize());
+        assertFalse(document.isInMemory(), "A part above the threshold should be spilled to disk");
+        try (InputStream in = document.getInputStream()) {
+            assertEquals(content, new String(readAll(in), StandardCharsets.UTF_8));
+        }
+        Path file = document.getFile();
+        document.close();
+        assertFalse(Files.exists(file), "Closing the part should delete its temporary file");
+
+        assertEquals(2, upload.getAttachments().size());
+        assertTrue(upload.getAttachments().get(1).isInMemory());
+        try (InputStream in = upload.getAttachments().get(1).getInputStream()) {
+            assertEquals("second", new String(readAll(in), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testParseMultipartDropsUnboundFiles() throws Exception {
+        String content = String.join("", Collections.nCopies(1000, "0123456789"));
+        String body = "--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + "Quarterly report\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"title\"; filename=\"title.bin\"\r\n\r\n"
+                + content + "\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"document\"; filename=\"report.txt\"\r\n\r\n"
+                + "short\r\n--XyZ\r\n"
+                + "Content-Disposition: form-data; name=\"document\"; filename=\"extra.txt\"\r\n\r\n"
+                + content + "\r\n--XyZ--\r\n";
+        when(mockRequest.getContentType()).thenReturn("multipart/form-data; boundary=XyZ");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(body));
+        Path tempDirectory = Files.createTempDirectory("multipart-test");
+        BodyParser bodyParser = BodyParser.builder().fileSizeThreshold(1024).tempDirectory(tempDirectory).build();
+
+        try {
+            Upload upload = bodyParser.parse(mockRequest, Upload.class);
+            System.err.println(upload);
+
+            assertEquals("Quarterly report", upload.getTitle(), "A file part of a String field should be skipped");
+            assertEquals("report.txt", upload.getDocument().getFileName(), "A single file field keeps the first part");
+            try (Stream<Path> files = Files.list(tempDirectory)) {
+                assertEquals(0, files.count(), "Parts not handed to the caller should not leave temporary files");
+            }
+        } finally {
+            Files.delete(tempDirectory);
+        }
+    }
+
+    @Test
+    public void testParseAsyncJsonRequest() throws Exception {
+        ChunkedInputStream inputStream = new ChunkedInputStream();
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(inputStream);
+
+        CompletableFuture<UserInfo2> future = bodyParser.parseAsync(mockRequest, UserInfo2.class);
+        Mockito.verify(mockRequest).startAsync();
+
+        inputStream.push("{\"tracking\": {\"ids\": [1, 2]}, \"age\": 2");
+        inputStream.push("5, \"hobbies\": [\"read");
+        assertFalse(future.isDone(), "The body is not complete yet");
+        inputStream.push("ing\", \"swimming\"]}");
+        inputStream.finish();
+
+        UserInfo2 userInfo = future.get();
+        System.err.println(userInfo);
+
+        assertEquals(25, userInfo.getAge(), "A number split across chunks should be read whole");
+        assertEquals(Arrays.asList("reading", "swimming"), userInfo.getHobbies());
+    }
+
+    @Test
+    public void testParseAsyncMissingParameter() throws Exception {
+        ChunkedInputStream inputStream = new ChunkedInputStream();
+        when(mockRequest.getContentType()).thenReturn("application/x-www-form-urlencoded");
+        when(mockRequest.getInputStream()).thenReturn(inputStream);
+
+        CompletableFuture<UserInfo2> future = bodyParser.parseAsync(mockRequest, UserInfo2.class);
+        inputStream.push("name=Al");
+        inputStream.push("ice");
+        inputStream.finish();
 
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(MissingParameterException.class, exception.getCause());
+    }
+
+    @Test
+    public void testParseStreamJsonArray() throws IOException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "[{\"age\": 25, \"hobbies\": [\"reading\"]}, "
+                        + "{\"name\": \"Bob\", \"age\": 30, \"hobbies\": \"chess\"}]"));
+
+        try (Stream<UserInfo2> records = bodyParser.parseStream(mockRequest, UserInfo2.class)) {
+            List<UserInfo2> users = records.collect(Collectors.toList());
+            System.err.println(users);
+
+            assertEquals(2, users.size());
+            assertEquals("Alice", users.get(0).getName(), "Defaults should apply to each record");
+            assertEquals(30, users.get(1).getAge());
+            assertEquals(Collections.singletonList("chess"), users.get(1).getHobbies());
+        }
+    }
+
+    @Test
+    public void testParseStreamNdjsonReportsRecordIndex() throws IOException {
+        when(mockRequest.getContentType()).thenReturn("application/x-ndjson");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "{\"age\": 1, \"hobbies\": \"a\"}\n{\"age\": 2, \"hobbies\": \"b\"}\n{\"age\": 3}\n"));
+
+        List<Integer> ages = new ArrayList<>();
+        try (Stream<UserInfo2> records = bodyParser.parseStream(mockRequest, UserInfo2.class)) {
+            RecordBindingException exception = assertThrows(
+                    RecordBindingException.class,
+                    () -> records.forEach(user -> ages.add(user.getAge()))
+            );
+            System.err.println(exception.getMessage());
+
+            assertEquals(2, exception.getIndex());
+            assertInstanceOf(MissingParameterException.class, exception.getCause());
+        }
+        assertEquals(Arrays.asList(1, 2), ages, "Records before the invalid one should be bound");
+    }
+
+    @Test
+    public void testParseBinaryFormats() throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", "o-7");
+        body.put("items", Collections.singletonList(Collections.singletonMap("sku", "A-100")));
+        body.put("unknown", Collections.singletonMap("nested", Arrays.asList(1, 2, 3)));
+
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("application/x-jackson-smile", new ObjectMapper(new SmileFactory()));
+        formats.put("application/cbor", new ObjectMapper(new CBORFactory()));
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            when(mockRequest.getContentType()).thenReturn(format.getKey());
+            when(mockRequest.getInputStream())
+                    .thenReturn(servletInputStream(format.getValue().writeValueAsBytes(body)));
+
+            Order order = bodyParser.parse(mockRequest, Order.class);
+            System.err.println(format.getKey() + ": " + order);
+
+            assertEquals("o-7", order.getId());
+            assertEquals("A-100", order.getItems().get(0).getSku());
+        }
+    }
+
+    @Test
+    public void testParseCompressedRequest() throws Exception {
+        String json = "{\"age\": 30, \"hobbies\": [\"chess\"], \"favoriteNumbers\": [7]}";
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream deflate = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflate)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, byte[]> bodies = new LinkedHashMap<>();
+        bodies.put("gzip", gzip.toByteArray());
+        bodies.put("deflate", deflate.toByteArray());
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        for (Map.Entry<String, byte[]> body : bodies.entrySet()) {
+            when(mockRequest.getHeader("Content-Encoding")).thenReturn(body.getKey());
+            when(mockRequest.getInputStream()).thenReturn(servletInputStream(body.getValue()));
+
+            UserInfo2 userInfo = bodyParser.parse(mockRequest, UserInfo2.class);
+            System.err.println(body.getKey() + ": " + userInfo);
+
+            assertEquals(30, userInfo.getAge());
+            assertEquals(Collections.singletonList("chess"), userInfo.getHobbies());
+        }
+
+        ByteArrayOutputStream bomb = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bomb)) {
+            out.write("{\"age\": 1, \"name\": \"".getBytes(StandardCharsets.UTF_8));
+            out.write(new byte[4096]);
+        }
+        BodyParser limited = BodyParser.builder().limits(ParseLimits.builder().maxBodySize(1024).build()).build();
+        when(mockRequest.getHeader("Content-Encoding")).thenReturn("gzip");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(bomb.toByteArray()));
+        LimitExceededException exception = assertThrows(LimitExceededException.class,
+                () -> limited.parse(mockRequest, UserInfo2.class));
+        System.err.println(exception.getMessage());
+        assertTrue(exception.getMessage().contains("exceeds 1024 bytes"));
+
+        when(mockRequest.getHeader("Content-Encoding")).thenReturn("br");
+        assertThrows(UnsupportedOperationException.class, () -> bodyParser.parse(mockRequest, UserInfo2.class));
+    }
+
+    @Test
+    public void testParseCompressedRequestLimits() throws IOException {
+        BodyParser limited = BodyParser.builder().limits(ParseLimits.builder().maxBodySize(1024).build()).build();
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getHeader("Content-Encoding")).thenReturn("gzip");
+
+        // A gzip header whose file name never ends produces no output
+        when(mockRequest.getInputStream()).thenReturn(endlessGzipName());
+        LimitExceededException exception = assertThrows(LimitExceededException.class,
+                () -> limited.parse(mockRequest, UserInfo2.class));
+        System.err.println(exception.getMessage());
+        assertTrue(exception.getMessage().contains("exceeds 1024 bytes"));
+
+        when(mockRequest.getInputStream()).thenReturn(endlessGzipName());
+        exception = assertThrows(LimitExceededException.class, () -> bodyParser.parse(mockRequest, UserInfo2.class));
+        System.err.println(exception.getMessage());
+        assertTrue(exception.getMessage().contains("file name"));
+
+        when(mockRequest.getContentLengthLong()).thenReturn(Long.MAX_VALUE);
+        assertThrows(LimitExceededException.class, () -> limited.parse(mockRequest, UserInfo2.class),
+                "A declared Content-Length over the limit should be rejected before inflating");
+    }
+
+    private static ServletInputStream endlessGzipName() {
+        byte[] header = {0x1f, (byte) 0x8b, 8, 8, 0, 0, 0, 0, 0, 0};
+        return new ServletInputStream() {
+            private int position;
+
+            @Override
+            public boolean isFinished() {
+                return false;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+            @Override
+            public int read() {
+                return position < header.length ? header[position++] & 0xff : 'x';
+            }
+        };
+    }
+
+    @Test
+    public void testParseLimits() throws IOException {
+        BodyParser limited = BodyParser.builder()
+                .limits(ParseLimits.builder()
+                        .maxBodySize(256)
+                        .maxFields(4)
+                        .maxNestingDepth(4)
+                        .maxListSize(3)
+                        .build())
+                .build();
+        List<String[]> bodies = Arrays.asList(
+                new String[]{"application/json", "{\"age\": 1, \"hobbies\": [\"a\", \"b\", \"c\", \"d\"]}"},
+                new String[]{"application/x-www-form-urlencoded", "age=1&a=1&b=2&c=3&d=4"},
+                new String[]{"application/json", "{\"age\": 1, \"unknown\": [[[[[1]]]]]}"},
+                new String[]{"application/json",
+                        "{\"name\": \"" + String.join("", Collections.nCopies(300, "x")) + "\"}"});
+        for (String[] body : bodies) {
+            when(mockRequest.getContentType()).thenReturn(body[0]);
+            when(mockRequest.getInputStream()).thenReturn(servletInputStream(body[1]));
+
+            LimitExceededException exception = assertThrows(LimitExceededException.class,
+                    () -> limited.parse(mockRequest, UserInfo2.class), body[1]);
+            System.err.println(body[0] + ": " + exception.getMessage());
+        }
+
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getContentLengthLong()).thenReturn(1L << 20);
+        assertThrows(LimitExceededException.class, () -> limited.parse(mockRequest, UserInfo2.class),
+                "A declared Content-Length over the limit should be rejected before reading");
+    }
+
+    @Test
+    public void testParseAsyncLimits() throws Exception {
+        BodyParser limited = BodyParser.builder()
+                .limits(ParseLimits.builder()
+                        .maxFields(4)
+                        .maxNestingDepth(4)
+                        .maxListSize(3)
+                        .build())
+                .build();
+        List<String> bodies = Arrays.asList(
+                "{\"age\": 1, \"hobbies\": [\"a\", \"b\", \"c\", \"d\"]}",
+                "{\"age\": 1, \"a\": 1, \"b\": 2, \"c\": 3, \"d\": 4}",
+                "{\"age\": 1, \"unknown\": [[[[[1]]]]]}");
+        for (String body : bodies) {
+            ChunkedInputStream inputStream = new ChunkedInputStream();
+            when(mockRequest.getContentType()).thenReturn("application/json");
+            when(mockRequest.getInputStream()).thenReturn(inputStream);
+
+            CompletableFuture<UserInfo2> future = limited.parseAsync(mockRequest, UserInfo2.class);
+            inputStream.push(body);
+            inputStream.finish();
+
+            ExecutionException exception = assertThrows(ExecutionException.class, future::get, body);
+            assertInstanceOf(LimitExceededException.class, exception.getCause(), body);
+            System.err.println("async: " + exception.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testParseMetrics() throws Exception {
+        ParseMetrics metrics = new ParseMetrics().registerMBeans();
+        List<ParseEvent> events = new ArrayList<>();
+        BodyParser instrumented = BodyParser.builder()
+                .listener(event -> {
+                    events.add(event);
+                    metrics.onParse(event);
+                })
+                .build();
+        try {
+            String json = "{\"age\": 30, \"hobbies\": [\"reading\"], \"unknown\": true}";
+            when(mockRequest.getContentType()).thenReturn("application/json");
+            when(mockRequest.getInputStream()).thenReturn(servletInputStream(json));
+            instrumented.parse(mockRequest, UserInfo2.class);
+
+            when(mockRequest.getContentType()).thenReturn("application/x-www-form-urlencoded");
+            when(mockRequest.getInputStream()).thenReturn(servletInputStream("age=30"));
+            assertThrows(MissingParameterException.class, () -> instrumented.parse(mockRequest, UserInfo2.class));
+
+            when(mockRequest.getInputStream()).thenReturn(servletInputStream("age=x&hobbies=reading"));
+            assertThrows(IllegalArgumentException.class, () -> instrumented.parse(mockRequest, UserInfo2.class));
+
+            ParseEvent event = events.get(0);
+            System.err.println("decode " + event.decodeNanos() + " ns, bind " + event.bindNanos() + " ns");
+            assertEquals(ParseEvent.Outcome.SUCCESS, event.outcome());
+            assertEquals(json.length(), event.bytes());
+            assertEquals(2, event.fieldsBound());
+            assertEquals(ParseEvent.Outcome.MISSING_PARAMETER, events.get(1).outcome());
+            assertEquals(1, events.get(1).fieldsBound());
+            assertEquals(ParseEvent.Outcome.INVALID_VALUE, events.get(2).outcome());
+
+            TypeMetrics stats = metrics.get(UserInfo2.class);
+            assertEquals(3, stats.getCount());
+            assertEquals(1, stats.getMissingParameterCount());
+            assertEquals(1, stats.getInvalidValueCount());
+            assertEquals(json.length() + "age=30".length() + "age=x&hobbies=reading".length(), stats.getBytesRead());
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(3L, server.getAttribute(ParseMetrics.objectName(UserInfo2.class.getName()), "Count"));
+        } finally {
+            metrics.unregisterMBeans();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer()
+                .isRegistered(ParseMetrics.objectName(UserInfo2.class.getName())));
+    }
+
+    @Test
+    public void testParseWithCustomDecoder() throws MissingParameterException, IOException, IllegalAccessException {
+        BodyParser bodyParser = BodyParser.builder()
+                .decoder("text/csv", new BodyDecoder() {
+                    @Override
+                    public <T> T decode(InputStream inputStream, String contentType, Charset charset, Class<T> clazz,
+                            DecoderContext context) throws IOException, MissingParameterException {
+                        String[] fields = new String(readAll(inputStream), charset).trim().split(",");
+                        Map<String, String> values = new HashMap<>();
+                        values.put("name", fields[0]);
+                        values.put("age", fields[1]);
+                        values.put("hobbies", fields[2]);
+                        return context.bind(new ParamSource() {
+                            @Override
+                            public String getValue(String name) {
+                                return values.get(name);
+                            }
+
+                            @Override
+                            public Object readValue(String name, String value, Class<?> type) {
+                                throw new IllegalArgumentException("Unsupported field type: " + type.getName());
+                            }
+                        }, clazz);
+                    }
+                })
+                .build();
+        when(mockRequest.getContentType()).thenReturn("Text/CSV; header=absent");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("Bob,41,chess"));
+
+        UserInfo2 userInfo = bodyParser.parse(mockRequest, UserInfo2.class);
+        System.err.println(userInfo);
+
+        assertEquals("Bob", userInfo.getName());
+        assertEquals(41, userInfo.getAge());
+        assertEquals(Collections.singletonList("chess"), userInfo.getHobbies());
+    }
+
+    @Test
+    public void testParseUnsupportedContentType() {
+        when(mockRequest.getContentType()).thenReturn("text/plain");
 
         UnsupportedOperationException exception = assertThrows(
                 UnsupportedOperationException.class,
@@ -145,4 +617,361 @@ public class BodyParserTest {
         assertEquals("reading", hobbies.getString(0), "First hobby should be 'reading'");
         assertEquals("swimming", hobbies.getString(1), "Second hobby should be 'swimming'");
     }
+
+    @Test
+    public void testParseBodyToJSONObjectWithCharset() throws IOException, JSONException {
+        byte[] body = "{\"name\": \"M\u00fcller\", \"note\": \"line1\\nline2\"}".getBytes(StandardCharsets.ISO_8859_1);
+        ByteArrayInputStream bis = new ByteArrayInputStream(body);
+        when(mockRequest.getCharacterEncoding()).thenReturn("ISO-8859-1");
+        when(mockRequest.getInputStream()).thenReturn(new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return bis.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+            @Override
+            public int read() {
+                return bis.read();
+            }
+        });
+
+        JSONObject jsonObject = bodyParser.parseToJSONObject(mockRequest);
+        System.err.println(jsonObject);
+
+        assertEquals("M\u00fcller", jsonObject.getString("name"), "The declared charset should be used");
+        assertEquals("line1\nline2", jsonObject.getString("note"), "Escaped newlines should be kept");
+        assertThrows(JSONException.class, () -> bodyParser.parseToJSONObject(servletInputStream("[1, 2]")));
+    }
+
+    @Test
+    public void testParseJsonStreamsKnownFieldsOnly() throws MissingParameterException, IOException, IllegalAccessException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+
+        String jsonData = "{\"metadata\": {\"trace\": [1, {\"name\": \"Bob\"}]}, \"age\": 25,"
+                + " \"hobbies\": [\"reading\"], \"favoriteNumbers\": [7, 8], \"debug\": \"ignored\"}";
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(jsonData));
+
+        UserInfo2 userInfo = bodyParser.parse(mockRequest, UserInfo2.class);
+        System.err.println(userInfo);
+
+        assertEquals("Alice", userInfo.getName(), "Name should fall back to its default");
+        assertEquals(25, userInfo.getAge(), "Age should be 25");
+        assertEquals(Arrays.asList("reading"), userInfo.getHobbies());
+        assertEquals(Arrays.asList(7, 8), userInfo.getFavoriteNumbers(), "Numbers should be bound as Integers");
+    }
+
+    @Test
+    public void testParseJsonNestedObjects() throws MissingParameterException, IOException, IllegalAccessException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+
+        String jsonData = "{\"id\": \"o-1\", \"items\": [{\"sku\": \"A-100\", \"quantity\": 2},"
+                + " {\"sku\": \"B-200\", \"quantity\": 1}], \"attributes\": {\"gift\": \"yes\"}}";
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(jsonData));
+
+        Order order = bodyParser.parse(mockRequest, Order.class);
+        System.err.println(order);
+
+        assertEquals("o-1", order.getId());
+        assertEquals(2, order.getItems().size());
+        LineItem first = order.getItems().get(0);
+        assertEquals("A-100", first.getSku(), "Items should be bound as LineItem instances");
+        assertEquals(2, first.getQuantity());
+        assertEquals(Collections.singletonMap("gift", "yes"), order.getAttributes());
+    }
+
+    @Test
+    public void testParseJsonPrimitiveArrays() throws MissingParameterException, IOException, IllegalAccessException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "{\"ids\": [7, 8, 9], \"accounts\": [9007199254740993], \"weights\": [1, 2.5]}"));
+
+        BulkLookup lookup = bodyParser.parse(mockRequest, BulkLookup.class);
+        System.err.println(lookup);
+
+        assertArrayEquals(new int[] {7, 8, 9}, lookup.getIds());
+        assertEquals(9007199254740993L, lookup.getAccounts().getLong(0));
+        assertEquals(2.5, lookup.getWeights().getDouble(1));
+    }
+
+    @Test
+    public void testParseValidatedPrimitiveArrays() throws IOException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "{\"ids\": [7, \"x\", 9], \"accounts\": \"100,2O0\", \"weights\": [1, 99999999999999999999, true]}"));
+
+        ParseResult<BulkLookup> result = bodyParser.parseValidated(mockRequest, BulkLookup.class);
+        System.err.println(result);
+
+        List<FieldError> errors = result.errors();
+        assertEquals(3, errors.size(), "Each bad element should be recorded as an error of its field");
+        assertEquals("ids", errors.get(0).field());
+        assertEquals("accounts", errors.get(1).field());
+        assertEquals("weights", errors.get(2).field());
+        assertEquals(FieldError.Code.INVALID_VALUE, errors.get(2).code());
+    }
+
+    // A thread-safety test, not a contention measurement: one parser binds a mix of bodies on many threads, including
+    // the generic Map field of Order whose reader is shared, and every thread must get its own values back
+    @Test
+    public void testSharedParserIsThreadSafe() throws Exception {
+        BodyParser shared = BodyParser.builder().preload(UserInfo2.class, Order.class).build();
+        int threads = 64;
+        int iterations = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+            when(request.getContentType()).thenReturn("application/json");
+            if (id % 2 == 0) {
+                when(request.getInputStream()).thenAnswer(invocation -> servletInputStream(
+                        "{\"age\": " + id + ", \"hobbies\": [\"h" + id + "\"]}"));
+            } else {
+                when(request.getInputStream()).thenAnswer(invocation -> servletInputStream(
+                        "{\"id\": \"o" + id + "\", \"items\": [{\"sku\": \"s" + id + "\", \"quantity\": " + id + "}],"
+                                + " \"attributes\": {\"thread\": \"" + id + "\"}}"));
+            }
+            results.add(executor.submit(() -> {
+                start.await();
+                int bound = 0;
+                for (int i = 0; i < iterations; i++) {
+                    if (id % 2 == 0) {
+                        UserInfo2 userInfo = shared.parse(request, UserInfo2.class);
+                        assertEquals(id, userInfo.getAge());
+                        assertEquals(Collections.singletonList("h" + id), userInfo.getHobbies());
+                    } else {
+                        Order order = shared.parse(request, Order.class);
+                        assertEquals("o" + id, order.getId());
+                        assertEquals(id, order.getItems().get(0).getQuantity());
+                        assertEquals(Collections.singletonMap("thread", String.valueOf(id)), order.getAttributes());
+                    }
+                    bound++;
+                }
+                return bound;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<Integer> result : results) {
+                assertEquals(iterations, result.get(60, TimeUnit.SECONDS), "Every parse should bind its own body");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testParseJsonInvalidNumber() throws IOException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"age\": \"abc\", \"hobbies\": [\"a\"]}"));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> bodyParser.parse(mockRequest, UserInfo2.class)
+        );
+        assertEquals("Invalid value for parameter: age", exception.getMessage());
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"id\": \"o-1\", \"items\": \"none\"}"));
+        exception = assertThrows(IllegalArgumentException.class, () -> bodyParser.parse(mockRequest, Order.class));
+        assertEquals("Items are required", exception.getMessage(), "The message of the annotation should be used");
+    }
+
+    @Test
+    public void testParseValidated() throws IOException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "{\"age\": \"abc\", \"favoriteNumbers\": [1, \"x\", [2]], \"name\": \"Bob\"}"));
+
+        ParseResult<UserInfo2> result = bodyParser.parseValidated(mockRequest, UserInfo2.class);
+        System.err.println(result);
+
+        assertFalse(result.isValid());
+        assertNull(result.value());
+        List<FieldError> errors = result.errors();
+        assertEquals(3, errors.size(), "Every error should be collected in one pass");
+        assertEquals("age", errors.get(0).field());
+        assertEquals(FieldError.Code.INVALID_VALUE, errors.get(0).code());
+        assertEquals("favoriteNumbers", errors.get(1).field());
+        assertEquals(FieldError.Code.INVALID_VALUE, errors.get(1).code());
+        assertEquals("hobbies", errors.get(2).field());
+        assertEquals(FieldError.Code.MISSING, errors.get(2).code());
+        assertEquals("Hobbies are required", errors.get(2).message());
+
+        ValidationException exception = assertThrows(ValidationException.class, result::orElseThrow);
+        assertEquals(0, exception.getStackTrace().length, "The exception should not record a stack trace");
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"age\": 25, "));
+        result = bodyParser.parseValidated(mockRequest, UserInfo2.class);
+        assertEquals(FieldError.Code.MALFORMED, result.errors().get(0).code());
+        assertNull(result.errors().get(0).field());
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"age\": 25, \"hobbies\": [\"a\"]}"));
+        result = bodyParser.parseValidated(mockRequest, UserInfo2.class);
+        assertTrue(result.isValid());
+        assertEquals(25, result.orElseThrow().getAge());
+    }
+
+    @Test
+    public void testParseInto() throws IOException, MissingParameterException {
+        InstancePool<UserInfo2> pool = new InstancePool<>(UserInfo2.class, 1);
+        UserInfo2 userInfo = pool.acquire();
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "{\"name\": \"Bob\", \"age\": 25, \"hobbies\": [\"reading\", \"coding\"]}"));
+
+        assertSame(userInfo, bodyParser.parseInto(mockRequest, userInfo));
+        List<String> hobbies = userInfo.getHobbies();
+        assertEquals(Arrays.asList("reading", "coding"), hobbies);
+        pool.release(userInfo);
+
+        UserInfo2 reused = pool.acquire();
+        assertSame(userInfo, reused);
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"age\": 30, \"hobbies\": [\"hiking\"]}"));
+        bodyParser.parseInto(mockRequest, reused);
+        System.err.println(reused);
+
+        assertEquals("Alice", reused.getName(), "A field left out should be reset to its default");
+        assertEquals(30, reused.getAge());
+        assertSame(hobbies, reused.getHobbies(), "The list should be refilled in place");
+        assertEquals(Collections.singletonList("hiking"), reused.getHobbies());
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"age\": 30}"));
+        assertThrows(MissingParameterException.class, () -> bodyParser.parseInto(mockRequest, reused));
+    }
+
+    @Test
+    public void testParseIntoPrimitiveLists() throws IOException, MissingParameterException {
+        BulkLookup lookup = new BulkLookup();
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"ids\": [1], \"weights\": [1.5, 2]}"));
+        bodyParser.parseInto(mockRequest, lookup);
+        DoubleList weights = lookup.getWeights();
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"ids\": [2], \"weights\": \"3.5\"}"));
+        bodyParser.parseInto(mockRequest, lookup);
+        System.err.println(lookup);
+
+        assertSame(weights, lookup.getWeights(), "The primitive list should be refilled in place");
+        assertEquals(1, weights.size());
+        assertEquals(3.5, weights.getDouble(0));
+    }
+
+    @Test
+    public void testParseRecord() throws IOException, MissingParameterException, IllegalAccessException {
+        when(mockRequest.getContentType()).thenReturn("application/json");
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream(
+                "{\"query\": \"shoes\", \"sort\": \"desc\", \"tags\": [\"red\", \"sale\"]}"));
+
+        PageRequest pageRequest = bodyParser.parse(mockRequest, PageRequest.class);
+        System.err.println(pageRequest);
+
+        assertEquals("shoes", pageRequest.query());
+        assertEquals(1, pageRequest.page());
+        assertEquals(SortOrder.DESCENDING, pageRequest.sort());
+        assertEquals(Arrays.asList("red", "sale"), pageRequest.tags());
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"page\": 2}"));
+        assertThrows(MissingParameterException.class, () -> bodyParser.parse(mockRequest, PageRequest.class));
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"query\": \"shoes\", \"page\": 0}"));
+        ParseResult<PageRequest> result = bodyParser.parseValidated(mockRequest, PageRequest.class);
+        assertFalse(result.isValid());
+        assertNull(result.errors().get(0).field(), "A constructor rejecting its arguments is a request-level error");
+        assertEquals("Cannot create " + PageRequest.class.getName() + ": page must be positive",
+                result.errors().get(0).message());
+
+        when(mockRequest.getInputStream()).thenReturn(servletInputStream("{\"query\": \"boots\"}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> bodyParser.parseInto(mockRequest, new PageRequest("shoes", 1, SortOrder.ASCENDING, null)),
+                "A record cannot be bound into");
+    }
+
+    /**
+     * Delivers the body in chunks, calling the read listener as a container would when data arrives
+     */
+    private static class ChunkedInputStream extends ServletInputStream {
+        private ByteArrayInputStream chunk = new ByteArrayInputStream(new byte[0]);
+        private ReadListener readListener;
+        private boolean finished;
+
+        void push(String data) throws IOException {
+            chunk = new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8));
+            readListener.onDataAvailable();
+        }
+
+        void finish() throws IOException {
+            finished = true;
+            readListener.onAllDataRead();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return chunk.available() > 0;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.readListener = readListener;
+        }
+
+        @Override
+        public int read() {
+            return chunk.read();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static ServletInputStream servletInputStream(String data) {
+        return servletInputStream(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ServletInputStream servletInputStream(byte[] data) {
+        ByteArrayInputStream bis = new ByteArrayInputStream(data);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return bis.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+
+            @Override
+            public int read() throws IOException {
+                return bis.read();
+            }
+        };
+    }
 }
@@ -1,17 +1,40 @@
 package com.openext.dev;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.openext.dev.binding.ListTokenizer;
+import com.openext.dev.entity.BulkLookup;
+import com.openext.dev.entity.GeoPoint;
+import com.openext.dev.entity.PageRequest;
+import com.openext.dev.entity.SearchFilter;
+import com.openext.dev.entity.SortOrder;
+import com.openext.dev.entity.UserInfo;
+import com.openext.dev.metrics.ParseEvent;
+import com.openext.dev.parser.ParseLimits;
 import com.openext.dev.parser.RequestParser;
+import com.openext.dev.validation.FieldError;
+import com.openext.dev.validation.LimitExceededException;
+import com.openext.dev.validation.ParseResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RequestParserTest {
@@ -105,4 +128,203 @@ public class RequestParserTest {
 
         assertNotNull(result);
     }
+
+    @Test
+    public void testParseParamToList_SeparatorAndQuote() {
+        when(mockRequest.getParameter("cities")).thenReturn("Paris; \"Washington; D.C.\" ;\"Say \"\"hi\"\"\"");
+
+        List<String> result = RequestParser.parseParamToList(mockRequest, "cities", "", false, String.class,
+                ListTokenizer.of(';', '"'));
+        System.err.println("result: " + result);
+
+        assertEquals(3, result.size());
+        assertEquals("Paris", result.get(0));
+        assertEquals("Washington; D.C.", result.get(1), "Quoted element should keep the separator");
+        assertEquals("Say \"hi\"", result.get(2), "Doubled quotes should be unescaped");
+    }
+
+    @Test
+    public void testParseParamToIntArray() {
+        when(mockRequest.getParameter("ids")).thenReturn("3, 1,2");
+
+        int[] result = RequestParser.parseParamToIntArray(mockRequest, "ids", "", false);
+
+        assertArrayEquals(new int[] {3, 1, 2}, result);
+        assertArrayEquals(new long[0], RequestParser.parseParamToLongArray(mockRequest, "missing", "", false));
+
+        ParseLimits limits = ParseLimits.builder().maxListSize(2).build();
+        assertThrows(LimitExceededException.class,
+                () -> RequestParser.parseParamToIntArray(mockRequest, "ids", "", false, limits),
+                "The given limits should apply instead of the defaults");
+    }
+
+    @Test
+    public void testParseRequestPrimitiveSequences() {
+        when(mockRequest.getParameter("ids")).thenReturn("10,20,30");
+        when(mockRequest.getParameter("weights")).thenReturn("0.5,1.5");
+
+        BulkLookup lookup = RequestParser.parseRequest(mockRequest, BulkLookup.class);
+        System.err.println(lookup);
+
+        assertArrayEquals(new int[] {10, 20, 30}, lookup.getIds());
+        assertEquals(2, lookup.getAccounts().size());
+        assertEquals(200L, lookup.getAccounts().getLong(1), "Accounts should fall back to the default");
+        assertEquals(1.5, lookup.getWeights().getDouble(1));
+
+        when(mockRequest.getParameter("ids")).thenReturn("10,x");
+        assertThrows(IllegalArgumentException.class, () -> RequestParser.parseRequest(mockRequest, BulkLookup.class));
+    }
+
+    @Test
+    public void testParseLimits() {
+        ParseLimits limits = ParseLimits.builder().maxListSize(3).maxStringLength(16).build();
+        when(mockRequest.getParameter("numbers")).thenReturn("1,2,3,4");
+
+        LimitExceededException exception = assertThrows(LimitExceededException.class,
+                () -> RequestParser.parseParamToList(mockRequest, "numbers", "", false, Integer.class,
+                        ListTokenizer.DEFAULT, limits));
+        System.err.println(exception.getMessage());
+        assertTrue(exception.getMessage().contains("numbers"));
+
+        when(mockRequest.getParameter("ids")).thenReturn("10,20,30,40");
+        assertThrows(LimitExceededException.class,
+                () -> RequestParser.parseRequest(mockRequest, BulkLookup.class, limits));
+        when(mockRequest.getParameter("ids")).thenReturn("10,20,30");
+        assertArrayEquals(new int[] {10, 20, 30},
+                RequestParser.parseRequest(mockRequest, BulkLookup.class, limits).getIds());
+    }
+
+    @Test
+    public void testParseListener() {
+        List<ParseEvent> events = new ArrayList<>();
+        RequestParser.setParseListener(events::add);
+        try {
+            when(mockRequest.getParameter("ids")).thenReturn("10,20,30");
+            when(mockRequest.getParameter("weights")).thenReturn("0.5");
+            RequestParser.parseRequest(mockRequest, BulkLookup.class);
+
+            when(mockRequest.getParameter("ids")).thenReturn(null);
+            assertThrows(IllegalArgumentException.class,
+                    () -> RequestParser.parseRequest(mockRequest, BulkLookup.class));
+        } finally {
+            RequestParser.setParseListener(null);
+        }
+        System.err.println("bind " + events.get(0).bindNanos() + " ns");
+
+        assertEquals(2, events.size());
+        assertEquals(ParseEvent.Outcome.SUCCESS, events.get(0).outcome());
+        assertEquals(BulkLookup.class, events.get(0).type());
+        assertEquals(2, events.get(0).fieldsBound());
+        assertEquals(ParseEvent.Outcome.MISSING_PARAMETER, events.get(1).outcome());
+    }
+
+    @Test
+    public void testParseQueryString() {
+        when(mockRequest.getQueryString()).thenReturn("q=ignored&name=Alice+Smith&age=30&hobbies=reading%2Chiking"
+                + "&sort=date&hobbies=chess&favoriteNumbers=7,8&name=Bob");
+
+        UserInfo userInfo = RequestParser.parseQueryString(mockRequest, UserInfo.class);
+        System.err.println(userInfo);
+
+        assertEquals("Alice Smith", userInfo.getName(), "A repeated scalar should keep its first value");
+        assertEquals(30, userInfo.getAge());
+        assertEquals(Arrays.asList("reading", "hiking", "chess"), userInfo.getHobbies(),
+                "Each repeated list value should be split like a single value");
+        assertEquals(Arrays.asList(7, 8), userInfo.getFavoriteNumbers());
+        verify(mockRequest, never()).getParameter(anyString());
+
+        when(mockRequest.getQueryString()).thenReturn("name=Alice&age=30&hobbies=%E2%82");
+        assertThrows(IllegalArgumentException.class, () -> RequestParser.parseQueryString(mockRequest, UserInfo.class),
+                "A truncated UTF-8 sequence should be rejected");
+        when(mockRequest.getQueryString()).thenReturn(null);
+        assertThrows(IllegalArgumentException.class, () -> RequestParser.parseQueryString(mockRequest, UserInfo.class),
+                "Required parameters should be missing without a query string");
+    }
+
+    @Test
+    public void testParseValidated() {
+        when(mockRequest.getParameter("sort")).thenReturn("sideways");
+        when(mockRequest.getParameter("tiebreakers")).thenReturn("desc,2");
+
+        ParseResult<SearchFilter> result = RequestParser.parseValidated(mockRequest, SearchFilter.class);
+        System.err.println(result);
+
+        assertFalse(result.isValid());
+        assertEquals(1, result.errors().size());
+        assertEquals("sort", result.errors().get(0).field());
+        assertEquals(FieldError.Code.INVALID_VALUE, result.errors().get(0).code());
+
+        when(mockRequest.getParameter("sort")).thenReturn("up");
+        result = RequestParser.parseValidated(mockRequest, SearchFilter.class);
+        assertTrue(result.isValid());
+        assertEquals(SortOrder.ASCENDING, result.value().getSort());
+        assertEquals(Arrays.asList(SortOrder.DESCENDING, SortOrder.RELEVANCE), result.value().getTiebreakers());
+
+        when(mockRequest.getParameter("age")).thenReturn("old");
+        ParseResult<UserInfo> missing = RequestParser.parseValidated(mockRequest, UserInfo.class);
+        System.err.println(missing);
+        assertEquals(3, missing.errors().size(), "Missing and invalid parameters should be collected together");
+        assertEquals(FieldError.Code.MISSING, missing.errors().get(0).code());
+        assertEquals(FieldError.Code.INVALID_VALUE, missing.errors().get(1).code());
+        assertEquals("Hobbies are required", missing.errors().get(2).message());
+    }
+
+    @Test
+    public void testParseInto() {
+        when(mockRequest.getParameter("sort")).thenReturn("desc");
+        when(mockRequest.getParameter("tiebreakers")).thenReturn("up,2");
+        SearchFilter filter = RequestParser.parseInto(mockRequest, new SearchFilter());
+        List<SortOrder> tiebreakers = filter.getTiebreakers();
+        assertEquals(SortOrder.DESCENDING, filter.getSort());
+
+        when(mockRequest.getParameter("sort")).thenReturn(null);
+        when(mockRequest.getParameter("tiebreakers")).thenReturn("relevance");
+        assertSame(filter, RequestParser.parseInto(mockRequest, filter));
+        System.err.println(filter.getSort() + " " + filter.getTiebreakers());
+
+        assertEquals(SortOrder.ASCENDING, filter.getSort(), "A parameter left out should be reset to its default");
+        assertSame(tiebreakers, filter.getTiebreakers(), "The list should be refilled in place");
+        assertEquals(Arrays.asList(SortOrder.RELEVANCE), filter.getTiebreakers());
+    }
+
+    @Test
+    public void testParseRequestFallbacks() {
+        when(mockRequest.getParameter("query")).thenReturn("shoes");
+        when(mockRequest.getParameter("page")).thenReturn("zz");
+
+        PageRequest page = RequestParser.parseRequest(mockRequest, PageRequest.class);
+        System.err.println(page);
+
+        assertEquals(1, page.page(), "An unparseable optional number should fall back to its default");
+        assertEquals(Collections.emptyList(), page.tags(), "An absent list should be bound as an empty list");
+        assertEquals(Collections.emptyList(), RequestParser.parseRequest(mockRequest, SearchFilter.class)
+                .getTiebreakers());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> RequestParser.parseRequest(mockRequest, UserInfo.class));
+        assertEquals("Error parsing request parameters: Invalid value for parameter: name", exception.getMessage(),
+                "The first missing parameter should be reported");
+        when(mockRequest.getParameter("name")).thenReturn("Alice");
+        when(mockRequest.getParameter("age")).thenReturn("30");
+        exception = assertThrows(IllegalArgumentException.class,
+                () -> RequestParser.parseRequest(mockRequest, UserInfo.class));
+        assertEquals("Error parsing request parameters: Hobbies are required", exception.getMessage());
+        assertEquals("hobbies is required", exception.getCause().getMessage());
+    }
+
+    @Test
+    public void testParseConstructor() {
+        when(mockRequest.getParameter("lat")).thenReturn("52.52");
+        when(mockRequest.getParameter("lng")).thenReturn("13.405");
+
+        GeoPoint point = RequestParser.parseRequest(mockRequest, GeoPoint.class);
+        System.err.println(point);
+
+        assertEquals(52.52, point.getLatitude());
+        assertEquals(13.405, point.getLongitude());
+        assertNull(point.getRadius());
+
+        when(mockRequest.getParameter("lng")).thenReturn(null);
+        assertThrows(IllegalArgumentException.class, () -> RequestParser.parseRequest(mockRequest, GeoPoint.class));
+    }
 }
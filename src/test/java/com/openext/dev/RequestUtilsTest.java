@@ -0,0 +1,97 @@
+package com.openext.dev;
+
+import com.openext.dev.binding.EnumLookup;
+import com.openext.dev.entity.SortOrder;
+import com.openext.dev.utils.HReqParam;
+import com.openext.dev.utils.PrimitiveParser;
+import com.openext.dev.utils.RequestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+public class RequestUtilsTest {
+
+    private HttpServletRequest mockRequest;
+
+    @BeforeEach
+    public void setUp() {
+        mockRequest = Mockito.mock(HttpServletRequest.class);
+    }
+
+    @Test
+    public void testPrimitiveParser() {
+        assertEquals(42, PrimitiveParser.parseInt(" 42\t", -1));
+        assertEquals(Integer.MIN_VALUE, PrimitiveParser.parseInt("-2147483648", -1));
+        assertEquals(-1, PrimitiveParser.parseInt("2147483648", -1), "Overflow should fall back to the default");
+        assertEquals(-1, PrimitiveParser.parseInt("12abc", -1));
+        assertEquals(-1, PrimitiveParser.parseInt(null, -1));
+        assertTrue(PrimitiveParser.isLong("9223372036854775807"));
+        assertFalse(PrimitiveParser.isLong("9223372036854775808"));
+        assertTrue(PrimitiveParser.isLong("0"));
+        assertEquals(-1.5e10, PrimitiveParser.parseDouble("-1.5e+10", 0d));
+        assertFalse(PrimitiveParser.isDouble("1e"));
+        assertFalse(PrimitiveParser.isDouble("."));
+        assertTrue(PrimitiveParser.parseBoolean(" TRUE ", false));
+        assertFalse(PrimitiveParser.parseBoolean("yes", true));
+    }
+
+    @Test
+    public void testPrimitiveAccessors() {
+        when(mockRequest.getParameter("page")).thenReturn("3");
+        when(mockRequest.getParameter("ratio")).thenReturn("abc");
+
+        assertEquals(3, HReqParam.getIntValue(mockRequest, "page", 1));
+        assertEquals(1, HReqParam.getIntValue(mockRequest, "size", 1), "Absent parameter should use the default");
+        assertEquals(0.5, HReqParam.getDoubleValue(mockRequest, "ratio", 0.5), "Invalid number should use the default");
+        assertTrue(HReqParam.hasParameter(mockRequest, "page"));
+        assertFalse(HReqParam.hasParameter(mockRequest, "size"));
+        assertFalse(HReqParam.hasParameter(mockRequest, " "));
+        assertNull(HReqParam.getIntExl(mockRequest, "ratio"));
+    }
+
+    @Test
+    public void testRequiredParameters() {
+        when(mockRequest.getParameter("page")).thenReturn("10");
+        when(mockRequest.getParameter("limit")).thenReturn("ten");
+
+        assertEquals(Integer.valueOf(10), RequestUtils.getInt(mockRequest, "page", 10, true),
+                "A value equal to the default is still present");
+        assertEquals(Long.valueOf(20L), RequestUtils.getLong(mockRequest, "offset", 20L, false));
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> RequestUtils.getInt(mockRequest, "limit", 5, true)
+        );
+        assertEquals("limit is required", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> RequestUtils.getString(mockRequest, "q", null, true));
+        when(mockRequest.getParameter("q")).thenReturn("");
+        assertEquals("", RequestUtils.getString(mockRequest, "q", "all", true), "An empty parameter is present");
+    }
+
+    @Test
+    public void testEnumLookup() {
+        EnumLookup<SortOrder> lookup = EnumLookup.of(SortOrder.class);
+        assertSame(lookup, EnumLookup.of(SortOrder.class), "The lookup should be built once per enum");
+        assertEquals(SortOrder.DESCENDING, lookup.find("descending"));
+        assertEquals(SortOrder.ASCENDING, lookup.find(" ASC "));
+        assertEquals(SortOrder.RELEVANCE, lookup.find("2"));
+        assertEquals(SortOrder.DESCENDING, lookup.find("sort=desc", 5, 9));
+        assertEquals(SortOrder.ASCENDING, lookup.find("[up]".toCharArray(), 1, 2));
+        assertNull(lookup.find("3"), "A miss should return null");
+        assertNull(lookup.find(""));
+        assertThrows(IllegalArgumentException.class, () -> lookup.parse("sideways"));
+
+        when(mockRequest.getParameter("sort")).thenReturn("Desc");
+        assertEquals(SortOrder.DESCENDING, RequestUtils.getEnum(mockRequest, "sort", SortOrder.class, null, true),
+                "RequestUtils should match enums like the parsers");
+        when(mockRequest.getParameter("sort")).thenReturn("sideways");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> RequestUtils.getEnum(mockRequest, "sort", SortOrder.class, null, true));
+        assertEquals("Invalid value for parameter sort: sideways", exception.getMessage());
+    }
+}
@@ -0,0 +1,31 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.RequestParam;
+import com.openext.dev.collections.DoubleList;
+import com.openext.dev.collections.LongList;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Arrays;
+
+@Getter
+@Setter
+public class BulkLookup {
+    @RequestParam(name = "ids", required = true)
+    private int[] ids;
+
+    @RequestParam(name = "accounts", defaultValue = "100,200")
+    private LongList accounts;
+
+    @RequestParam(name = "weights")
+    private DoubleList weights;
+
+    @Override
+    public String toString() {
+        return "BulkLookup{" +
+                "ids=" + Arrays.toString(ids) +
+                ", accounts=" + accounts +
+                ", weights=" + weights +
+                '}';
+    }
+}
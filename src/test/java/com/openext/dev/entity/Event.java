@@ -0,0 +1,35 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.RequestParam;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class Event {
+    @RequestParam(name = "id", required = true)
+    private String id;
+
+    @RequestParam(name = "type", required = true)
+    private String type;
+
+    @RequestParam(name = "userId")
+    private long userId;
+
+    @RequestParam(name = "timestamp")
+    private long timestamp;
+
+    @RequestParam(name = "amount")
+    private double amount;
+
+    @Override
+    public String toString() {
+        return "Event{" +
+                "id='" + id + '\'' +
+                ", type='" + type + '\'' +
+                ", userId=" + userId +
+                ", timestamp=" + timestamp +
+                ", amount=" + amount +
+                '}';
+    }
+}
@@ -0,0 +1,28 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.RequestParam;
+import lombok.Getter;
+
+@Getter
+public class GeoPoint {
+    private final double latitude;
+    private final double longitude;
+    private final Integer radius;
+
+    public GeoPoint(@RequestParam(name = "lat", required = true) double latitude,
+            @RequestParam(name = "lng", required = true) double longitude,
+            @RequestParam(name = "radius") Integer radius) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radius = radius;
+    }
+
+    @Override
+    public String toString() {
+        return "GeoPoint{" +
+                "latitude=" + latitude +
+                ", longitude=" + longitude +
+                ", radius=" + radius +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.openext.dev.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class LineItem {
+    private String sku;
+
+    private int quantity;
+
+    @Override
+    public String toString() {
+        return "LineItem{" +
+                "sku='" + sku + '\'' +
+                ", quantity=" + quantity +
+                '}';
+    }
+}
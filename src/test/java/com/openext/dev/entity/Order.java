@@ -0,0 +1,30 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.RequestParam;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+public class Order {
+    @RequestParam(name = "id", required = true)
+    private String id;
+
+    @RequestParam(name = "items", required = true, message = "Items are required")
+    private List<LineItem> items;
+
+    @RequestParam(name = "attributes")
+    private Map<String, String> attributes;
+
+    @Override
+    public String toString() {
+        return "Order{" +
+                "id='" + id + '\'' +
+                ", items=" + items +
+                ", attributes=" + attributes +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.RequestParam;
+
+import java.util.List;
+
+public record PageRequest(
+        @RequestParam(name = "query", required = true) String query,
+        @RequestParam(name = "page", defaultValue = "1") int page,
+        @RequestParam(name = "sort", defaultValue = "asc") SortOrder sort,
+        @RequestParam(name = "tags") List<String> tags) {
+
+    public PageRequest {
+        if (page < 1) {
+            throw new IllegalArgumentException("page must be positive");
+        }
+    }
+}
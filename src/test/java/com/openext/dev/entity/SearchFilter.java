@@ -0,0 +1,25 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.RequestParam;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class SearchFilter {
+    @RequestParam(name = "sort", defaultValue = "asc")
+    private SortOrder sort;
+
+    @RequestParam(name = "tiebreakers")
+    private List<SortOrder> tiebreakers;
+
+    @Override
+    public String toString() {
+        return "SearchFilter{" +
+                "sort=" + sort +
+                ", tiebreakers=" + tiebreakers +
+                '}';
+    }
+}
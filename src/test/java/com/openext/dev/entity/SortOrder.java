@@ -0,0 +1,13 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.EnumAlias;
+import com.openext.dev.annotations.EnumOrdinals;
+
+@EnumOrdinals
+public enum SortOrder {
+    @EnumAlias({"asc", "up"})
+    ASCENDING,
+    @EnumAlias("desc")
+    DESCENDING,
+    RELEVANCE
+}
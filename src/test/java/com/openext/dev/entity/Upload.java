@@ -0,0 +1,30 @@
+package com.openext.dev.entity;
+
+import com.openext.dev.annotations.RequestParam;
+import com.openext.dev.parser.FilePart;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class Upload {
+    @RequestParam(name = "title", required = true)
+    private String title;
+
+    @RequestParam(name = "document", required = true, message = "Document is required")
+    private FilePart document;
+
+    @RequestParam(name = "attachments")
+    private List<FilePart> attachments;
+
+    @Override
+    public String toString() {
+        return "Upload{" +
+                "title='" + title + '\'' +
+                ", document=" + document +
+                ", attachments=" + attachments +
+                '}';
+    }
+}